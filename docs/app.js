@@ -2,6 +2,8 @@
 const API_BASE_URL = 'https://kihongan-raid-liff.onrender.com';
 let appToken = null;
 let currentUser = null;
+let raidsById = {};
+let raidStream = null;
 
 // 初始化 LIFF
 let isInitializing = false;
@@ -70,6 +72,7 @@ async function initializeLiff() {
         
         // 自動載入初始資料（預設顯示遠征列表）
         await loadRaids();
+        connectRaidStream();
         
     } catch (error) {
         console.error('LIFF 初始化失敗:', error);
@@ -125,6 +128,7 @@ async function mockLogin() {
         // 自動載入初始資料
         loadMyCharacters();
         loadRaids();
+        connectRaidStream();
         
     } catch (error) {
         console.error('登入錯誤:', error);
@@ -444,20 +448,44 @@ function displayRaids(raids) {
     // 按時間排序
     raids.sort((a, b) => new Date(a.startTime) - new Date(b.startTime));
     
-    // 為每個遠征載入報名人數
-    raids.forEach(async (raid) => {
-        try {
-            const signups = await apiRequest(`/raids/${raid.id}/signups`, { noAuth: true });
-            raid.signupCount = signups.length;
-            updateRaidCard(raid);
-        } catch (error) {
-            console.error('載入報名人數失敗:', error);
-        }
-    });
+    // 報名人數已由 /raids 一併回傳 (signupCount / isFull)
+    raidsById = {};
+    raids.forEach(raid => { raidsById[raid.id] = raid; });
     
     container.innerHTML = raids.map(raid => createRaidCard(raid)).join('');
 }
 
+// 即時遠征更新 (SSE)：報名人數變動直接更新卡片，新增/刪除遠征時重新載入列表
+function connectRaidStream() {
+    if (raidStream || typeof EventSource === 'undefined') return;
+    
+    raidStream = new EventSource(`${API_BASE_URL}/raids/stream`);
+    
+    const onCountChanged = (event) => {
+        const data = JSON.parse(event.data);
+        const raid = raidsById[data.raidId];
+        if (!raid) return;
+        
+        raid.signupCount = data.signupCount;
+        raid.isFull = data.isFull;
+        
+        const signupsDiv = document.getElementById(`signups-${data.raidId}`);
+        const expanded = signupsDiv && signupsDiv.classList.contains('show');
+        updateRaidCard(raid);
+        if (expanded) {
+            document.getElementById(`signups-${data.raidId}`).classList.add('show');
+            document.getElementById(`raid-${data.raidId}`).classList.add('expanded');
+            loadRaidSignups(data.raidId);
+        }
+    };
+    
+    raidStream.addEventListener('signup-added', onCountChanged);
+    raidStream.addEventListener('signup-cancelled', onCountChanged);
+    raidStream.addEventListener('raid-created', () => loadRaids());
+    raidStream.addEventListener('raid-deleted', () => loadRaids());
+    raidStream.addEventListener('board-reset', () => loadRaids());
+}
+
 // 取得星期幾的中文名稱
 function getWeekDayName(date) {
     const days = ['日', '一', '二', '三', '四', '五', '六'];
@@ -466,7 +494,7 @@ function getWeekDayName(date) {
 
 function createRaidCard(raid) {
     const signupCount = raid.signupCount || 0;
-    const isFull = signupCount >= 6;
+    const isFull = raid.isFull ?? signupCount >= 6;
     const raidDate = new Date(raid.startTime);
     const weekDay = getWeekDayName(raidDate);
     
@@ -0,0 +1,53 @@
+package com.kihongan.raidsystem.benchmark;
+
+import com.kihongan.raidsystem.domain.character.Character;
+import com.kihongan.raidsystem.domain.character.dto.CharacterDTO;
+import com.kihongan.raidsystem.domain.raid.Raid;
+import com.kihongan.raidsystem.domain.raid.dto.RaidDTO;
+import com.kihongan.raidsystem.domain.signup.SignupWithDetails;
+import com.kihongan.raidsystem.domain.signup.dto.SignupDTO;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.Instant;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput and allocation of entity-to-DTO conversions.
+ * Run with -prof gc (the benchmark profile does) to get allocation rate per op.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class DtoConversionBenchmark {
+    
+    private Raid raid;
+    private SignupWithDetails signup;
+    private Character character;
+    
+    @Setup
+    public void setUp() {
+        Instant now = Instant.parse("2026-01-15T12:00:00Z");
+        raid = new Raid(1L, "遠征 1", "備註", "Boss", now, 1L, now);
+        signup = new SignupWithDetails(1L, 1L, "角色", "弓箭手", 120, 1L, "玩家",
+                "https://profile.line-scdn.net/1", "confirmed");
+        character = new Character(1L, 1L, "角色", "法師", 120, true, now, now);
+    }
+    
+    @Benchmark
+    public RaidDTO raidFromEntity() {
+        return RaidDTO.fromEntity(raid);
+    }
+    
+    @Benchmark
+    public SignupDTO signupFromDetails() {
+        return SignupDTO.fromDetails(signup);
+    }
+    
+    @Benchmark
+    public CharacterDTO characterFromEntity() {
+        return CharacterDTO.fromEntity(character);
+    }
+}
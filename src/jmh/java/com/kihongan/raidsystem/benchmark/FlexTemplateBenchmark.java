@@ -0,0 +1,145 @@
+package com.kihongan.raidsystem.benchmark;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.kihongan.raidsystem.service.LineFlexTemplates;
+import com.linecorp.bot.model.message.flex.component.Box;
+import com.linecorp.bot.model.message.flex.component.FlexComponent;
+import com.linecorp.bot.model.message.flex.component.Text;
+import com.linecorp.bot.model.message.flex.container.Bubble;
+import com.linecorp.bot.model.message.flex.unit.FlexAlign;
+import com.linecorp.bot.model.message.flex.unit.FlexFontSize;
+import com.linecorp.bot.model.message.flex.unit.FlexLayout;
+import com.linecorp.bot.model.message.flex.unit.FlexMarginSize;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Signup Flex bubble built through the full builder tree (as LineMessagingService did)
+ * versus LineFlexTemplates, alone and including the JSON serialization the LINE
+ * client does before sending.
+ * Run with -prof gc (the benchmark profile does) to get allocation rate per op.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class FlexTemplateBenchmark {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Benchmark
+    public Bubble builderSignup() {
+        return builderSignupBubble("遠征 1", "玩家", "角色", "弓箭手", 120, 3, 6, "隊長");
+    }
+
+    @Benchmark
+    public Bubble templateSignup() {
+        return LineFlexTemplates.signup("遠征 1", "玩家", "角色", "弓箭手", 120, 3, 6, "隊長");
+    }
+
+    @Benchmark
+    public String builderSignupJson() throws JsonProcessingException {
+        return objectMapper.writeValueAsString(builderSignup());
+    }
+
+    @Benchmark
+    public String templateSignupJson() throws JsonProcessingException {
+        return objectMapper.writeValueAsString(templateSignup());
+    }
+
+    /**
+     * The previous LineMessagingService#createSignupBubble, kept as the baseline.
+     */
+    private static Bubble builderSignupBubble(String raidTitle, String userName, String characterName, String job,
+                                              Integer level, int currentCount, int maxCount, String creatorName) {
+        String jobLevel = job != null ? job : "未設定";
+        if (level != null) {
+            jobLevel += " Lv." + level;
+        }
+
+        boolean isFull = currentCount >= maxCount;
+        String statusColor = isFull ? "#e74c3c" : "#27ae60";
+        String statusText = isFull ? "已滿員" : currentCount + "/" + maxCount + " 人";
+
+        return Bubble.builder()
+                .header(Box.builder()
+                        .layout(FlexLayout.VERTICAL)
+                        .contents(Arrays.asList(
+                                Text.builder()
+                                        .text("✅ 報名成功")
+                                        .weight(Text.TextWeight.BOLD)
+                                        .size(FlexFontSize.LG)
+                                        .color("#FFFFFF")
+                                        .build()
+                        ))
+                        .backgroundColor("#27ae60")
+                        .paddingAll("13px")
+                        .build())
+                .body(Box.builder()
+                        .layout(FlexLayout.VERTICAL)
+                        .contents(Arrays.asList(
+                                Text.builder()
+                                        .text(raidTitle)
+                                        .weight(Text.TextWeight.BOLD)
+                                        .size(FlexFontSize.XL)
+                                        .margin(FlexMarginSize.MD)
+                                        .build(),
+                                Box.builder()
+                                        .layout(FlexLayout.VERTICAL)
+                                        .margin(FlexMarginSize.LG)
+                                        .spacing(FlexMarginSize.SM)
+                                        .contents(Arrays.asList(
+                                                infoRow("🎯 隊長", creatorName),
+                                                infoRow("👤 玩家", userName),
+                                                infoRow("⚔️ 角色", characterName),
+                                                infoRow("💼 職業", jobLevel),
+                                                Box.builder()
+                                                        .layout(FlexLayout.HORIZONTAL)
+                                                        .contents(Arrays.asList(
+                                                                Text.builder()
+                                                                        .text("👥 人數")
+                                                                        .size(FlexFontSize.SM)
+                                                                        .color("#555555")
+                                                                        .flex(0)
+                                                                        .build(),
+                                                                Text.builder()
+                                                                        .text(statusText)
+                                                                        .size(FlexFontSize.SM)
+                                                                        .color(statusColor)
+                                                                        .weight(Text.TextWeight.BOLD)
+                                                                        .align(FlexAlign.END)
+                                                                        .build()
+                                                        ))
+                                                        .build()
+                                        ))
+                                        .build()
+                        ))
+                        .build())
+                .build();
+    }
+
+    private static FlexComponent infoRow(String label, String value) {
+        return Box.builder()
+                .layout(FlexLayout.HORIZONTAL)
+                .contents(Arrays.asList(
+                        Text.builder()
+                                .text(label)
+                                .size(FlexFontSize.SM)
+                                .color("#555555")
+                                .flex(0)
+                                .build(),
+                        Text.builder()
+                                .text(value)
+                                .size(FlexFontSize.SM)
+                                .color("#111111")
+                                .align(FlexAlign.END)
+                                .build()
+                ))
+                .build();
+    }
+}
@@ -0,0 +1,91 @@
+package com.kihongan.raidsystem.benchmark;
+
+import com.kihongan.raidsystem.domain.character.Character;
+import com.kihongan.raidsystem.domain.character.CharacterRepository;
+import com.kihongan.raidsystem.domain.raid.Raid;
+import com.kihongan.raidsystem.domain.raid.RaidRepository;
+import com.kihongan.raidsystem.domain.raid.dto.RaidDTO;
+import com.kihongan.raidsystem.domain.signup.SignupRepository;
+import com.kihongan.raidsystem.domain.signup.SignupWithDetails;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput and allocation of the repository row mappers over synthetic ResultSets.
+ * Run with -prof gc (the benchmark profile does) to get allocation rate per op.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class RowMapperBenchmark {
+    
+    @Param({"6", "50"})
+    public int rows;
+    
+    private RowMapper<Raid> raidRowMapper;
+    private RowMapper<RaidDTO> raidBoardRowMapper;
+    private RowMapper<SignupWithDetails> signupWithDetailsRowMapper;
+    private RowMapper<Character> characterRowMapper;
+    
+    private ResultSet raidRows;
+    private ResultSet raidBoardRows;
+    private ResultSet signupRows;
+    private ResultSet characterRows;
+    
+    @Setup
+    public void setUp() throws ReflectiveOperationException {
+        JdbcTemplate jdbcTemplate = new JdbcTemplate();
+        MeterRegistry meterRegistry = new SimpleMeterRegistry();
+        RaidRepository raidRepository = new RaidRepository(jdbcTemplate, meterRegistry);
+        raidRowMapper = SyntheticResultSets.rowMapper(raidRepository, "raidRowMapper");
+        raidBoardRowMapper = SyntheticResultSets.rowMapper(raidRepository, "raidBoardRowMapper");
+        signupWithDetailsRowMapper = SyntheticResultSets.rowMapper(
+                new SignupRepository(jdbcTemplate, meterRegistry), "signupWithDetailsRowMapper");
+        characterRowMapper = SyntheticResultSets.rowMapper(
+                new CharacterRepository(jdbcTemplate, meterRegistry), "characterRowMapper");
+        
+        raidRows = SyntheticResultSets.raids(rows);
+        raidBoardRows = SyntheticResultSets.raidBoard(rows);
+        signupRows = SyntheticResultSets.signupsWithDetails(rows);
+        characterRows = SyntheticResultSets.characters(rows);
+    }
+    
+    @Benchmark
+    public void raidRowMapper(Blackhole blackhole) throws SQLException {
+        mapAll(raidRowMapper, raidRows, blackhole);
+    }
+    
+    @Benchmark
+    public void raidBoardRowMapper(Blackhole blackhole) throws SQLException {
+        mapAll(raidBoardRowMapper, raidBoardRows, blackhole);
+    }
+    
+    @Benchmark
+    public void signupWithDetailsRowMapper(Blackhole blackhole) throws SQLException {
+        mapAll(signupWithDetailsRowMapper, signupRows, blackhole);
+    }
+    
+    @Benchmark
+    public void characterRowMapper(Blackhole blackhole) throws SQLException {
+        mapAll(characterRowMapper, characterRows, blackhole);
+    }
+    
+    private static <T> void mapAll(RowMapper<T> mapper, ResultSet rs, Blackhole blackhole) throws SQLException {
+        rs.beforeFirst();
+        int rowNum = 0;
+        while (rs.next()) {
+            blackhole.consume(mapper.mapRow(rs, rowNum++));
+        }
+    }
+}
@@ -0,0 +1,122 @@
+package com.kihongan.raidsystem.benchmark;
+
+import org.h2.tools.SimpleResultSet;
+import org.springframework.jdbc.core.RowMapper;
+
+import java.lang.reflect.Field;
+import java.sql.ResultSet;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.Instant;
+
+/**
+ * In-memory ResultSets shaped like the rows our repositories read,
+ * plus access to the repositories' private row mappers.
+ */
+final class SyntheticResultSets {
+    
+    private static final Timestamp NOW = Timestamp.from(Instant.parse("2026-01-15T12:00:00Z"));
+    
+    private SyntheticResultSets() {
+    }
+    
+    /**
+     * Rows of "SELECT * FROM raids".
+     */
+    static ResultSet raids(int rows) {
+        SimpleResultSet rs = raidColumns();
+        for (int i = 0; i < rows; i++) {
+            rs.addRow(raidRow(i));
+        }
+        return rewindable(rs);
+    }
+    
+    /**
+     * Rows of the raid board query (raids plus creator name and signup count).
+     */
+    static ResultSet raidBoard(int rows) {
+        SimpleResultSet rs = raidColumns();
+        rs.addColumn("created_by_name", Types.VARCHAR, 255, 0);
+        rs.addColumn("signup_count", Types.BIGINT, 19, 0);
+        for (int i = 0; i < rows; i++) {
+            Object[] raid = raidRow(i);
+            Object[] row = new Object[raid.length + 2];
+            System.arraycopy(raid, 0, row, 0, raid.length);
+            row[raid.length] = "隊長" + i;
+            row[raid.length + 1] = (long) (i % 7);
+            rs.addRow(row);
+        }
+        return rewindable(rs);
+    }
+    
+    /**
+     * Rows of SignupRepository.findByRaidIdWithDetails.
+     */
+    static ResultSet signupsWithDetails(int rows) {
+        SimpleResultSet rs = new SimpleResultSet();
+        rs.addColumn("signup_id", Types.BIGINT, 19, 0);
+        rs.addColumn("character_id", Types.BIGINT, 19, 0);
+        rs.addColumn("character_name", Types.VARCHAR, 255, 0);
+        rs.addColumn("job", Types.VARCHAR, 255, 0);
+        rs.addColumn("level", Types.INTEGER, 10, 0);
+        rs.addColumn("user_id", Types.BIGINT, 19, 0);
+        rs.addColumn("user_name", Types.VARCHAR, 255, 0);
+        rs.addColumn("user_picture", Types.VARCHAR, 255, 0);
+        rs.addColumn("status", Types.VARCHAR, 255, 0);
+        for (int i = 0; i < rows; i++) {
+            rs.addRow((long) i, (long) i, "角色" + i, "弓箭手", 100 + i, (long) i,
+                    "玩家" + i, "https://profile.line-scdn.net/" + i, "confirmed");
+        }
+        return rewindable(rs);
+    }
+    
+    /**
+     * Rows of "SELECT * FROM characters".
+     */
+    static ResultSet characters(int rows) {
+        SimpleResultSet rs = new SimpleResultSet();
+        rs.addColumn("id", Types.BIGINT, 19, 0);
+        rs.addColumn("user_id", Types.BIGINT, 19, 0);
+        rs.addColumn("name", Types.VARCHAR, 255, 0);
+        rs.addColumn("job", Types.VARCHAR, 255, 0);
+        rs.addColumn("level", Types.INTEGER, 10, 0);
+        rs.addColumn("is_default", Types.BOOLEAN, 1, 0);
+        rs.addColumn("created_at", Types.TIMESTAMP, 26, 6);
+        rs.addColumn("updated_at", Types.TIMESTAMP, 26, 6);
+        for (int i = 0; i < rows; i++) {
+            rs.addRow((long) i, (long) i, "角色" + i, "法師", 100 + i, i == 0, NOW, NOW);
+        }
+        return rewindable(rs);
+    }
+    
+    /**
+     * Reads a private RowMapper field from a repository instance.
+     */
+    @SuppressWarnings("unchecked")
+    static <T> RowMapper<T> rowMapper(Object repository, String fieldName) throws ReflectiveOperationException {
+        Field field = repository.getClass().getDeclaredField(fieldName);
+        field.setAccessible(true);
+        return (RowMapper<T>) field.get(repository);
+    }
+    
+    private static SimpleResultSet raidColumns() {
+        SimpleResultSet rs = new SimpleResultSet();
+        rs.addColumn("id", Types.BIGINT, 19, 0);
+        rs.addColumn("title", Types.VARCHAR, 255, 0);
+        rs.addColumn("subtitle", Types.VARCHAR, 255, 0);
+        rs.addColumn("boss", Types.VARCHAR, 255, 0);
+        rs.addColumn("start_time", Types.TIMESTAMP, 26, 6);
+        rs.addColumn("created_by", Types.BIGINT, 19, 0);
+        rs.addColumn("created_at", Types.TIMESTAMP, 26, 6);
+        return rs;
+    }
+    
+    private static Object[] raidRow(int i) {
+        return new Object[] {(long) i, "遠征 " + i, i % 2 == 0 ? "備註" : null, "Boss", NOW, (long) i, NOW};
+    }
+    
+    private static ResultSet rewindable(SimpleResultSet rs) {
+        rs.setAutoClose(false);
+        return rs;
+    }
+}
@@ -1,8 +1,11 @@
 package com.kihongan.raidsystem.config;
 
 import com.kihongan.raidsystem.security.JwtAuthenticationFilter;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.security.authorization.AuthorizationDecision;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.annotation.web.configurers.AbstractHttpConfigurer;
@@ -10,6 +13,9 @@ import org.springframework.security.config.http.SessionCreationPolicy;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
 
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+
 /**
  * Spring Security configuration.
  * Configures JWT-based authentication and endpoint protection.
@@ -18,10 +24,16 @@ import org.springframework.security.web.authentication.UsernamePasswordAuthentic
 @EnableWebSecurity
 public class SecurityConfig {
     
+    // Header the metrics scraper sends; not Authorization, which the JWT filter owns
+    private static final String METRICS_TOKEN_HEADER = "X-Metrics-Token";
+    
     private final JwtAuthenticationFilter jwtAuthenticationFilter;
+    private final String metricsToken;
     
-    public SecurityConfig(JwtAuthenticationFilter jwtAuthenticationFilter) {
+    public SecurityConfig(JwtAuthenticationFilter jwtAuthenticationFilter,
+                          @Value("${app.metrics.token:}") String metricsToken) {
         this.jwtAuthenticationFilter = jwtAuthenticationFilter;
+        this.metricsToken = metricsToken;
     }
     
     @Bean
@@ -38,7 +50,13 @@ public class SecurityConfig {
                         .requestMatchers("/line/webhook").permitAll()
                         .requestMatchers("/api/scheduler/**").permitAll()
                         .requestMatchers("/raids").permitAll()
+                        .requestMatchers("/raids/stream").permitAll()
                         .requestMatchers("/raids/*/signups").permitAll()
+                        .requestMatchers("/actuator/health").permitAll()
+                        
+                        // Metrics only for the scraper holding the shared token
+                        .requestMatchers("/actuator/prometheus").access((authentication, context) ->
+                                new AuthorizationDecision(hasMetricsToken(context.getRequest())))
                         
                         // All other endpoints require authentication
                         .anyRequest().authenticated()
@@ -54,4 +72,17 @@ public class SecurityConfig {
         
         return http.build();
     }
+    
+    /**
+     * Checks the metrics token in constant time; with no token configured metrics stay closed.
+     */
+    private boolean hasMetricsToken(HttpServletRequest request) {
+        String presented = request.getHeader(METRICS_TOKEN_HEADER);
+        if (metricsToken.isEmpty() || presented == null) {
+            return false;
+        }
+        return MessageDigest.isEqual(
+                metricsToken.getBytes(StandardCharsets.UTF_8),
+                presented.getBytes(StandardCharsets.UTF_8));
+    }
 }
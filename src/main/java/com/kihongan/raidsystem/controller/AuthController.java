@@ -2,6 +2,7 @@ package com.kihongan.raidsystem.controller;
 
 import com.kihongan.raidsystem.controller.dto.LineLoginRequest;
 import com.kihongan.raidsystem.controller.dto.LineLoginResponse;
+import com.kihongan.raidsystem.domain.raid.RaidBoardCache;
 import com.kihongan.raidsystem.security.JwtService;
 import org.springframework.http.ResponseEntity;
 import org.springframework.jdbc.core.JdbcTemplate;
@@ -24,11 +25,13 @@ public class AuthController {
 
     private final JdbcTemplate jdbcTemplate;
     private final JwtService jwtService;
+    private final RaidBoardCache raidBoardCache;
     private final long jwtExpiration = 86400000L; // 24 hours
 
-    public AuthController(JdbcTemplate jdbcTemplate, JwtService jwtService) {
+    public AuthController(JdbcTemplate jdbcTemplate, JwtService jwtService, RaidBoardCache raidBoardCache) {
         this.jdbcTemplate = jdbcTemplate;
         this.jwtService = jwtService;
+        this.raidBoardCache = raidBoardCache;
     }
 
     @PostMapping("/line")
@@ -92,7 +95,14 @@ public class AuthController {
     }
 
     private void updateUser(Long userId, String name, String picture) {
-        String sql = "UPDATE users SET name = ?, picture = ?, updated_at = ? WHERE id = ?";
-        jdbcTemplate.update(sql, name, picture, Timestamp.from(Instant.now()), userId);
+        // 只有名稱或頭像實際變更時才更新，避免每次登入都讓遠征快取失效
+        String sql = """
+                UPDATE users SET name = ?, picture = ?, updated_at = ?
+                WHERE id = ? AND (name IS DISTINCT FROM ? OR picture IS DISTINCT FROM ?)
+                """;
+        int updated = jdbcTemplate.update(sql, name, picture, Timestamp.from(Instant.now()), userId, name, picture);
+        if (updated > 0) {
+            raidBoardCache.invalidateAll();
+        }
     }
 }
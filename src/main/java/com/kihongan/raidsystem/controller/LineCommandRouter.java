@@ -0,0 +1,98 @@
+package com.kihongan.raidsystem.controller;
+
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Lookup table from LINE bot command text to its handler.
+ *
+ * Keys are normalized (trimmed, lower case), so "!Raids " and "!raids" resolve to the
+ * same command, and each alias is a separate key pointing at the same command. Most
+ * group messages are not commands at all, so {@link #isCandidate(String)} rejects
+ * anything that does not start with '!' without allocating.
+ */
+public final class LineCommandRouter {
+
+    private static final char PREFIX = '!';
+
+    private final Map<String, Command> commands = new HashMap<>();
+
+    /**
+     * Handles one command in a group.
+     */
+    @FunctionalInterface
+    public interface Handler {
+        void handle(String groupId, String replyToken) throws Exception;
+    }
+
+    /**
+     * Registers a command under all of its aliases.
+     *
+     * @param name metric/log name of the command (e.g. "raids")
+     * @param handler handler to run
+     * @param aliases command texts, including the '!' prefix
+     */
+    public LineCommandRouter register(String name, Handler handler, String... aliases) {
+        Command command = new Command(name, handler);
+        for (String alias : aliases) {
+            String key = normalize(alias);
+            if (key.isEmpty() || key.charAt(0) != PREFIX) {
+                throw new IllegalArgumentException("Command alias must start with '" + PREFIX + "': " + alias);
+            }
+            if (commands.putIfAbsent(key, command) != null) {
+                throw new IllegalArgumentException("Duplicate command alias: " + alias);
+            }
+        }
+        return this;
+    }
+
+    /**
+     * Whether the text can be a command: its first non-blank character is '!'.
+     */
+    public static boolean isCandidate(String text) {
+        int length = text.length();
+        for (int i = 0; i < length; i++) {
+            char c = text.charAt(i);
+            if (!Character.isWhitespace(c)) {
+                return c == PREFIX;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Finds the command for a message, or null if it is not a known command.
+     */
+    public Command find(String text) {
+        if (!isCandidate(text)) {
+            return null;
+        }
+        return commands.get(normalize(text));
+    }
+
+    private static String normalize(String text) {
+        return text.trim().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * A registered command.
+     */
+    public static final class Command {
+        private final String name;
+        private final Handler handler;
+
+        private Command(String name, Handler handler) {
+            this.name = name;
+            this.handler = handler;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public Handler getHandler() {
+            return handler;
+        }
+    }
+}
@@ -2,179 +2,250 @@ package com.kihongan.raidsystem.controller;
 
 import com.kihongan.raidsystem.domain.raid.Raid;
 import com.kihongan.raidsystem.domain.raid.RaidService;
+import com.kihongan.raidsystem.metrics.OperationTimer;
+import com.kihongan.raidsystem.service.LineEventDedup;
+import com.kihongan.raidsystem.service.LineEventProcessor;
+import com.kihongan.raidsystem.service.LineGroupLimiter;
 import com.linecorp.bot.client.LineMessagingClient;
 import com.linecorp.bot.model.ReplyMessage;
 import com.linecorp.bot.model.event.Event;
 import com.linecorp.bot.model.event.MessageEvent;
 import com.linecorp.bot.model.event.message.TextMessageContent;
 import com.linecorp.bot.model.event.source.GroupSource;
+import com.linecorp.bot.model.message.Message;
 import com.linecorp.bot.model.message.TextMessage;
 import com.linecorp.bot.spring.boot.annotation.EventMapping;
 import com.linecorp.bot.spring.boot.annotation.LineMessageHandler;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 
 import java.time.LocalDateTime;
 import java.time.ZoneId;
 import java.time.format.DateTimeFormatter;
-import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.concurrent.TimeUnit;
 
 /**
  * LINE Webhook Controller
- * Handles incoming LINE events and provides command-based interactions
+ * Handles incoming LINE events and provides command-based interactions.
+ * Commands are looked up in a {@link LineCommandRouter}, skipped if their event was
+ * already handled ({@link LineEventDedup}), admitted per group by
+ * {@link LineGroupLimiter} and run by {@link LineEventProcessor}, so the webhook is
+ * acknowledged before any DB read or reply call.
  */
 @LineMessageHandler
 public class LineWebhookController {
     
     private static final Logger log = LoggerFactory.getLogger(LineWebhookController.class);
     
+    // Replies that never change are built once and reused
+    private static final List<Message> HELP_REPLY = textReply(
+            "🤖 KiHongan 遠征隊 Bot\n" +
+            "━━━━━━━━━━━━━━\n\n" +
+            "📋 可用指令：\n\n" +
+            "!raids 或 !遠征\n" +
+            "  → 查看本周遠征列表\n\n" +
+            "!groupid\n" +
+            "  → 顯示群組 ID\n\n" +
+            "!help 或 !指令\n" +
+            "  → 顯示此說明\n\n" +
+            "━━━━━━━━━━━━━━\n" +
+            "💡 使用 LIFF 建立遠征和報名");
+    
+    private static final ZoneId RAID_ZONE = ZoneId.of("Asia/Taipei");
+    private static final DateTimeFormatter RAID_TIME_FORMAT = DateTimeFormatter.ofPattern("MM/dd HH:mm");
+    
+    private static final List<Message> NO_RAIDS_REPLY = textReply("📅 本周還沒有遠征隊\n\n請到 LIFF 建立遠征隊！");
+    
     @Autowired
     private LineMessagingClient lineMessagingClient;
     
     @Autowired
     private RaidService raidService;
     
+    @Autowired
+    private LineEventProcessor lineEventProcessor;
+    
+    @Autowired
+    private LineGroupLimiter lineGroupLimiter;
+    
+    @Autowired
+    private LineEventDedup lineEventDedup;
+    
+    @Value("${app.line.webhook.reply-timeout-ms:10000}")
+    private long replyTimeoutMs;
+    
+    private OperationTimer webhookTimer;
+    
+    // Last !raids reply and the raid list version it was rendered at
+    private volatile RenderedReply raidsReply;
+    
+    private final LineCommandRouter commands = new LineCommandRouter()
+            .register("groupid", this::handleGroupIdCommand, "!groupid")
+            .register("raids", this::handleRaidsCommand, "!raids", "!遠征")
+            .register("help", this::handleHelpCommand, "!help", "!指令");
+    
+    @Autowired
+    public void setMeterRegistry(MeterRegistry meterRegistry) {
+        // raid.line.webhook{operation=<command>, outcome=success|error}
+        this.webhookTimer = new OperationTimer(meterRegistry, "raid.line.webhook");
+    }
+    
     /**
      * Handle text messages
      */
     @EventMapping
     public void handleTextMessage(MessageEvent<TextMessageContent> event) {
-        String messageText = event.getMessage().getText().trim();
+        String messageText = event.getMessage().getText();
+        
+        // Most group chatter is not a command; drop it before doing anything else
+        if (!LineCommandRouter.isCandidate(messageText)) {
+            return;
+        }
         
         // Only handle messages from groups
         if (!(event.getSource() instanceof GroupSource)) {
             return;
         }
         
+        LineCommandRouter.Command command = commands.find(messageText);
+        if (command == null) {
+            return;
+        }
+        
+        // LINE redelivers events it timed out on; never run a command twice
+        String webhookEventId = event.getWebhookEventId();
+        if (!lineEventDedup.firstSeen(webhookEventId)) {
+            log.debug("略過重送的 LINE 事件: {}", webhookEventId);
+            return;
+        }
+        
         GroupSource groupSource = (GroupSource) event.getSource();
         String groupId = groupSource.getGroupId();
         String replyToken = event.getReplyToken();
         
-        log.info("收到群組訊息 - 群組ID: {}, 內容: {}", groupId, messageText);
-        
-        try {
-            // Handle different commands
-            if ("!groupid".equalsIgnoreCase(messageText)) {
-                handleGroupIdCommand(replyToken, groupId);
-            } else if ("!raids".equalsIgnoreCase(messageText) || "!遠征".equalsIgnoreCase(messageText)) {
-                handleRaidsCommand(replyToken);
-            } else if ("!help".equalsIgnoreCase(messageText) || "!指令".equalsIgnoreCase(messageText)) {
-                handleHelpCommand(replyToken);
+        // Members often send the same command together; answer once and within the group's budget
+        LineGroupLimiter.Decision decision = lineGroupLimiter.admit(groupId, command.getName());
+        if (decision != LineGroupLimiter.Decision.ALLOWED) {
+            log.debug("略過群組指令 - 群組ID: {}, 指令: {}, 原因: {}", groupId, command.getName(), decision);
+            if (decision == LineGroupLimiter.Decision.THROTTLED) {
+                // Over budget, not answered: it may run when LINE resends it.
+                // A coalesced event was answered by the command it joined, so it stays handled.
+                lineEventDedup.forget(webhookEventId);
             }
-        } catch (Exception e) {
-            log.error("處理指令失敗: {}", messageText, e);
+            return;
+        }
+        
+        log.info("收到群組指令 - 群組ID: {}, 指令: {}", groupId, command.getName());
+        
+        if (!lineEventProcessor.submit(groupId, () -> runCommand(command, groupId, replyToken))) {
+            // Nothing will reply: let a resend run, and don't let this admission swallow the next identical command
+            lineEventDedup.forget(webhookEventId);
+            lineGroupLimiter.release(groupId, command.getName());
         }
     }
     
     /**
-     * Handle !groupid command
+     * Run a group command on a LINE event worker
      */
-    private void handleGroupIdCommand(String replyToken, String groupId) {
+    private void runCommand(LineCommandRouter.Command command, String groupId, String replyToken) {
+        long start = System.nanoTime();
+        String outcome = OperationTimer.SUCCESS;
         try {
-            lineMessagingClient.replyMessage(
-                new ReplyMessage(
-                    replyToken,
-                    Arrays.asList(
-                        TextMessage.builder()
-                            .text("📋 群組 ID:\n" + groupId)
-                            .build()
-                    )
-                )
-            ).get();
+            command.getHandler().handle(groupId, replyToken);
         } catch (Exception e) {
-            log.error("回覆群組ID失敗", e);
+            outcome = OperationTimer.ERROR;
+            log.error("處理指令失敗: {}", command.getName(), e);
+        } finally {
+            webhookTimer.record(command.getName(), outcome, System.nanoTime() - start);
         }
     }
     
     /**
-     * Handle !raids command - show current week's raids
+     * Handle !groupid command
      */
-    private void handleRaidsCommand(String replyToken) {
-        try {
-            List<Raid> raids = raidService.listRaids();
-            
-            if (raids.isEmpty()) {
-                lineMessagingClient.replyMessage(
-                    new ReplyMessage(
-                        replyToken,
-                        Arrays.asList(
-                            TextMessage.builder()
-                                .text("📅 本周還沒有遠征隊\n\n請到 LIFF 建立遠征隊！")
-                                .build()
-                        )
-                    )
-                ).get();
-                return;
-            }
-            
-            // Format raid list
-            DateTimeFormatter formatter = DateTimeFormatter.ofPattern("MM/dd HH:mm");
-            StringBuilder message = new StringBuilder("📅 本周遠征列表\n");
-            message.append("━━━━━━━━━━━━━━\n\n");
+    private void handleGroupIdCommand(String groupId, String replyToken) throws Exception {
+        reply(replyToken, textReply("📋 群組 ID:\n" + groupId));
+    }
+    
+    /**
+     * Handle !raids command - show current week's raids.
+     * The rendered reply is reused until the raid list version changes; signups
+     * and cancels do not change it, since the reply shows no signup counts.
+     */
+    private void handleRaidsCommand(String groupId, String replyToken) throws Exception {
+        reply(replyToken, raidsReply().messages);
+    }
+    
+    private RenderedReply raidsReply() {
+        // Read the version before loading, so a write during the load only costs a re-render
+        long version = raidService.getRaidListVersion();
+        RenderedReply cached = raidsReply;
+        if (cached != null && cached.version == version) {
+            return cached;
+        }
+        
+        List<Raid> raids = raidService.listRaids();
+        RenderedReply rendered = new RenderedReply(version, raids.isEmpty() ? NO_RAIDS_REPLY : textReply(renderRaids(raids)));
+        raidsReply = rendered;
+        return rendered;
+    }
+    
+    private static String renderRaids(List<Raid> raids) {
+        StringBuilder message = new StringBuilder(64 + raids.size() * 48);
+        message.append("📅 本周遠征列表\n");
+        message.append("━━━━━━━━━━━━━━\n\n");
+        
+        for (int i = 0; i < raids.size(); i++) {
+            Raid raid = raids.get(i);
+            LocalDateTime startTime = LocalDateTime.ofInstant(raid.getStartTime(), RAID_ZONE);
             
-            for (int i = 0; i < raids.size(); i++) {
-                Raid raid = raids.get(i);
-                LocalDateTime startTime = LocalDateTime.ofInstant(raid.getStartTime(), ZoneId.of("Asia/Taipei"));
-                
-                message.append(String.format("%d. %s\n", i + 1, raid.getTitle()));
-                message.append(String.format("   ⏰ %s\n", startTime.format(formatter)));
-                if (raid.getSubtitle() != null && !raid.getSubtitle().isEmpty()) {
-                    message.append(String.format("   📝 %s\n", raid.getSubtitle()));
-                }
-                message.append("\n");
+            message.append(i + 1).append(". ").append(raid.getTitle()).append('\n');
+            message.append("   ⏰ ");
+            RAID_TIME_FORMAT.formatTo(startTime, message);
+            message.append('\n');
+            if (raid.getSubtitle() != null && !raid.getSubtitle().isEmpty()) {
+                message.append("   📝 ").append(raid.getSubtitle()).append('\n');
             }
-            
-            message.append("━━━━━━━━━━━━━━\n");
-            message.append("💡 到 LIFF 查看詳情和報名");
-            
-            lineMessagingClient.replyMessage(
-                new ReplyMessage(
-                    replyToken,
-                    Arrays.asList(
-                        TextMessage.builder()
-                            .text(message.toString())
-                            .build()
-                    )
-                )
-            ).get();
-            
-        } catch (Exception e) {
-            log.error("回覆遠征列表失敗", e);
+            message.append('\n');
         }
+        
+        message.append("━━━━━━━━━━━━━━\n");
+        message.append("💡 到 LIFF 查看詳情和報名");
+        return message.toString();
     }
     
     /**
      * Handle !help command - show available commands
      */
-    private void handleHelpCommand(String replyToken) {
-        try {
-            String helpMessage = "🤖 KiHongan 遠征隊 Bot\n" +
-                    "━━━━━━━━━━━━━━\n\n" +
-                    "📋 可用指令：\n\n" +
-                    "!raids 或 !遠征\n" +
-                    "  → 查看本周遠征列表\n\n" +
-                    "!groupid\n" +
-                    "  → 顯示群組 ID\n\n" +
-                    "!help 或 !指令\n" +
-                    "  → 顯示此說明\n\n" +
-                    "━━━━━━━━━━━━━━\n" +
-                    "💡 使用 LIFF 建立遠征和報名";
-            
-            lineMessagingClient.replyMessage(
-                new ReplyMessage(
-                    replyToken,
-                    Arrays.asList(
-                        TextMessage.builder()
-                            .text(helpMessage)
-                            .build()
-                    )
-                )
-            ).get();
-        } catch (Exception e) {
-            log.error("回覆說明訊息失敗", e);
+    private void handleHelpCommand(String groupId, String replyToken) throws Exception {
+        reply(replyToken, HELP_REPLY);
+    }
+    
+    private void reply(String replyToken, List<Message> messages) throws Exception {
+        // Runs on the group's event worker; a hung call must not hold the group's queue
+        lineMessagingClient.replyMessage(new ReplyMessage(replyToken, messages))
+                .get(replyTimeoutMs, TimeUnit.MILLISECONDS);
+    }
+    
+    private static List<Message> textReply(String text) {
+        return Collections.singletonList(TextMessage.builder().text(text).build());
+    }
+    
+    /**
+     * A reply rendered from the raid list at a given version.
+     */
+    private static final class RenderedReply {
+        private final long version;
+        private final List<Message> messages;
+        
+        private RenderedReply(long version, List<Message> messages) {
+            this.version = version;
+            this.messages = messages;
         }
     }
     
@@ -10,10 +10,15 @@ import com.kihongan.raidsystem.domain.signup.SignupWithDetails;
 import com.kihongan.raidsystem.domain.signup.dto.SignupDTO;
 import com.kihongan.raidsystem.domain.signup.dto.SignupRequest;
 import com.kihongan.raidsystem.security.AuthUser;
+import com.kihongan.raidsystem.service.RaidEventStreamService;
 import jakarta.validation.Valid;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.util.List;
 import java.util.stream.Collectors;
@@ -28,22 +33,38 @@ public class RaidController {
     
     private final RaidService raidService;
     private final SignupService signupService;
+    private final RaidEventStreamService raidEventStreamService;
     
-    public RaidController(RaidService raidService, SignupService signupService) {
+    public RaidController(RaidService raidService, SignupService signupService,
+                          RaidEventStreamService raidEventStreamService) {
         this.raidService = raidService;
         this.signupService = signupService;
-        // Set SignupService in RaidService for auto-signup
-        this.raidService.setSignupService(signupService);
+        this.raidEventStreamService = raidEventStreamService;
     }
     
     /**
-     * GET /raids - List all raids ordered by start time
+     * GET /raids - List all raids ordered by start time, with creator name and signup count
      */
     @GetMapping
-    public ResponseEntity<List<RaidDTO>> listRaids() {
-        List<Raid> raids = raidService.listRaids();
-        List<RaidDTO> dtos = raidService.getRaidsWithCreatorNames(raids);
-        return ResponseEntity.ok(dtos);
+    public ResponseEntity<List<RaidDTO>> listRaids(WebRequest request) {
+        String eTag = "\"board-" + raidService.getRaidBoardVersion() + "\"";
+        if (request.checkNotModified(eTag)) {
+            return notModified(eTag);
+        }
+        
+        List<RaidDTO> dtos = raidService.getRaidBoard();
+        return ResponseEntity.ok()
+                .eTag(eTag)
+                .cacheControl(CacheControl.noCache())
+                .body(dtos);
+    }
+    
+    /**
+     * GET /raids/stream - Server-Sent Events stream of raid board changes
+     */
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamRaids() {
+        return raidEventStreamService.subscribe();
     }
     
     /**
@@ -97,12 +118,20 @@ public class RaidController {
      * GET /raids/{raidId}/signups - Get all signups for a raid
      */
     @GetMapping("/{raidId}/signups")
-    public ResponseEntity<List<SignupDTO>> getRaidSignups(@PathVariable Long raidId) {
+    public ResponseEntity<List<SignupDTO>> getRaidSignups(@PathVariable Long raidId, WebRequest request) {
+        String eTag = "\"roster-" + raidId + "-" + signupService.getRaidSignupsVersion(raidId) + "\"";
+        if (request.checkNotModified(eTag)) {
+            return notModified(eTag);
+        }
+        
         List<SignupWithDetails> signups = signupService.getRaidSignups(raidId);
         List<SignupDTO> dtos = signups.stream()
                 .map(SignupDTO::fromDetails)
                 .collect(Collectors.toList());
-        return ResponseEntity.ok(dtos);
+        return ResponseEntity.ok()
+                .eTag(eTag)
+                .cacheControl(CacheControl.noCache())
+                .body(dtos);
     }
     
     /**
@@ -116,4 +145,15 @@ public class RaidController {
         signupService.cancelSignup(userId, raidId);
         return ResponseEntity.noContent().build();
     }
+    
+    /**
+     * Builds a body-less 304 response for a matching If-None-Match.
+     * ETags come from the board/roster version, so no body is loaded or serialized.
+     */
+    private <T> ResponseEntity<T> notModified(String eTag) {
+        return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                .eTag(eTag)
+                .cacheControl(CacheControl.noCache())
+                .build();
+    }
 }
@@ -1,5 +1,7 @@
 package com.kihongan.raidsystem.domain.character;
 
+import com.kihongan.raidsystem.metrics.OperationTimer;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.jdbc.core.RowMapper;
 import org.springframework.jdbc.support.GeneratedKeyHolder;
@@ -21,9 +23,11 @@ import java.util.Optional;
 public class CharacterRepository {
     
     private final JdbcTemplate jdbcTemplate;
+    private final OperationTimer dbTimer;
     
-    public CharacterRepository(JdbcTemplate jdbcTemplate) {
+    public CharacterRepository(JdbcTemplate jdbcTemplate, MeterRegistry meterRegistry) {
         this.jdbcTemplate = jdbcTemplate;
+        this.dbTimer = new OperationTimer(meterRegistry, "raid.db.operation", "repository", "character");
     }
     
     private final RowMapper<Character> characterRowMapper = (rs, rowNum) -> {
@@ -56,7 +60,7 @@ public class CharacterRepository {
      */
     public List<Character> findByUserId(Long userId) {
         String sql = "SELECT * FROM characters WHERE user_id = ? ORDER BY created_at DESC";
-        return jdbcTemplate.query(sql, characterRowMapper, userId);
+        return dbTimer.record("findByUserId", () -> jdbcTemplate.query(sql, characterRowMapper, userId));
     }
     
     /**
@@ -64,7 +68,7 @@ public class CharacterRepository {
      */
     public Optional<Character> findById(Long id) {
         String sql = "SELECT * FROM characters WHERE id = ?";
-        List<Character> results = jdbcTemplate.query(sql, characterRowMapper, id);
+        List<Character> results = dbTimer.record("findById", () -> jdbcTemplate.query(sql, characterRowMapper, id));
         return results.isEmpty() ? Optional.empty() : Optional.of(results.get(0));
     }
     
@@ -90,7 +94,7 @@ public class CharacterRepository {
         character.setUpdatedAt(now);
         
         KeyHolder keyHolder = new GeneratedKeyHolder();
-        jdbcTemplate.update(connection -> {
+        dbTimer.record("insert", () -> jdbcTemplate.update(connection -> {
             PreparedStatement ps = connection.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS);
             ps.setLong(1, character.getUserId());
             ps.setString(2, character.getName());
@@ -104,7 +108,7 @@ public class CharacterRepository {
             ps.setTimestamp(6, Timestamp.from(character.getCreatedAt()));
             ps.setTimestamp(7, Timestamp.from(character.getUpdatedAt()));
             return ps;
-        }, keyHolder);
+        }, keyHolder));
         
         // PostgreSQL returns all columns, so we need to get the 'id' specifically
         Number key = (Number) keyHolder.getKeys().get("id");
@@ -122,14 +126,14 @@ public class CharacterRepository {
         Instant now = Instant.now();
         character.setUpdatedAt(now);
         
-        jdbcTemplate.update(sql,
+        dbTimer.record("update", () -> jdbcTemplate.update(sql,
                 character.getName(),
                 character.getJob(),
                 character.getLevel(),
                 character.getIsDefault(),
                 Timestamp.from(character.getUpdatedAt()),
                 character.getId()
-        );
+        ));
         
         return character;
     }
@@ -139,7 +143,7 @@ public class CharacterRepository {
      */
     public void deleteById(Long id) {
         String sql = "DELETE FROM characters WHERE id = ?";
-        jdbcTemplate.update(sql, id);
+        dbTimer.record("deleteById", () -> jdbcTemplate.update(sql, id));
     }
     
     /**
@@ -147,7 +151,7 @@ public class CharacterRepository {
      */
     public void unsetDefaultForUser(Long userId) {
         String sql = "UPDATE characters SET is_default = false WHERE user_id = ?";
-        jdbcTemplate.update(sql, userId);
+        dbTimer.record("unsetDefaultForUser", () -> jdbcTemplate.update(sql, userId));
     }
     
     /**
@@ -155,7 +159,7 @@ public class CharacterRepository {
      */
     public boolean existsByIdAndUserId(Long id, Long userId) {
         String sql = "SELECT COUNT(*) FROM characters WHERE id = ? AND user_id = ?";
-        Integer count = jdbcTemplate.queryForObject(sql, Integer.class, id, userId);
+        Integer count = dbTimer.record("existsByIdAndUserId", () -> jdbcTemplate.queryForObject(sql, Integer.class, id, userId));
         return count != null && count > 0;
     }
     
@@ -164,7 +168,7 @@ public class CharacterRepository {
      */
     public boolean hasActiveSignups(Long characterId) {
         String sql = "SELECT COUNT(*) FROM raid_signups WHERE character_id = ?";
-        Integer count = jdbcTemplate.queryForObject(sql, Integer.class, characterId);
+        Integer count = dbTimer.record("hasActiveSignups", () -> jdbcTemplate.queryForObject(sql, Integer.class, characterId));
         return count != null && count > 0;
     }
 }
@@ -2,6 +2,7 @@ package com.kihongan.raidsystem.domain.character;
 
 import com.kihongan.raidsystem.domain.character.dto.CreateCharacterRequest;
 import com.kihongan.raidsystem.domain.character.dto.UpdateCharacterRequest;
+import com.kihongan.raidsystem.domain.raid.RaidBoardCache;
 import com.kihongan.raidsystem.exception.AuthorizationException;
 import com.kihongan.raidsystem.exception.NotFoundException;
 import com.kihongan.raidsystem.exception.ValidationException;
@@ -18,9 +19,11 @@ import java.util.List;
 public class CharacterService {
     
     private final CharacterRepository characterRepository;
+    private final RaidBoardCache raidBoardCache;
     
-    public CharacterService(CharacterRepository characterRepository) {
+    public CharacterService(CharacterRepository characterRepository, RaidBoardCache raidBoardCache) {
         this.characterRepository = characterRepository;
+        this.raidBoardCache = raidBoardCache;
     }
     
     /**
@@ -91,6 +94,9 @@ public class CharacterService {
             character.setIsDefault(request.getIsDefault());
         }
         
+        // Name, job and level are shown in raid rosters
+        raidBoardCache.invalidateRosters();
+        
         return characterRepository.save(character);
     }
     
@@ -0,0 +1,59 @@
+package com.kihongan.raidsystem.domain.notification;
+
+import com.kihongan.raidsystem.metrics.OperationTimer;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Repository for the Discord message id of each raid's announcement, using JDBC.
+ */
+@Repository
+public class DiscordMessageRepository {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final OperationTimer dbTimer;
+
+    public DiscordMessageRepository(JdbcTemplate jdbcTemplate, MeterRegistry meterRegistry) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.dbTimer = new OperationTimer(meterRegistry, "raid.db.operation", "repository", "discord_message");
+    }
+
+    /**
+     * Finds the message announcing a raid.
+     */
+    public Optional<String> findMessageId(Long raidId) {
+        String sql = "SELECT message_id FROM discord_raid_messages WHERE raid_id = ?";
+        List<String> ids = dbTimer.record("findMessageId",
+                () -> jdbcTemplate.queryForList(sql, String.class, raidId));
+        return ids.isEmpty() ? Optional.empty() : Optional.of(ids.get(0));
+    }
+
+    /**
+     * Records (or replaces) the message announcing a raid.
+     */
+    public void save(Long raidId, String messageId) {
+        dbTimer.run("save", () -> {
+            int updated = jdbcTemplate.update(
+                    "UPDATE discord_raid_messages SET message_id = ? WHERE raid_id = ?", messageId, raidId);
+            if (updated == 0) {
+                jdbcTemplate.update(
+                        "INSERT INTO discord_raid_messages (raid_id, message_id, created_at) VALUES (?, ?, ?)",
+                        raidId, messageId, Timestamp.from(Instant.now()));
+            }
+        });
+    }
+
+    /**
+     * Forgets the message of a raid, e.g. after it was deleted in Discord.
+     */
+    public void delete(Long raidId) {
+        String sql = "DELETE FROM discord_raid_messages WHERE raid_id = ?";
+        dbTimer.run("delete", () -> jdbcTemplate.update(sql, raidId));
+    }
+}
@@ -0,0 +1,80 @@
+package com.kihongan.raidsystem.domain.notification;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.kihongan.raidsystem.domain.raid.Raid;
+import com.kihongan.raidsystem.domain.signup.SignupWithDetails;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Writes raid and signup notifications to the outbox.
+ * Every method must join the transaction of the change it announces, so a rolled
+ * back change never produces a notification and a committed one is never lost.
+ */
+@Component
+public class NotificationOutbox {
+
+    private final NotificationOutboxRepository outboxRepository;
+    private final ObjectMapper objectMapper;
+
+    public NotificationOutbox(NotificationOutboxRepository outboxRepository, ObjectMapper objectMapper) {
+        this.outboxRepository = outboxRepository;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Records a new raid, with the creator's auto-signed-up character if any.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void raidCreated(Raid raid, String creatorName, String characterName, String job, Integer level) {
+        Map<String, Object> payload = new LinkedHashMap<>();
+        payload.put("title", raid.getTitle());
+        payload.put("subtitle", raid.getSubtitle());
+        payload.put("startTime", raid.getStartTime().toString());
+        payload.put("creatorName", creatorName);
+        payload.put("characterName", characterName);
+        payload.put("job", job);
+        payload.put("level", level);
+        outboxRepository.enqueue(OutboxMessage.RAID_CREATED, raid.getId(), toJson(payload));
+    }
+
+    /**
+     * Records a signup; names are resolved when the notification is sent.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void signupAdded(Long raidId, Long signupId, Long characterId) {
+        Map<String, Object> payload = new LinkedHashMap<>();
+        payload.put("signupId", signupId);
+        payload.put("characterId", characterId);
+        outboxRepository.enqueue(OutboxMessage.SIGNUP_ADDED, raidId, toJson(payload));
+    }
+
+    /**
+     * Records a cancelled signup with the details captured before the delete.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void signupCancelled(Long raidId, SignupWithDetails cancelled) {
+        Map<String, Object> payload = new LinkedHashMap<>();
+        payload.put("signupId", cancelled.getSignupId());
+        payload.put("characterId", cancelled.getCharacterId());
+        payload.put("characterName", cancelled.getCharacterName());
+        payload.put("job", cancelled.getJob());
+        payload.put("level", cancelled.getLevel());
+        payload.put("userId", cancelled.getUserId());
+        payload.put("userName", cancelled.getUserName());
+        outboxRepository.enqueue(OutboxMessage.SIGNUP_CANCELLED, raidId, toJson(payload));
+    }
+
+    private String toJson(Map<String, Object> payload) {
+        try {
+            return objectMapper.writeValueAsString(payload);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to serialize notification payload", e);
+        }
+    }
+}
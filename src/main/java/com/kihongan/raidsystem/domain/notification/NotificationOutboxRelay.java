@@ -0,0 +1,223 @@
+package com.kihongan.raidsystem.domain.notification;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.kihongan.raidsystem.domain.signup.SignupNotificationBatcher;
+import com.kihongan.raidsystem.domain.signup.SignupWithDetails;
+import com.kihongan.raidsystem.service.NotificationFanout;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Background relay from the notification outbox to the delivery pipeline.
+ *
+ * Polls for due rows and hands each one to the notification channels. A row is
+ * marked done only once the channels report it delivered (for signups, once the
+ * batch it joined was sent); a failure, a dropped message or no answer within the
+ * lease is retried with exponential backoff and given up after a limit. The row
+ * stays leased while the relay waits, so it is not claimed twice in the meantime.
+ * The request path only writes the outbox row, so it does no HTTP work and a
+ * restart between commit and delivery loses nothing.
+ *
+ * A row can be handed over again after it was delivered (no answer within the lease,
+ * or marking it delivered failed). Each row therefore carries an event key naming the
+ * change it announces, and the channels skip a key they already delivered just
+ * before each send attempt. An outcome that arrives after the lease was lost is
+ * dropped (and counted as lease_lost); the relay holding the row records its own.
+ */
+@Component
+public class NotificationOutboxRelay {
+
+    private static final Logger log = LoggerFactory.getLogger(NotificationOutboxRelay.class);
+
+    private static final int BATCH_SIZE = 50;
+    private static final Duration LEASE = Duration.ofMinutes(2);
+    /** Leaves time to record the outcome before the lease runs out. */
+    private static final Duration DELIVERY_TIMEOUT = LEASE.minusSeconds(15);
+    private static final Duration RETENTION = Duration.ofDays(7);
+    private static final ZoneId TAIPEI = ZoneId.of("Asia/Taipei");
+
+    private final NotificationOutboxRepository outboxRepository;
+    private final NotificationFanout notificationFanout;
+    private final SignupNotificationBatcher signupNotificationBatcher;
+    private final ObjectMapper objectMapper;
+    private final int maxAttempts;
+
+    private final Counter delivered;
+    private final Counter retried;
+    private final Counter failed;
+    private final Counter leaseLost;
+
+    public NotificationOutboxRelay(NotificationOutboxRepository outboxRepository,
+                                   NotificationFanout notificationFanout,
+                                   SignupNotificationBatcher signupNotificationBatcher,
+                                   ObjectMapper objectMapper,
+                                   MeterRegistry meterRegistry,
+                                   @Value("${app.outbox.max-attempts:8}") int maxAttempts) {
+        this.outboxRepository = outboxRepository;
+        this.notificationFanout = notificationFanout;
+        this.signupNotificationBatcher = signupNotificationBatcher;
+        this.objectMapper = objectMapper;
+        this.maxAttempts = maxAttempts;
+        this.delivered = relayCounter(meterRegistry, "delivered");
+        this.retried = relayCounter(meterRegistry, "retried");
+        this.failed = relayCounter(meterRegistry, "failed");
+        this.leaseLost = relayCounter(meterRegistry, "lease_lost");
+    }
+
+    /**
+     * Relays every due notification, one batch at a time.
+     */
+    @Scheduled(fixedDelayString = "${app.outbox.poll-ms:1000}")
+    public void relay() {
+        List<OutboxMessage> batch;
+        do {
+            batch = outboxRepository.claimBatch(BATCH_SIZE, LEASE);
+            for (OutboxMessage message : batch) {
+                relayOne(message);
+            }
+        } while (batch.size() == BATCH_SIZE);
+    }
+
+    /**
+     * Removes processed rows after a week.
+     */
+    @Scheduled(cron = "0 30 4 * * *", zone = "Asia/Taipei")
+    public void purgeProcessed() {
+        int deleted = outboxRepository.deleteProcessedBefore(Instant.now().minus(RETENTION));
+        log.info("Purged {} processed outbox notifications", deleted);
+    }
+
+    private void relayOne(OutboxMessage message) {
+        CompletableFuture<Boolean> outcome;
+        try {
+            JsonNode payload = objectMapper.readTree(message.getPayload());
+            outcome = deliver(message, payload, eventKey(message, payload));
+        } catch (Exception e) {
+            retryOrFail(message, e.getMessage());
+            return;
+        }
+        // The row stays leased until the channels answer
+        outcome.orTimeout(DELIVERY_TIMEOUT.toMillis(), TimeUnit.MILLISECONDS).whenComplete((accepted, error) -> {
+            try {
+                if (error == null && Boolean.TRUE.equals(accepted)) {
+                    if (leaseHeld(message, outboxRepository.markDelivered(message.getId(), message.getLeaseUntil()))) {
+                        delivered.increment();
+                    }
+                } else {
+                    retryOrFail(message, error != null ? String.valueOf(error) : "not delivered");
+                }
+            } catch (Exception e) {
+                // The lease expires and the row is claimed again
+                log.error("Failed to record outcome of outbox notification {}: {}", message.getId(), e.getMessage());
+            }
+        });
+    }
+
+    private void retryOrFail(OutboxMessage message, String reason) {
+        if (message.getAttempts() >= maxAttempts) {
+            if (!leaseHeld(message, outboxRepository.markFailed(message.getId(), message.getLeaseUntil()))) {
+                return;
+            }
+            failed.increment();
+            log.error("Outbox notification {} ({}) failed after {} attempts: {}",
+                    message.getId(), message.getEventType(), message.getAttempts(), reason);
+        } else {
+            // 2s, 4s, 8s, ... capped at 5 minutes
+            long backoffSeconds = Math.min(300, 1L << message.getAttempts());
+            Instant retryAt = Instant.now().plusSeconds(backoffSeconds);
+            if (!leaseHeld(message, outboxRepository.retryAt(message.getId(), message.getLeaseUntil(), retryAt))) {
+                return;
+            }
+            retried.increment();
+            log.warn("Outbox notification {} ({}) failed, retrying in {}s: {}",
+                    message.getId(), message.getEventType(), backoffSeconds, reason);
+        }
+    }
+
+    /**
+     * Whether an outcome update matched the row under this relay's lease.
+     */
+    private boolean leaseHeld(OutboxMessage message, int updated) {
+        if (updated == 0) {
+            leaseLost.increment();
+            log.warn("Lease on outbox notification {} ({}) was lost before its outcome was recorded",
+                    message.getId(), message.getEventType());
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Hands the row to the channels.
+     *
+     * @return completes with true once the notification was delivered
+     */
+    private CompletableFuture<Boolean> deliver(OutboxMessage message, JsonNode payload, String eventKey) {
+        switch (message.getEventType()) {
+            case OutboxMessage.RAID_CREATED:
+                return notificationFanout.raidCreated(eventKey,
+                    message.getRaidId(), text(payload, "title"), text(payload, "creatorName"),
+                    LocalDateTime.ofInstant(Instant.parse(text(payload, "startTime")), TAIPEI),
+                    text(payload, "subtitle"), text(payload, "characterName"),
+                    text(payload, "job"), integer(payload, "level"));
+            case OutboxMessage.SIGNUP_ADDED:
+                return signupNotificationBatcher.signupAdded(eventKey, message.getRaidId(),
+                    payload.get("characterId").asLong());
+            case OutboxMessage.SIGNUP_CANCELLED:
+                return signupNotificationBatcher.signupCancelled(eventKey, message.getRaidId(), new SignupWithDetails(
+                    payload.get("signupId").asLong(), payload.get("characterId").asLong(),
+                    text(payload, "characterName"), text(payload, "job"), integer(payload, "level"),
+                    payload.get("userId").asLong(), text(payload, "userName"), null, "cancelled"));
+            default:
+                throw new IllegalStateException("Unknown outbox event type: " + message.getEventType());
+        }
+    }
+
+    /**
+     * Event type + raid + signup, e.g. {@code signup-added:12:345}. The signup id
+     * versions the change: a signup row is added and cancelled once, and signing up
+     * again creates a new row, so the same change always gets the same key and a new
+     * change never reuses one.
+     */
+    static String eventKey(OutboxMessage message, JsonNode payload) {
+        String key = message.getEventType() + ":" + message.getRaidId();
+        if (OutboxMessage.RAID_CREATED.equals(message.getEventType())) {
+            return key;
+        }
+        JsonNode signup = payload.get("signupId");
+        if (signup == null || signup.isNull()) {
+            throw new IllegalStateException("Outbox notification " + message.getId() + " has no signup id");
+        }
+        return key + ":" + signup.asText();
+    }
+
+    private static String text(JsonNode payload, String field) {
+        JsonNode node = payload.get(field);
+        return node == null || node.isNull() ? null : node.asText();
+    }
+
+    private static Integer integer(JsonNode payload, String field) {
+        JsonNode node = payload.get(field);
+        return node == null || node.isNull() ? null : node.asInt();
+    }
+
+    private static Counter relayCounter(MeterRegistry meterRegistry, String result) {
+        return Counter.builder("raid.outbox.relay")
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,147 @@
+package com.kihongan.raidsystem.domain.notification;
+
+import com.kihongan.raidsystem.metrics.OperationTimer;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+
+/**
+ * Repository for the notification outbox using JDBC.
+ *
+ * Rows are written in the same transaction as the raid/signup change they describe.
+ * The relay claims due rows with FOR UPDATE SKIP LOCKED, so several instances can
+ * relay concurrently without delivering the same row twice. A claimed row is leased
+ * (status processing, available_at pushed forward); if the instance dies before
+ * marking it, the lease expires and the row is claimed again. Outcomes are only
+ * recorded while the relay still holds its lease (same available_at), so a relay
+ * that finishes late never overwrites a row another relay has re-claimed.
+ */
+@Repository
+public class NotificationOutboxRepository {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final OperationTimer dbTimer;
+
+    public NotificationOutboxRepository(JdbcTemplate jdbcTemplate, MeterRegistry meterRegistry) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.dbTimer = new OperationTimer(meterRegistry, "raid.db.operation", "repository", "outbox");
+    }
+
+    private final RowMapper<OutboxMessage> outboxMessageRowMapper = (rs, rowNum) -> {
+        OutboxMessage message = new OutboxMessage();
+        message.setId(rs.getLong("id"));
+        message.setEventType(rs.getString("event_type"));
+
+        long raidId = rs.getLong("raid_id");
+        message.setRaidId(rs.wasNull() ? null : raidId);
+
+        message.setPayload(rs.getString("payload"));
+        message.setAttempts(rs.getInt("attempts"));
+        return message;
+    };
+
+    /**
+     * Adds a pending notification. Must run inside the caller's transaction.
+     */
+    public void enqueue(String eventType, Long raidId, String payload) {
+        String sql = """
+                INSERT INTO notification_outbox (event_type, raid_id, payload, status, attempts, available_at, created_at)
+                VALUES (?, ?, ?, 'pending', 0, ?, ?)
+                """;
+        Timestamp now = Timestamp.from(Instant.now());
+        dbTimer.record("enqueue", () -> jdbcTemplate.update(sql, eventType, raidId, payload, now, now));
+    }
+
+    /**
+     * Claims up to {@code limit} due notifications in insertion order and leases them.
+     */
+    @Transactional
+    public List<OutboxMessage> claimBatch(int limit, Duration lease) {
+        String sql = """
+                SELECT id, event_type, raid_id, payload, attempts
+                FROM notification_outbox
+                WHERE status IN ('pending', 'processing') AND available_at <= ?
+                ORDER BY id
+                LIMIT ?
+                FOR UPDATE SKIP LOCKED
+                """;
+        Instant now = Instant.now();
+        List<OutboxMessage> claimed = dbTimer.record("claimBatch",
+                () -> jdbcTemplate.query(sql, outboxMessageRowMapper, Timestamp.from(now), limit));
+
+        if (!claimed.isEmpty()) {
+            // Truncated to the column precision, so the lease compares equal when the outcome is recorded
+            Instant leaseEnd = now.plus(lease).truncatedTo(ChronoUnit.MICROS);
+            Timestamp leaseUntil = Timestamp.from(leaseEnd);
+            jdbcTemplate.batchUpdate(
+                    "UPDATE notification_outbox SET status = 'processing', attempts = attempts + 1, available_at = ? WHERE id = ?",
+                    claimed, claimed.size(), (ps, message) -> {
+                        ps.setTimestamp(1, leaseUntil);
+                        ps.setLong(2, message.getId());
+                    });
+            claimed.forEach(message -> {
+                message.setAttempts(message.getAttempts() + 1);
+                message.setLeaseUntil(leaseEnd);
+            });
+        }
+        return claimed;
+    }
+
+    /**
+     * Marks a notification as delivered, if the lease is still held.
+     *
+     * @return 1 if recorded, 0 if the lease was lost to another relay
+     */
+    public int markDelivered(Long id, Instant leaseUntil) {
+        String sql = """
+                UPDATE notification_outbox SET status = 'done', processed_at = ?
+                WHERE id = ? AND status = 'processing' AND available_at = ?
+                """;
+        return dbTimer.record("markDelivered", () -> jdbcTemplate.update(sql,
+                Timestamp.from(Instant.now()), id, Timestamp.from(leaseUntil)));
+    }
+
+    /**
+     * Puts a notification back to pending, due again at the given time, if the lease is still held.
+     *
+     * @return 1 if recorded, 0 if the lease was lost to another relay
+     */
+    public int retryAt(Long id, Instant leaseUntil, Instant availableAt) {
+        String sql = """
+                UPDATE notification_outbox SET status = 'pending', available_at = ?
+                WHERE id = ? AND status = 'processing' AND available_at = ?
+                """;
+        return dbTimer.record("retryAt", () -> jdbcTemplate.update(sql,
+                Timestamp.from(availableAt), id, Timestamp.from(leaseUntil)));
+    }
+
+    /**
+     * Marks a notification as permanently failed, if the lease is still held.
+     *
+     * @return 1 if recorded, 0 if the lease was lost to another relay
+     */
+    public int markFailed(Long id, Instant leaseUntil) {
+        String sql = """
+                UPDATE notification_outbox SET status = 'failed', processed_at = ?
+                WHERE id = ? AND status = 'processing' AND available_at = ?
+                """;
+        return dbTimer.record("markFailed", () -> jdbcTemplate.update(sql,
+                Timestamp.from(Instant.now()), id, Timestamp.from(leaseUntil)));
+    }
+
+    /**
+     * Deletes delivered and failed notifications processed before the given time.
+     */
+    public int deleteProcessedBefore(Instant cutoff) {
+        String sql = "DELETE FROM notification_outbox WHERE status IN ('done', 'failed') AND processed_at < ?";
+        return dbTimer.record("deleteProcessedBefore", () -> jdbcTemplate.update(sql, Timestamp.from(cutoff)));
+    }
+}
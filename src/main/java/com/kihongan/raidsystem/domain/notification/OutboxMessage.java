@@ -0,0 +1,84 @@
+package com.kihongan.raidsystem.domain.notification;
+
+import java.time.Instant;
+
+/**
+ * A notification waiting in the outbox, as claimed by the relay.
+ */
+public class OutboxMessage {
+
+    public static final String RAID_CREATED = "raid-created";
+    public static final String SIGNUP_ADDED = "signup-added";
+    public static final String SIGNUP_CANCELLED = "signup-cancelled";
+
+    private Long id;
+    private String eventType;
+    private Long raidId;
+    private String payload;
+    private int attempts;
+    private Instant leaseUntil;
+
+    public OutboxMessage() {
+    }
+
+    public OutboxMessage(Long id, String eventType, Long raidId, String payload, int attempts) {
+        this.id = id;
+        this.eventType = eventType;
+        this.raidId = raidId;
+        this.payload = payload;
+        this.attempts = attempts;
+    }
+
+    // Getters and Setters
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getEventType() {
+        return eventType;
+    }
+
+    public void setEventType(String eventType) {
+        this.eventType = eventType;
+    }
+
+    public Long getRaidId() {
+        return raidId;
+    }
+
+    public void setRaidId(Long raidId) {
+        this.raidId = raidId;
+    }
+
+    public String getPayload() {
+        return payload;
+    }
+
+    public void setPayload(String payload) {
+        this.payload = payload;
+    }
+
+    public int getAttempts() {
+        return attempts;
+    }
+
+    public void setAttempts(int attempts) {
+        this.attempts = attempts;
+    }
+
+    /**
+     * End of the lease this relay was given when it claimed the row.
+     */
+    public Instant getLeaseUntil() {
+        return leaseUntil;
+    }
+
+    public void setLeaseUntil(Instant leaseUntil) {
+        this.leaseUntil = leaseUntil;
+    }
+}
@@ -6,6 +6,12 @@ import java.time.Instant;
  * Raid entity representing a scheduled game event.
  */
 public class Raid {
+    
+    /**
+     * Maximum number of participants allowed in a single raid.
+     */
+    public static final int MAX_PARTICIPANTS = 6;
+    
     private Long id;
     private String title;
     private String subtitle;
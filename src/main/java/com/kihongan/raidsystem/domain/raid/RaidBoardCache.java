@@ -0,0 +1,276 @@
+package com.kihongan.raidsystem.domain.raid;
+
+import com.kihongan.raidsystem.domain.raid.dto.RaidDTO;
+import com.kihongan.raidsystem.domain.signup.SignupWithDetails;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BiPredicate;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+/**
+ * Process-local cache of the raid board and per-raid rosters.
+ *
+ * Every write bumps a monotonically increasing version; cached entries are only
+ * served while their version matches the current one. A separate raid list version
+ * moves only when raids themselves are created, deleted or reset, for views that
+ * show no signups. Concurrent misses for the
+ * same entry are coalesced so only one thread hits the database per reload.
+ * Invalidations run after the surrounding transaction commits (or immediately
+ * when there is none), so a reload can never re-cache pre-commit data.
+ */
+@Component
+public class RaidBoardCache {
+
+    private static final ZoneId BOARD_ZONE = ZoneId.of("Asia/Taipei");
+
+    // Guards against unbounded growth from lookups of arbitrary raid IDs
+    private static final int MAX_CACHED_ROSTERS = 256;
+
+    // Seeded with the start time so versions never repeat across restarts
+    private final AtomicLong versionSequence = new AtomicLong(System.currentTimeMillis());
+
+    private final AtomicReference<Entry<List<RaidDTO>>> board = new AtomicReference<>();
+    private final ConcurrentHashMap<Long, Entry<List<SignupWithDetails>>> rosters = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<Long, Long> rosterVersions = new ConcurrentHashMap<>();
+
+    private volatile long boardVersion = versionSequence.get();
+    private volatile long raidListVersion = versionSequence.get();
+    private volatile long rosterFloorVersion = versionSequence.get();
+    private volatile LocalDate boardDate = LocalDate.now(BOARD_ZONE);
+
+    /**
+     * Gets the raid board, loading it with the given loader on a miss.
+     */
+    public Versioned<List<RaidDTO>> getBoard(Supplier<List<RaidDTO>> loader) {
+        return getOrLoad(
+                board::get,
+                board::compareAndSet,
+                this::getBoardVersion,
+                loader);
+    }
+
+    /**
+     * Gets the roster of a raid, loading it with the given loader on a miss.
+     */
+    public Versioned<List<SignupWithDetails>> getRoster(Long raidId, Supplier<List<SignupWithDetails>> loader) {
+        if (!rosters.containsKey(raidId) && rosters.size() >= MAX_CACHED_ROSTERS) {
+            long version = getRosterVersion(raidId);
+            return new Versioned<>(version, loader.get());
+        }
+
+        return getOrLoad(
+                () -> rosters.get(raidId),
+                (expected, next) -> {
+                    if (next == null) {
+                        return rosters.remove(raidId, expected);
+                    }
+                    if (expected == null) {
+                        return rosters.putIfAbsent(raidId, next) == null;
+                    }
+                    return rosters.replace(raidId, expected, next);
+                },
+                () -> getRosterVersion(raidId),
+                loader);
+    }
+
+    /**
+     * Current version of the raid board.
+     * Also rolls the version when the Asia/Taipei date changes, since the board
+     * query drops raids from previous days without any write.
+     */
+    public long getBoardVersion() {
+        rollDate();
+        return boardVersion;
+    }
+
+    /**
+     * Current version of the raid list (raids only, without signups).
+     * Unlike the board version, signups and cancels leave it unchanged.
+     */
+    public long getRaidListVersion() {
+        rollDate();
+        return raidListVersion;
+    }
+
+    /**
+     * Current version of a raid's roster.
+     */
+    public long getRosterVersion(Long raidId) {
+        long version = rosterVersions.getOrDefault(raidId, rosterFloorVersion);
+        return Math.max(version, rosterFloorVersion);
+    }
+
+    /**
+     * Invalidates the board and the raid list (e.g. a raid was created).
+     */
+    public void invalidateBoard() {
+        afterCommit(() -> {
+            long version = versionSequence.incrementAndGet();
+            raidListVersion = version;
+            boardVersion = version;
+        });
+    }
+
+    /**
+     * Invalidates the board and the roster of one raid (signup, cancel).
+     */
+    public void invalidateRaid(Long raidId) {
+        afterCommit(() -> {
+            long version = versionSequence.incrementAndGet();
+            rosterVersions.put(raidId, version);
+            rosters.remove(raidId);
+            boardVersion = version;
+        });
+    }
+
+    /**
+     * Invalidates the board, the raid list and the roster of a deleted raid.
+     */
+    public void removeRaid(Long raidId) {
+        afterCommit(() -> {
+            long version = versionSequence.incrementAndGet();
+            rosterVersions.put(raidId, version);
+            rosters.remove(raidId);
+            raidListVersion = version;
+            boardVersion = version;
+        });
+    }
+
+    /**
+     * Invalidates every roster but keeps the board (e.g. a character was renamed).
+     */
+    public void invalidateRosters() {
+        afterCommit(() -> {
+            rosterFloorVersion = versionSequence.incrementAndGet();
+            rosterVersions.clear();
+            rosters.clear();
+        });
+    }
+
+    /**
+     * Invalidates everything (e.g. weekly cleanup, user profile changes).
+     */
+    public void invalidateAll() {
+        afterCommit(() -> {
+            long version = versionSequence.incrementAndGet();
+            rosterFloorVersion = version;
+            rosterVersions.clear();
+            rosters.clear();
+            raidListVersion = version;
+            boardVersion = version;
+        });
+    }
+
+    /**
+     * Rolls the board and raid list versions when the Asia/Taipei date changes.
+     */
+    private void rollDate() {
+        LocalDate today = LocalDate.now(BOARD_ZONE);
+        if (!today.equals(boardDate)) {
+            boardDate = today;
+            long version = versionSequence.incrementAndGet();
+            raidListVersion = version;
+            boardVersion = version;
+        }
+    }
+
+    private <T> Versioned<T> getOrLoad(
+            Supplier<Entry<T>> current,
+            BiPredicate<Entry<T>, Entry<T>> swap,
+            LongSupplier currentVersion,
+            Supplier<T> loader) {
+
+        while (true) {
+            long version = currentVersion.getAsLong();
+            Entry<T> entry = current.get();
+
+            if (entry != null && entry.version == version) {
+                return entry.await();
+            }
+
+            Entry<T> fresh = new Entry<>(version);
+            if (!swap.test(entry, fresh)) {
+                // Another thread installed an entry first; re-check and wait on it
+                continue;
+            }
+
+            try {
+                T value = loader.get();
+                fresh.future.complete(value);
+                return new Versioned<>(version, value);
+            } catch (RuntimeException e) {
+                fresh.future.completeExceptionally(e);
+                swap.test(fresh, null);
+                throw e;
+            }
+        }
+    }
+
+    private void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    /**
+     * Cache slot whose value is loaded once and shared by all waiters.
+     */
+    private static final class Entry<T> {
+        private final long version;
+        private final CompletableFuture<T> future = new CompletableFuture<>();
+
+        private Entry(long version) {
+            this.version = version;
+        }
+
+        private Versioned<T> await() {
+            try {
+                return new Versioned<>(version, future.join());
+            } catch (CompletionException e) {
+                if (e.getCause() instanceof RuntimeException) {
+                    throw (RuntimeException) e.getCause();
+                }
+                throw e;
+            }
+        }
+    }
+
+    /**
+     * A cached value together with the version it was loaded at.
+     */
+    public static final class Versioned<T> {
+        private final long version;
+        private final T value;
+
+        public Versioned(long version, T value) {
+            this.version = version;
+            this.value = value;
+        }
+
+        public long getVersion() {
+            return version;
+        }
+
+        public T getValue() {
+            return value;
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package com.kihongan.raidsystem.domain.raid;
+
+/**
+ * Domain event describing a change to the raid board.
+ * Published by RaidService and SignupService; delivered to listeners after commit.
+ */
+public class RaidBoardEvent {
+
+    public enum Type {
+        RAID_CREATED("raid-created"),
+        RAID_DELETED("raid-deleted"),
+        SIGNUP_ADDED("signup-added"),
+        SIGNUP_CANCELLED("signup-cancelled"),
+        BOARD_RESET("board-reset");
+
+        private final String eventName;
+
+        Type(String eventName) {
+            this.eventName = eventName;
+        }
+
+        public String getEventName() {
+            return eventName;
+        }
+    }
+
+    private final Type type;
+    private final Long raidId;
+    private final Integer signupCount;
+
+    public RaidBoardEvent(Type type, Long raidId, Integer signupCount) {
+        this.type = type;
+        this.raidId = raidId;
+        this.signupCount = signupCount;
+    }
+
+    public static RaidBoardEvent raidCreated(Long raidId) {
+        return new RaidBoardEvent(Type.RAID_CREATED, raidId, 0);
+    }
+
+    public static RaidBoardEvent raidDeleted(Long raidId) {
+        return new RaidBoardEvent(Type.RAID_DELETED, raidId, null);
+    }
+
+    public static RaidBoardEvent signupAdded(Long raidId, int signupCount) {
+        return new RaidBoardEvent(Type.SIGNUP_ADDED, raidId, signupCount);
+    }
+
+    public static RaidBoardEvent signupCancelled(Long raidId, int signupCount) {
+        return new RaidBoardEvent(Type.SIGNUP_CANCELLED, raidId, signupCount);
+    }
+
+    public static RaidBoardEvent boardReset() {
+        return new RaidBoardEvent(Type.BOARD_RESET, null, null);
+    }
+
+    // Getters
+
+    public Type getType() {
+        return type;
+    }
+
+    public Long getRaidId() {
+        return raidId;
+    }
+
+    public Integer getSignupCount() {
+        return signupCount;
+    }
+
+    public Boolean getIsFull() {
+        return signupCount != null ? signupCount >= Raid.MAX_PARTICIPANTS : null;
+    }
+}
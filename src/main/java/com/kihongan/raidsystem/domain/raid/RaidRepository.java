@@ -1,5 +1,8 @@
 package com.kihongan.raidsystem.domain.raid;
 
+import com.kihongan.raidsystem.domain.raid.dto.RaidDTO;
+import com.kihongan.raidsystem.metrics.OperationTimer;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.jdbc.core.RowMapper;
 import org.springframework.jdbc.support.GeneratedKeyHolder;
@@ -10,6 +13,8 @@ import java.sql.PreparedStatement;
 import java.sql.Statement;
 import java.sql.Timestamp;
 import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
 import java.util.List;
 import java.util.Optional;
 
@@ -20,10 +25,14 @@ import java.util.Optional;
 @Repository
 public class RaidRepository {
     
+    private static final ZoneId BOARD_ZONE = ZoneId.of("Asia/Taipei");
+    
     private final JdbcTemplate jdbcTemplate;
+    private final OperationTimer dbTimer;
     
-    public RaidRepository(JdbcTemplate jdbcTemplate) {
+    public RaidRepository(JdbcTemplate jdbcTemplate, MeterRegistry meterRegistry) {
         this.jdbcTemplate = jdbcTemplate;
+        this.dbTimer = new OperationTimer(meterRegistry, "raid.db.operation", "repository", "raid");
     }
     
     private final RowMapper<Raid> raidRowMapper = (rs, rowNum) -> {
@@ -48,13 +57,47 @@ public class RaidRepository {
         return raid;
     };
     
+    private final RowMapper<RaidDTO> raidBoardRowMapper = (rs, rowNum) -> {
+        RaidDTO dto = RaidDTO.fromEntity(raidRowMapper.mapRow(rs, rowNum));
+        dto.setCreatedByName(rs.getString("created_by_name"));
+        
+        int signupCount = rs.getInt("signup_count");
+        dto.setSignupCount(signupCount);
+        dto.setIsFull(signupCount >= Raid.MAX_PARTICIPANTS);
+        
+        return dto;
+    };
+    
+    /**
+     * Finds the raid board: all active raids with creator name and signup count.
+     * Uses a single JOIN/aggregate query instead of one lookup per raid.
+     */
+    public List<RaidDTO> findBoard() {
+        String sql = """
+                SELECT
+                    r.*,
+                    u.name as created_by_name,
+                    COALESCE(s.signup_count, 0) as signup_count
+                FROM raids r
+                LEFT JOIN users u ON r.created_by = u.id
+                LEFT JOIN (
+                    SELECT raid_id, COUNT(*) as signup_count
+                    FROM raid_signups
+                    GROUP BY raid_id
+                ) s ON s.raid_id = r.id
+                WHERE r.start_time >= ?
+                ORDER BY r.start_time ASC
+                """;
+        return dbTimer.record("findBoard", () -> jdbcTemplate.query(sql, raidBoardRowMapper, startOfToday()));
+    }
+    
     /**
      * Finds all raids ordered by start time.
-     * Only returns raids that haven't expired (start_time >= current time in Asia/Taipei).
+     * Only returns raids that haven't expired (start_time >= today 00:00 in Asia/Taipei).
      */
     public List<Raid> findAllOrderByStartTime() {
-        String sql = "SELECT * FROM raids WHERE start_time >= (NOW() AT TIME ZONE 'Asia/Taipei')::date::timestamptz ORDER BY start_time ASC";
-        return jdbcTemplate.query(sql, raidRowMapper);
+        String sql = "SELECT * FROM raids WHERE start_time >= ? ORDER BY start_time ASC";
+        return dbTimer.record("findAllOrderByStartTime", () -> jdbcTemplate.query(sql, raidRowMapper, startOfToday()));
     }
     
     /**
@@ -62,7 +105,7 @@ public class RaidRepository {
      */
     public Optional<Raid> findById(Long id) {
         String sql = "SELECT * FROM raids WHERE id = ?";
-        List<Raid> results = jdbcTemplate.query(sql, raidRowMapper, id);
+        List<Raid> results = dbTimer.record("findById", () -> jdbcTemplate.query(sql, raidRowMapper, id));
         return results.isEmpty() ? Optional.empty() : Optional.of(results.get(0));
     }
     
@@ -79,7 +122,7 @@ public class RaidRepository {
         raid.setCreatedAt(now);
         
         KeyHolder keyHolder = new GeneratedKeyHolder();
-        jdbcTemplate.update(connection -> {
+        dbTimer.record("save", () -> jdbcTemplate.update(connection -> {
             PreparedStatement ps = connection.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS);
             ps.setString(1, raid.getTitle());
             ps.setString(2, raid.getSubtitle());
@@ -88,7 +131,7 @@ public class RaidRepository {
             ps.setLong(5, raid.getCreatedBy());
             ps.setTimestamp(6, Timestamp.from(raid.getCreatedAt()));
             return ps;
-        }, keyHolder);
+        }, keyHolder));
         
         // PostgreSQL returns all columns, so we need to get the 'id' specifically
         Number key = (Number) keyHolder.getKeys().get("id");
@@ -101,6 +144,14 @@ public class RaidRepository {
      */
     public void deleteById(Long id) {
         String sql = "DELETE FROM raids WHERE id = ?";
-        jdbcTemplate.update(sql, id);
+        dbTimer.record("deleteById", () -> jdbcTemplate.update(sql, id));
+    }
+    
+    /**
+     * Start of the current day in Asia/Taipei, the cutoff for active raids.
+     * Computed here rather than in SQL so the query is portable (PostgreSQL and H2).
+     */
+    private Timestamp startOfToday() {
+        return Timestamp.from(LocalDate.now(BOARD_ZONE).atStartOfDay(BOARD_ZONE).toInstant());
     }
 }
@@ -1,19 +1,26 @@
 package com.kihongan.raidsystem.domain.raid;
 
+import com.kihongan.raidsystem.domain.character.Character;
+import com.kihongan.raidsystem.domain.character.CharacterRepository;
+import com.kihongan.raidsystem.domain.notification.NotificationOutbox;
 import com.kihongan.raidsystem.domain.raid.dto.CreateRaidRequest;
 import com.kihongan.raidsystem.domain.raid.dto.RaidDTO;
+import com.kihongan.raidsystem.domain.signup.SignupAttempt;
 import com.kihongan.raidsystem.domain.signup.SignupRepository;
 import com.kihongan.raidsystem.exception.ValidationException;
-import com.kihongan.raidsystem.service.DiscordWebhookService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.Instant;
-import java.time.LocalDateTime;
-import java.time.ZoneId;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Locale;
+import java.util.Optional;
 
 /**
  * Service layer for Raid business logic.
@@ -22,23 +29,29 @@ import java.util.stream.Collectors;
 @Service
 public class RaidService {
     
+    private static final Logger log = LoggerFactory.getLogger(RaidService.class);
+    
     private final RaidRepository raidRepository;
     private final SignupRepository signupRepository;
+    private final CharacterRepository characterRepository;
     private final JdbcTemplate jdbcTemplate;
-    private final DiscordWebhookService discordWebhookService;
+    private final NotificationOutbox notificationOutbox;
+    private final RaidBoardCache raidBoardCache;
+    private final ApplicationEventPublisher eventPublisher;
+    private final MeterRegistry meterRegistry;
     
-    public RaidService(RaidRepository raidRepository, SignupRepository signupRepository, JdbcTemplate jdbcTemplate, DiscordWebhookService discordWebhookService) {
+    public RaidService(RaidRepository raidRepository, SignupRepository signupRepository,
+                       CharacterRepository characterRepository, JdbcTemplate jdbcTemplate,
+                       NotificationOutbox notificationOutbox, RaidBoardCache raidBoardCache,
+                       ApplicationEventPublisher eventPublisher, MeterRegistry meterRegistry) {
         this.raidRepository = raidRepository;
         this.signupRepository = signupRepository;
+        this.characterRepository = characterRepository;
         this.jdbcTemplate = jdbcTemplate;
-        this.discordWebhookService = discordWebhookService;
-    }
-    
-    // For auto-signup after raid creation
-    private com.kihongan.raidsystem.domain.signup.SignupService signupService;
-    
-    public void setSignupService(com.kihongan.raidsystem.domain.signup.SignupService signupService) {
-        this.signupService = signupService;
+        this.notificationOutbox = notificationOutbox;
+        this.raidBoardCache = raidBoardCache;
+        this.eventPublisher = eventPublisher;
+        this.meterRegistry = meterRegistry;
     }
     
     /**
@@ -49,22 +62,25 @@ public class RaidService {
     }
     
     /**
-     * Gets raids with creator names.
+     * Gets the raid board with creator names and signup counts in one query.
+     * Served from the in-memory board cache while no raid or signup has changed.
      */
-    public List<RaidDTO> getRaidsWithCreatorNames(List<Raid> raids) {
-        return raids.stream().map(raid -> {
-            RaidDTO dto = RaidDTO.fromEntity(raid);
-            
-            // Get creator name
-            String creatorName = jdbcTemplate.queryForObject(
-                "SELECT name FROM users WHERE id = ?",
-                String.class,
-                raid.getCreatedBy()
-            );
-            dto.setCreatedByName(creatorName);
-            
-            return dto;
-        }).collect(Collectors.toList());
+    public List<RaidDTO> getRaidBoard() {
+        return raidBoardCache.getBoard(() -> List.copyOf(raidRepository.findBoard())).getValue();
+    }
+    
+    /**
+     * Gets the current raid board version (changes whenever the board content may change).
+     */
+    public long getRaidBoardVersion() {
+        return raidBoardCache.getBoardVersion();
+    }
+    
+    /**
+     * Gets the current raid list version (changes only when raids are created, deleted or reset).
+     */
+    public long getRaidListVersion() {
+        return raidBoardCache.getRaidListVersion();
     }
     
     /**
@@ -84,69 +100,45 @@ public class RaidService {
         raid.setCreatedBy(creatorUserId);
         
         Raid savedRaid = raidRepository.save(raid);
+        raidBoardCache.invalidateBoard();
+        eventPublisher.publishEvent(RaidBoardEvent.raidCreated(savedRaid.getId()));
         
-        // Auto-signup creator if characterId is provided
+        // Auto-signup creator if characterId is provided. The signup is inserted in this
+        // transaction: nobody else can see the new raid yet, so there is nothing to queue
+        // behind and no DB connection is held while waiting on the admission gate.
         String characterName = null;
         String characterJob = null;
         Integer characterLevel = null;
         
-        if (request.getCharacterId() != null && signupService != null) {
-            try {
-                // Get character info before signup
-                characterName = jdbcTemplate.queryForObject(
-                    "SELECT name FROM characters WHERE id = ?",
-                    String.class,
-                    request.getCharacterId()
-                );
-                characterJob = jdbcTemplate.queryForObject(
-                    "SELECT job FROM characters WHERE id = ?",
-                    String.class,
-                    request.getCharacterId()
-                );
-                characterLevel = jdbcTemplate.queryForObject(
-                    "SELECT level FROM characters WHERE id = ?",
-                    Integer.class,
-                    request.getCharacterId()
-                );
-                
-                System.out.println("DEBUG: Character info retrieved - name: " + characterName + ", job: " + characterJob + ", level: " + characterLevel);
-                
-                // Signup without notification (will send combined notification below)
-                signupService.createSignupWithoutNotification(creatorUserId, savedRaid.getId(), request.getCharacterId());
-                
-                System.out.println("DEBUG: Auto-signup successful for character: " + characterName);
-            } catch (Exception e) {
-                System.err.println("Failed to auto-signup creator: " + e.getMessage());
-                e.printStackTrace();
-                // Reset character info if signup failed
-                characterName = null;
-                characterJob = null;
-                characterLevel = null;
-            }
-        }
-        
-        // Send notifications
-        try {
-            String creatorName = jdbcTemplate.queryForObject(
-                "SELECT name FROM users WHERE id = ?",
-                String.class,
-                creatorUserId
-            );
+        if (request.getCharacterId() != null) {
+            SignupAttempt attempt = signupRepository.saveIfAllowed(
+                creatorUserId, savedRaid.getId(), request.getCharacterId(), Raid.MAX_PARTICIPANTS);
+            autoSignupCounter(attempt.getOutcome()).increment();
             
-            LocalDateTime startTime = LocalDateTime.ofInstant(savedRaid.getStartTime(), ZoneId.of("Asia/Taipei"));
-            
-            // Discord notification
-            try {
-                discordWebhookService.sendRaidCreatedNotification(
-                    savedRaid.getTitle(), creatorName, startTime,
-                    savedRaid.getSubtitle(), characterName, characterJob, characterLevel);
-            } catch (Exception e) {
-                System.err.println("Failed to send Discord notification: " + e.getMessage());
+            if (attempt.getOutcome() == SignupAttempt.Outcome.CREATED) {
+                Optional<Character> character = characterRepository.findById(request.getCharacterId());
+                if (character.isPresent()) {
+                    characterName = character.get().getName();
+                    characterJob = character.get().getJob();
+                    characterLevel = character.get().getLevel();
+                }
+                log.debug("Auto-signed up creator character {} for raid {}", request.getCharacterId(), savedRaid.getId());
+                raidBoardCache.invalidateRaid(savedRaid.getId());
+                eventPublisher.publishEvent(RaidBoardEvent.signupAdded(savedRaid.getId(), attempt.getSignupCount()));
+            } else {
+                log.warn("Failed to auto-signup creator character {} for raid {}: {}",
+                        request.getCharacterId(), savedRaid.getId(), attempt.getOutcome());
             }
-        } catch (Exception e) {
-            System.err.println("Failed to send raid created notification: " + e.getMessage());
         }
         
+        // Queue the notification in the same transaction; the outbox relay delivers it after commit
+        String creatorName = jdbcTemplate.queryForObject(
+            "SELECT name FROM users WHERE id = ?",
+            String.class,
+            creatorUserId
+        );
+        notificationOutbox.raidCreated(savedRaid, creatorName, characterName, characterJob, characterLevel);
+        
         return savedRaid;
     }
     
@@ -160,6 +152,9 @@ public class RaidService {
         
         // Then delete the raid
         raidRepository.deleteById(raidId);
+        
+        raidBoardCache.removeRaid(raidId);
+        eventPublisher.publishEvent(RaidBoardEvent.raidDeleted(raidId));
     }
     
     // Validation helpers
@@ -181,4 +176,10 @@ public class RaidService {
             throw new ValidationException("Raid start time cannot be more than 1 hour in the past");
         }
     }
+    
+    private Counter autoSignupCounter(SignupAttempt.Outcome outcome) {
+        return Counter.builder("raid.signup.auto")
+                .tag("outcome", outcome.name().toLowerCase(Locale.ROOT))
+                .register(meterRegistry);
+    }
 }
@@ -17,6 +17,8 @@ public class RaidDTO {
     private Long createdBy;
     private String createdByName;
     private Instant createdAt;
+    private Integer signupCount;
+    private Boolean isFull;
     
     public RaidDTO() {
     }
@@ -114,4 +116,20 @@ public class RaidDTO {
     public void setCreatedAt(Instant createdAt) {
         this.createdAt = createdAt;
     }
+    
+    public Integer getSignupCount() {
+        return signupCount;
+    }
+    
+    public void setSignupCount(Integer signupCount) {
+        this.signupCount = signupCount;
+    }
+    
+    public Boolean getIsFull() {
+        return isFull;
+    }
+    
+    public void setIsFull(Boolean isFull) {
+        this.isFull = isFull;
+    }
 }
@@ -0,0 +1,133 @@
+package com.kihongan.raidsystem.domain.signup;
+
+import com.kihongan.raidsystem.domain.raid.Raid;
+import com.kihongan.raidsystem.domain.raid.RaidBoardEvent;
+import com.kihongan.raidsystem.exception.TooManyRequestsException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * In-process admission layer for signup bursts, keyed by raid ID.
+ *
+ * Signups and cancels for the same raid are serialized in memory (fair, FIFO)
+ * before they touch the database, so waiters never hold a DB connection and only
+ * one request per raid contends for the raid row lock. Once a raid is known to be
+ * full, further signups are rejected instantly without a DB round trip. Different
+ * raids use different gates and run fully in parallel.
+ */
+@Component
+public class SignupAdmissionController {
+
+    // A "full" observation is trusted only briefly, in case the DB is changed elsewhere
+    private static final long KNOWN_FULL_TTL_NANOS = TimeUnit.SECONDS.toNanos(30);
+
+    private final ConcurrentHashMap<Long, RaidGate> gates = new ConcurrentHashMap<>();
+    private final long maxWaitMs;
+
+    public SignupAdmissionController(@Value("${app.signup.admission-wait-ms:5000}") long maxWaitMs) {
+        this.maxWaitMs = maxWaitMs;
+    }
+
+    /**
+     * Admits a signup for a raid, rejecting instantly if the raid is known to be full.
+     * The insert runs while holding the raid's gate, and its resulting roster size is recorded.
+     */
+    public SignupAttempt admitSignup(Long raidId, Supplier<SignupAttempt> insert) {
+        RaidGate gate = gates.computeIfAbsent(raidId, id -> new RaidGate());
+        if (gate.isKnownFull()) {
+            return SignupAttempt.rejected(SignupAttempt.Outcome.RAID_FULL, Raid.MAX_PARTICIPANTS);
+        }
+
+        return runExclusive(raidId, gate, () -> {
+            // Someone ahead in the queue may have taken the last seat
+            if (gate.isKnownFull()) {
+                return SignupAttempt.rejected(SignupAttempt.Outcome.RAID_FULL, Raid.MAX_PARTICIPANTS);
+            }
+
+            SignupAttempt attempt = insert.get();
+            if (attempt.getOutcome() == SignupAttempt.Outcome.RAID_NOT_FOUND) {
+                gates.remove(raidId, gate);
+            } else {
+                gate.recordCount(attempt.getSignupCount());
+            }
+            return attempt;
+        });
+    }
+
+    /**
+     * Runs an action while holding the raid's gate (e.g. a cancel).
+     * Actions that change the roster size should call {@link #recordSignupCount}.
+     */
+    public <T> T runExclusive(Long raidId, Supplier<T> action) {
+        return runExclusive(raidId, gates.computeIfAbsent(raidId, id -> new RaidGate()), action);
+    }
+
+    /**
+     * Records the current roster size of a raid.
+     */
+    public void recordSignupCount(Long raidId, int signupCount) {
+        RaidGate gate = gates.get(raidId);
+        if (gate != null) {
+            gate.recordCount(signupCount);
+        }
+    }
+
+    /**
+     * Drops gates of raids that no longer exist.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onRaidBoardEvent(RaidBoardEvent event) {
+        if (event.getType() == RaidBoardEvent.Type.RAID_DELETED) {
+            gates.remove(event.getRaidId());
+        } else if (event.getType() == RaidBoardEvent.Type.BOARD_RESET) {
+            gates.clear();
+        }
+    }
+
+    private <T> T runExclusive(Long raidId, RaidGate gate, Supplier<T> action) {
+        boolean acquired;
+        try {
+            acquired = gate.lock.tryLock(maxWaitMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new TooManyRequestsException("Raid is busy, please try again");
+        }
+        if (!acquired) {
+            throw new TooManyRequestsException("Raid is busy, please try again");
+        }
+
+        try {
+            return action.get();
+        } finally {
+            gate.lock.unlock();
+        }
+    }
+
+    /**
+     * Per-raid lock and last known roster size.
+     */
+    private static final class RaidGate {
+        private final ReentrantLock lock = new ReentrantLock(true);
+        private volatile boolean full;
+        private volatile long fullSince;
+
+        private boolean isKnownFull() {
+            return full && System.nanoTime() - fullSince < KNOWN_FULL_TTL_NANOS;
+        }
+
+        private void recordCount(int signupCount) {
+            if (signupCount >= Raid.MAX_PARTICIPANTS) {
+                fullSince = System.nanoTime();
+                full = true;
+            } else {
+                full = false;
+            }
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package com.kihongan.raidsystem.domain.signup;
+
+/**
+ * Result of a capacity-checked signup insert.
+ * Carries which rule rejected the signup, or the saved signup and the new roster size.
+ */
+public class SignupAttempt {
+
+    public enum Outcome {
+        CREATED,
+        RAID_NOT_FOUND,
+        CHARACTER_NOT_FOUND,
+        NOT_CHARACTER_OWNER,
+        ALREADY_SIGNED_UP,
+        RAID_FULL
+    }
+
+    private final Outcome outcome;
+    private final Signup signup;
+    private final int signupCount;
+
+    private SignupAttempt(Outcome outcome, Signup signup, int signupCount) {
+        this.outcome = outcome;
+        this.signup = signup;
+        this.signupCount = signupCount;
+    }
+
+    public static SignupAttempt created(Signup signup, int signupCount) {
+        return new SignupAttempt(Outcome.CREATED, signup, signupCount);
+    }
+
+    public static SignupAttempt rejected(Outcome outcome, int signupCount) {
+        return new SignupAttempt(outcome, null, signupCount);
+    }
+
+    // Getters
+
+    public Outcome getOutcome() {
+        return outcome;
+    }
+
+    public Signup getSignup() {
+        return signup;
+    }
+
+    public int getSignupCount() {
+        return signupCount;
+    }
+}
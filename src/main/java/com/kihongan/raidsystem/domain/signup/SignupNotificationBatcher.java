@@ -0,0 +1,208 @@
+package com.kihongan.raidsystem.domain.signup;
+
+import com.kihongan.raidsystem.domain.raid.Raid;
+import com.kihongan.raidsystem.domain.raid.RaidRepository;
+import com.kihongan.raidsystem.service.NotificationFanout;
+import com.kihongan.raidsystem.service.RosterSnapshot;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Coalesces signup and cancel notifications per raid.
+ *
+ * The first change to a raid opens a short window; every change inside it joins the
+ * same batch, and when the window closes one notification is sent. The roster in
+ * that message is read once at flush time, so it is always the exact final state.
+ * Nothing is looked up on the request path: joiners are resolved from the final
+ * roster, and cancels carry the details captured before the delete. Each change
+ * gets the outcome of the notification it ended up in.
+ *
+ * Every change is passed on under its own key, so {@link NotificationFanout} can skip
+ * changes a channel already announced when a retry groups them differently.
+ */
+@Component
+public class SignupNotificationBatcher {
+
+    private static final Logger log = LoggerFactory.getLogger(SignupNotificationBatcher.class);
+
+    private static final ZoneId TAIPEI = ZoneId.of("Asia/Taipei");
+
+    private final SignupRepository signupRepository;
+    private final RaidRepository raidRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final NotificationFanout notificationFanout;
+    private final long windowMs;
+    private final ConcurrentHashMap<Long, List<Change>> pending = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService scheduler;
+
+    public SignupNotificationBatcher(SignupRepository signupRepository,
+                                     RaidRepository raidRepository,
+                                     JdbcTemplate jdbcTemplate,
+                                     NotificationFanout notificationFanout,
+                                     @Value("${app.notification.coalesce-window-ms:3000}") long windowMs) {
+        this.signupRepository = signupRepository;
+        this.raidRepository = raidRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.notificationFanout = notificationFanout;
+        this.windowMs = windowMs;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "signup-notification-batcher");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Records that a character joined a raid.
+     *
+     * @param eventKey key of the change, passed on to the channels
+     * @return completes with true once the batch with this change was delivered
+     */
+    public CompletableFuture<Boolean> signupAdded(String eventKey, Long raidId, Long characterId) {
+        return add(raidId, new Change(eventKey, true, characterId, null));
+    }
+
+    /**
+     * Records that a signup was cancelled; the details are captured before the delete.
+     *
+     * @param eventKey key of the change, passed on to the channels
+     * @return completes with true once the batch with this change was delivered
+     */
+    public CompletableFuture<Boolean> signupCancelled(String eventKey, Long raidId, SignupWithDetails cancelled) {
+        return add(raidId, new Change(eventKey, false, cancelled.getCharacterId(), cancelled));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        scheduler.shutdownNow();
+        // Send what is still waiting rather than losing it
+        for (Long raidId : List.copyOf(pending.keySet())) {
+            flush(raidId);
+        }
+    }
+
+    private CompletableFuture<Boolean> add(Long raidId, Change change) {
+        pending.compute(raidId, (id, changes) -> {
+            if (changes == null) {
+                changes = new ArrayList<>();
+                scheduler.schedule(() -> flush(id), windowMs, TimeUnit.MILLISECONDS);
+            }
+            changes.add(change);
+            return changes;
+        });
+        return change.sent;
+    }
+
+    void flush(Long raidId) {
+        List<Change> changes = pending.remove(raidId);
+        if (changes == null || changes.isEmpty()) {
+            return;
+        }
+
+        CompletableFuture<Boolean> sent;
+        try {
+            Optional<Raid> raid = raidRepository.findById(raidId);
+            if (raid.isEmpty()) {
+                // Raid was deleted inside the window: nothing left to announce
+                changes.forEach(change -> change.sent.complete(true));
+                return;
+            }
+            String creatorName = jdbcTemplate.queryForObject(
+                "SELECT name FROM users WHERE id = ?", String.class, raid.get().getCreatedBy());
+            List<SignupWithDetails> roster = signupRepository.findByRaidIdWithDetails(raidId);
+
+            Map<Long, SignupWithDetails> byCharacter = new HashMap<>();
+            for (Change change : changes) {
+                if (change.details != null) {
+                    byCharacter.put(change.characterId, change.details);
+                }
+            }
+            for (SignupWithDetails signup : roster) {
+                byCharacter.put(signup.getCharacterId(), signup);
+            }
+
+            List<String> memberList = new ArrayList<>();
+            for (SignupWithDetails signup : roster) {
+                memberList.add(signup.getCharacterName() + " (" + (signup.getJob() != null ? signup.getJob() : "未設定") + ")");
+            }
+
+            Raid current = raid.get();
+            RosterSnapshot snapshot = new RosterSnapshot(raidId, current.getTitle(), current.getSubtitle(),
+                LocalDateTime.ofInstant(current.getStartTime(), TAIPEI), creatorName,
+                roster.size(), Raid.MAX_PARTICIPANTS, memberList);
+            sent = changes.size() == 1
+                ? sendSingle(snapshot, changes.get(0), byCharacter)
+                : sendBatch(snapshot, changes, byCharacter);
+        } catch (Exception e) {
+            log.error("Failed to send roster notification for raid {}: {}", raidId, e.getMessage());
+            sent = CompletableFuture.completedFuture(false);
+        }
+        sent.thenAccept(delivered -> {
+            if (!delivered) {
+                log.warn("Roster notification for raid {} was not delivered", raidId);
+            }
+            changes.forEach(change -> change.sent.complete(delivered));
+        });
+    }
+
+    private CompletableFuture<Boolean> sendSingle(RosterSnapshot snapshot, Change change,
+                                                  Map<Long, SignupWithDetails> byCharacter) {
+        SignupWithDetails details = byCharacter.get(change.characterId);
+        if (details == null) {
+            // Nothing to announce for a character that is gone
+            return CompletableFuture.completedFuture(true);
+        }
+        if (change.joined) {
+            return notificationFanout.signupAdded(change.eventKey, snapshot, details.getUserName(),
+                details.getCharacterName(), details.getJob(), details.getLevel());
+        }
+        return notificationFanout.signupCancelled(change.eventKey, snapshot, details.getUserName(),
+            details.getCharacterName());
+    }
+
+    private CompletableFuture<Boolean> sendBatch(RosterSnapshot snapshot, List<Change> changes, Map<Long, SignupWithDetails> byCharacter) {
+        Map<String, String> changeLines = new LinkedHashMap<>();
+        for (Change change : changes) {
+            SignupWithDetails details = byCharacter.get(change.characterId);
+            changeLines.put(change.eventKey, details == null ? null : (change.joined ? "✅ " : "❌ ")
+                + details.getCharacterName() + " (" + details.getUserName() + ")");
+        }
+        return notificationFanout.rosterUpdated(snapshot, changeLines);
+    }
+
+    /**
+     * One join or cancel inside a window, with the outcome of its notification.
+     */
+    private static final class Change {
+        private final String eventKey;
+        private final boolean joined;
+        private final Long characterId;
+        private final SignupWithDetails details;
+        private final CompletableFuture<Boolean> sent = new CompletableFuture<>();
+
+        private Change(String eventKey, boolean joined, Long characterId, SignupWithDetails details) {
+            this.eventKey = eventKey;
+            this.joined = joined;
+            this.characterId = characterId;
+            this.details = details;
+        }
+    }
+}
@@ -1,5 +1,7 @@
 package com.kihongan.raidsystem.domain.signup;
 
+import com.kihongan.raidsystem.metrics.OperationTimer;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.jdbc.core.RowMapper;
 import org.springframework.jdbc.support.GeneratedKeyHolder;
@@ -12,6 +14,7 @@ import java.sql.Statement;
 import java.sql.Timestamp;
 import java.time.Instant;
 import java.util.List;
+import java.util.Locale;
 
 /**
  * Repository for Signup entity using JDBC.
@@ -21,9 +24,11 @@ import java.util.List;
 public class SignupRepository {
     
     private final JdbcTemplate jdbcTemplate;
+    private final OperationTimer dbTimer;
     
-    public SignupRepository(JdbcTemplate jdbcTemplate) {
+    public SignupRepository(JdbcTemplate jdbcTemplate, MeterRegistry meterRegistry) {
         this.jdbcTemplate = jdbcTemplate;
+        this.dbTimer = new OperationTimer(meterRegistry, "raid.db.operation", "repository", "signup");
     }
     
     private final RowMapper<Signup> signupRowMapper = (rs, rowNum) -> {
@@ -72,14 +77,14 @@ public class SignupRepository {
         signup.setCreatedAt(now);
         
         KeyHolder keyHolder = new GeneratedKeyHolder();
-        jdbcTemplate.update(connection -> {
+        dbTimer.record("save", () -> jdbcTemplate.update(connection -> {
             PreparedStatement ps = connection.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS);
             ps.setLong(1, signup.getRaidId());
             ps.setLong(2, signup.getCharacterId());
             ps.setString(3, signup.getStatus());
             ps.setTimestamp(4, Timestamp.from(signup.getCreatedAt()));
             return ps;
-        }, keyHolder);
+        }, keyHolder));
         
         // PostgreSQL returns all columns, so we need to get the 'id' specifically
         Number key = (Number) keyHolder.getKeys().get("id");
@@ -87,6 +92,85 @@ public class SignupRepository {
         return signup;
     }
     
+    /**
+     * Inserts a signup only if every signup rule holds, in one short transaction.
+     * Locks the raid row first, so concurrent signups for the same raid are
+     * serialized and can never exceed the capacity. All rules (character exists
+     * and is owned by the user, no duplicate, capacity) are then evaluated by a
+     * single query before the insert; it runs after the lock is held, so it sees
+     * every signup committed by the transaction that held the lock before.
+     * Timed with the attempt outcome (created, raid_full, ...) as the outcome tag.
+     */
+    @Transactional
+    public SignupAttempt saveIfAllowed(Long userId, Long raidId, Long characterId, int capacity) {
+        long start = System.nanoTime();
+        SignupAttempt attempt = null;
+        try {
+            attempt = checkAndInsert(userId, raidId, characterId, capacity);
+            return attempt;
+        } finally {
+            String outcome = attempt != null
+                    ? attempt.getOutcome().name().toLowerCase(Locale.ROOT)
+                    : OperationTimer.ERROR;
+            dbTimer.record("saveIfAllowed", outcome, System.nanoTime() - start);
+        }
+    }
+    
+    private SignupAttempt checkAndInsert(Long userId, Long raidId, Long characterId, int capacity) {
+        // A statement sees the data as of when it started, so count in a new one once locked
+        List<Long> locked = jdbcTemplate.queryForList(
+                "SELECT id FROM raids WHERE id = ? FOR UPDATE", Long.class, raidId);
+        if (locked.isEmpty()) {
+            return SignupAttempt.rejected(SignupAttempt.Outcome.RAID_NOT_FOUND, 0);
+        }
+        
+        String sql = """
+                SELECT
+                    r.id,
+                    (SELECT c.user_id FROM characters c WHERE c.id = ?) as character_user_id,
+                    (SELECT COUNT(*) FROM raid_signups s WHERE s.raid_id = r.id AND s.character_id = ?) as duplicate_count,
+                    (SELECT COUNT(*) FROM raid_signups s WHERE s.raid_id = r.id) as signup_count
+                FROM raids r
+                WHERE r.id = ?
+                """;
+        
+        List<SignupAttempt> checks = jdbcTemplate.query(sql, (rs, rowNum) -> {
+            int signupCount = rs.getInt("signup_count");
+            
+            Object characterUserId = rs.getObject("character_user_id");
+            if (characterUserId == null) {
+                return SignupAttempt.rejected(SignupAttempt.Outcome.CHARACTER_NOT_FOUND, signupCount);
+            }
+            if (((Number) characterUserId).longValue() != userId) {
+                return SignupAttempt.rejected(SignupAttempt.Outcome.NOT_CHARACTER_OWNER, signupCount);
+            }
+            if (rs.getInt("duplicate_count") > 0) {
+                return SignupAttempt.rejected(SignupAttempt.Outcome.ALREADY_SIGNED_UP, signupCount);
+            }
+            if (signupCount >= capacity) {
+                return SignupAttempt.rejected(SignupAttempt.Outcome.RAID_FULL, signupCount);
+            }
+            return SignupAttempt.created(null, signupCount);
+        }, characterId, characterId, raidId);
+        
+        if (checks.isEmpty()) {
+            return SignupAttempt.rejected(SignupAttempt.Outcome.RAID_NOT_FOUND, 0);
+        }
+        
+        SignupAttempt check = checks.get(0);
+        if (check.getOutcome() != SignupAttempt.Outcome.CREATED) {
+            return check;
+        }
+        
+        Signup signup = new Signup();
+        signup.setRaidId(raidId);
+        signup.setCharacterId(characterId);
+        signup.setStatus("confirmed");
+        
+        save(signup);
+        return SignupAttempt.created(signup, check.getSignupCount() + 1);
+    }
+    
     /**
      * Finds all signups for a raid with complete character and user details.
      */
@@ -109,7 +193,7 @@ public class SignupRepository {
                 ORDER BY rs.created_at ASC
                 """;
         
-        return jdbcTemplate.query(sql, signupWithDetailsRowMapper, raidId);
+        return dbTimer.record("findByRaidIdWithDetails", () -> jdbcTemplate.query(sql, signupWithDetailsRowMapper, raidId));
     }
     
     /**
@@ -117,7 +201,7 @@ public class SignupRepository {
      */
     public boolean existsByRaidIdAndCharacterId(Long raidId, Long characterId) {
         String sql = "SELECT COUNT(*) FROM raid_signups WHERE raid_id = ? AND character_id = ?";
-        Integer count = jdbcTemplate.queryForObject(sql, Integer.class, raidId, characterId);
+        Integer count = dbTimer.record("existsByRaidIdAndCharacterId", () -> jdbcTemplate.queryForObject(sql, Integer.class, raidId, characterId));
         return count != null && count > 0;
     }
     
@@ -127,7 +211,7 @@ public class SignupRepository {
     @Transactional
     public void deleteByRaidId(Long raidId) {
         String sql = "DELETE FROM raid_signups WHERE raid_id = ?";
-        jdbcTemplate.update(sql, raidId);
+        dbTimer.record("deleteByRaidId", () -> jdbcTemplate.update(sql, raidId));
     }
     
     /**
@@ -135,6 +219,6 @@ public class SignupRepository {
      */
     public void deleteById(Long id) {
         String sql = "DELETE FROM raid_signups WHERE id = ?";
-        jdbcTemplate.update(sql, id);
+        dbTimer.record("deleteById", () -> jdbcTemplate.update(sql, id));
     }
 }
@@ -1,15 +1,16 @@
 package com.kihongan.raidsystem.domain.signup;
 
-import com.kihongan.raidsystem.domain.character.Character;
-import com.kihongan.raidsystem.domain.character.CharacterRepository;
+import com.kihongan.raidsystem.domain.notification.NotificationOutbox;
 import com.kihongan.raidsystem.domain.raid.Raid;
+import com.kihongan.raidsystem.domain.raid.RaidBoardCache;
+import com.kihongan.raidsystem.domain.raid.RaidBoardEvent;
 import com.kihongan.raidsystem.domain.raid.RaidRepository;
 import com.kihongan.raidsystem.exception.AuthorizationException;
 import com.kihongan.raidsystem.exception.NotFoundException;
 import com.kihongan.raidsystem.exception.ValidationException;
-import com.kihongan.raidsystem.service.DiscordWebhookService;
-import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.util.List;
 
@@ -17,95 +18,67 @@ import java.util.List;
 public class SignupService {
     
     private final SignupRepository signupRepository;
-    private final CharacterRepository characterRepository;
     private final RaidRepository raidRepository;
-    private final DiscordWebhookService discordWebhookService;
-    private final JdbcTemplate jdbcTemplate;
+    private final RaidBoardCache raidBoardCache;
+    private final ApplicationEventPublisher eventPublisher;
+    private final SignupAdmissionController signupAdmissionController;
+    private final NotificationOutbox notificationOutbox;
+    private final TransactionTemplate transactionTemplate;
     
     public SignupService(SignupRepository signupRepository,
-                        CharacterRepository characterRepository,
                         RaidRepository raidRepository,
-                        DiscordWebhookService discordWebhookService,
-                        JdbcTemplate jdbcTemplate) {
+                        RaidBoardCache raidBoardCache,
+                        ApplicationEventPublisher eventPublisher,
+                        SignupAdmissionController signupAdmissionController,
+                        NotificationOutbox notificationOutbox,
+                        TransactionTemplate transactionTemplate) {
         this.signupRepository = signupRepository;
-        this.characterRepository = characterRepository;
         this.raidRepository = raidRepository;
-        this.discordWebhookService = discordWebhookService;
-        this.jdbcTemplate = jdbcTemplate;
+        this.raidBoardCache = raidBoardCache;
+        this.eventPublisher = eventPublisher;
+        this.signupAdmissionController = signupAdmissionController;
+        this.notificationOutbox = notificationOutbox;
+        this.transactionTemplate = transactionTemplate;
     }
     
     /**
      * Creates a signup with validation.
      */
     public Signup createSignup(Long userId, Long raidId, Long characterId) {
-        return createSignupInternal(userId, raidId, characterId, true);
-    }
-    
-    /**
-     * Creates a signup without notification (for auto-signup when creating raid).
-     */
-    public Signup createSignupWithoutNotification(Long userId, Long raidId, Long characterId) {
-        return createSignupInternal(userId, raidId, characterId, false);
-    }
-    
-    /**
-     * Internal method to create signup with optional notification.
-     */
-    private Signup createSignupInternal(Long userId, Long raidId, Long characterId, boolean sendNotification) {
-        // Validate raid exists
-        validateRaidExists(raidId);
-        
-        // Validate character exists
-        Character character = characterRepository.findById(characterId)
-                .orElseThrow(() -> new NotFoundException("Character not found"));
-        
-        // Validate character ownership
-        validateCharacterOwnership(userId, characterId);
-        
-        // Validate no duplicate signup
-        validateNoDuplicateSignup(raidId, characterId);
-        
-        // Validate raid capacity (max 6 people)
-        validateRaidCapacity(raidId);
-        
-        // Create signup
-        Signup signup = new Signup();
-        signup.setRaidId(raidId);
-        signup.setCharacterId(characterId);
-        signup.setStatus("confirmed");
-        
-        Signup savedSignup = signupRepository.save(signup);
+        // Validate and insert in one locked round trip (raid exists, ownership, duplicate, capacity),
+        // queued per raid in memory so bursts never pile up on DB connections.
+        // The notification is written to the outbox in the same transaction.
+        SignupAttempt attempt = signupAdmissionController.admitSignup(raidId,
+                () -> transactionTemplate.execute(status -> {
+                    SignupAttempt result = signupRepository.saveIfAllowed(userId, raidId, characterId, Raid.MAX_PARTICIPANTS);
+                    if (result.getOutcome() == SignupAttempt.Outcome.CREATED) {
+                        notificationOutbox.signupAdded(raidId, result.getSignup().getId(), characterId);
+                    }
+                    return result;
+                }));
+        validateSignupAttempt(attempt);
         
-        // Send Discord notification for signup
-        if (sendNotification) {
-            try {
-                Raid raid = raidRepository.findById(raidId).orElseThrow();
-                String userName = jdbcTemplate.queryForObject(
-                    "SELECT name FROM users WHERE id = ?", String.class, userId);
-                String creatorName = jdbcTemplate.queryForObject(
-                    "SELECT name FROM users WHERE id = ?", String.class, raid.getCreatedBy());
-                List<SignupWithDetails> currentSignups = signupRepository.findByRaidIdWithDetails(raidId);
-                List<String> memberList = currentSignups.stream()
-                    .map(s -> s.getCharacterName() + " (" + (s.getJob() != null ? s.getJob() : "未設定") + ")")
-                    .collect(java.util.stream.Collectors.toList());
-                
-                discordWebhookService.sendSignupNotification(
-                    raid.getTitle(), userName, character.getName(),
-                    character.getJob(), character.getLevel(),
-                    currentSignups.size(), 6, creatorName, memberList);
-            } catch (Exception e) {
-                System.err.println("Failed to send Discord signup notification: " + e.getMessage());
-            }
-        }
+        Signup savedSignup = attempt.getSignup();
+        raidBoardCache.invalidateRaid(raidId);
+        eventPublisher.publishEvent(RaidBoardEvent.signupAdded(raidId, attempt.getSignupCount()));
         
         return savedSignup;
     }
     
     /**
      * Gets all signups for a raid with complete details.
+     * Served from the in-memory roster cache while the raid's signups are unchanged.
      */
     public List<SignupWithDetails> getRaidSignups(Long raidId) {
-        return signupRepository.findByRaidIdWithDetails(raidId);
+        return raidBoardCache.getRoster(raidId,
+                () -> List.copyOf(signupRepository.findByRaidIdWithDetails(raidId))).getValue();
+    }
+    
+    /**
+     * Gets the current roster version of a raid (changes whenever its signups may change).
+     */
+    public long getRaidSignupsVersion(Long raidId) {
+        return raidBoardCache.getRosterVersion(raidId);
     }
     
     /**
@@ -115,42 +88,46 @@ public class SignupService {
         // Validate raid exists
         validateRaidExists(raidId);
         
-        // Find user's signup for this raid
-        List<SignupWithDetails> signups = signupRepository.findByRaidIdWithDetails(raidId);
-        SignupWithDetails userSignup = signups.stream()
+        // Find and delete user's signup, serialized with signups for the same raid;
+        // the notification is written to the outbox in the same transaction
+        List<SignupWithDetails> signups = signupAdmissionController.runExclusive(raidId, () -> {
+            List<SignupWithDetails> current = transactionTemplate.execute(status -> {
+                List<SignupWithDetails> roster = signupRepository.findByRaidIdWithDetails(raidId);
+                SignupWithDetails own = findUserSignup(roster, userId);
+                signupRepository.deleteById(own.getSignupId());
+                notificationOutbox.signupCancelled(raidId, own);
+                return roster;
+            });
+            signupAdmissionController.recordSignupCount(raidId, current.size() - 1);
+            return current;
+        });
+        raidBoardCache.invalidateRaid(raidId);
+        eventPublisher.publishEvent(RaidBoardEvent.signupCancelled(raidId, signups.size() - 1));
+    }
+    
+    private SignupWithDetails findUserSignup(List<SignupWithDetails> signups, Long userId) {
+        return signups.stream()
                 .filter(s -> s.getUserId().equals(userId))
                 .findFirst()
                 .orElseThrow(() -> new NotFoundException("You have not signed up for this raid"));
-        
-        // Delete the signup
-        signupRepository.deleteById(userSignup.getSignupId());
-        
-        // Send Discord notification for cancel
-        try {
-            Raid raid = raidRepository.findById(raidId).orElseThrow();
-            String creatorName = jdbcTemplate.queryForObject(
-                "SELECT name FROM users WHERE id = ?", String.class, raid.getCreatedBy());
-            
-            discordWebhookService.sendCancelSignupNotification(
-                raid.getTitle(), userSignup.getUserName(),
-                userSignup.getCharacterName(),
-                signups.size() - 1, 6, creatorName);
-        } catch (Exception e) {
-            System.err.println("Failed to send Discord cancel notification: " + e.getMessage());
-        }
     }
     
     // Validation helpers
     
-    private void validateCharacterOwnership(Long userId, Long characterId) {
-        if (!characterRepository.existsByIdAndUserId(characterId, userId)) {
-            throw new AuthorizationException("You can only sign up with your own characters");
-        }
-    }
-    
-    private void validateNoDuplicateSignup(Long raidId, Long characterId) {
-        if (signupRepository.existsByRaidIdAndCharacterId(raidId, characterId)) {
-            throw new ValidationException("Character is already signed up for this raid");
+    private void validateSignupAttempt(SignupAttempt attempt) {
+        switch (attempt.getOutcome()) {
+            case RAID_NOT_FOUND:
+                throw new NotFoundException("Raid not found");
+            case CHARACTER_NOT_FOUND:
+                throw new NotFoundException("Character not found");
+            case NOT_CHARACTER_OWNER:
+                throw new AuthorizationException("You can only sign up with your own characters");
+            case ALREADY_SIGNED_UP:
+                throw new ValidationException("Character is already signed up for this raid");
+            case RAID_FULL:
+                throw new ValidationException("Raid is full (maximum 6 participants)");
+            default:
+                break;
         }
     }
     
@@ -159,11 +136,4 @@ public class SignupService {
             throw new NotFoundException("Raid not found");
         }
     }
-    
-    private void validateRaidCapacity(Long raidId) {
-        List<SignupWithDetails> currentSignups = signupRepository.findByRaidIdWithDetails(raidId);
-        if (currentSignups.size() >= 6) {
-            throw new ValidationException("Raid is full (maximum 6 participants)");
-        }
-    }
 }
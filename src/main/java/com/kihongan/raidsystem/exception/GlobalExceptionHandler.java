@@ -1,5 +1,9 @@
 package com.kihongan.raidsystem.exception;
 
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.MethodArgumentNotValidException;
@@ -17,6 +21,14 @@ import java.util.stream.Collectors;
 @RestControllerAdvice
 public class GlobalExceptionHandler {
     
+    private static final Logger log = LoggerFactory.getLogger(GlobalExceptionHandler.class);
+    
+    private final MeterRegistry meterRegistry;
+    
+    public GlobalExceptionHandler(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+    
     /**
      * Handles validation exceptions (400 Bad Request)
      */
@@ -66,6 +78,17 @@ public class GlobalExceptionHandler {
         return ResponseEntity.status(HttpStatus.NOT_FOUND).body(error);
     }
     
+    /**
+     * Handles too many requests exceptions (429 Too Many Requests)
+     */
+    @ExceptionHandler(TooManyRequestsException.class)
+    public ResponseEntity<Map<String, Object>> handleTooManyRequestsException(TooManyRequestsException ex) {
+        Map<String, Object> error = new HashMap<>();
+        error.put("error", "Too many requests");
+        error.put("message", ex.getMessage());
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS).body(error);
+    }
+    
     /**
      * Handles illegal state exceptions (401 Unauthorized)
      */
@@ -89,7 +112,11 @@ public class GlobalExceptionHandler {
         error.put("error", "Internal server error");
         error.put("message", "An unexpected error occurred");
         // Log the full exception for debugging
-        ex.printStackTrace();
+        log.error("Unhandled exception", ex);
+        Counter.builder("raid.http.unhandled")
+                .tag("exception", ex.getClass().getSimpleName())
+                .register(meterRegistry)
+                .increment();
         return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(error);
     }
 }
@@ -0,0 +1,15 @@
+package com.kihongan.raidsystem.exception;
+
+/**
+ * Exception thrown when a request is rejected because the server is busy.
+ */
+public class TooManyRequestsException extends RuntimeException {
+    
+    public TooManyRequestsException(String message) {
+        super(message);
+    }
+    
+    public TooManyRequestsException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,79 @@
+package com.kihongan.raidsystem.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Micrometer timer family for one component, tagged by operation and outcome.
+ * Timers are resolved once per (operation, outcome) and reused, so recording
+ * on a hot path costs a map lookup plus the timer update.
+ */
+public class OperationTimer {
+
+    public static final String SUCCESS = "success";
+    public static final String ERROR = "error";
+
+    private final MeterRegistry registry;
+    private final String name;
+    private final Tags baseTags;
+    private final ConcurrentHashMap<String, Timer> timers = new ConcurrentHashMap<>();
+
+    /**
+     * @param registry meter registry
+     * @param name metric name (e.g. "raid.db.operation")
+     * @param baseTags tag key/value pairs shared by every timer of this component
+     */
+    public OperationTimer(MeterRegistry registry, String name, String... baseTags) {
+        this.registry = registry;
+        this.name = name;
+        this.baseTags = Tags.of(baseTags);
+    }
+
+    /**
+     * Times an action; the outcome is "success", or "error" if it throws.
+     */
+    public <T> T record(String operation, Supplier<T> action) {
+        long start = System.nanoTime();
+        String outcome = ERROR;
+        try {
+            T result = action.get();
+            outcome = SUCCESS;
+            return result;
+        } finally {
+            record(operation, outcome, System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * Times an action without a result.
+     */
+    public void run(String operation, Runnable action) {
+        record(operation, () -> {
+            action.run();
+            return null;
+        });
+    }
+
+    /**
+     * Records an already measured duration with an explicit outcome.
+     */
+    public void record(String operation, String outcome, long durationNanos) {
+        timer(operation, outcome).record(durationNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Returns the timer for an operation and outcome.
+     */
+    public Timer timer(String operation, String outcome) {
+        return timers.computeIfAbsent(operation + '|' + outcome, key -> Timer.builder(name)
+                .tags(baseTags)
+                .tag("operation", operation)
+                .tag("outcome", outcome)
+                .register(registry));
+    }
+}
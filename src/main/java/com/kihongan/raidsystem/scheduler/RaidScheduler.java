@@ -1,9 +1,10 @@
 package com.kihongan.raidsystem.scheduler;
 
-import com.kihongan.raidsystem.domain.raid.RaidRepository;
-import com.kihongan.raidsystem.domain.signup.SignupRepository;
+import com.kihongan.raidsystem.domain.raid.RaidBoardCache;
+import com.kihongan.raidsystem.domain.raid.RaidBoardEvent;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
@@ -19,9 +20,14 @@ public class RaidScheduler {
     private static final Logger logger = LoggerFactory.getLogger(RaidScheduler.class);
     
     private final JdbcTemplate jdbcTemplate;
+    private final RaidBoardCache raidBoardCache;
+    private final ApplicationEventPublisher eventPublisher;
     
-    public RaidScheduler(JdbcTemplate jdbcTemplate) {
+    public RaidScheduler(JdbcTemplate jdbcTemplate, RaidBoardCache raidBoardCache,
+                         ApplicationEventPublisher eventPublisher) {
         this.jdbcTemplate = jdbcTemplate;
+        this.raidBoardCache = raidBoardCache;
+        this.eventPublisher = eventPublisher;
     }
     
     /**
@@ -51,6 +57,9 @@ public class RaidScheduler {
             int raidsDeleted = jdbcTemplate.update("DELETE FROM raids");
             logger.info("Deleted {} raids", raidsDeleted);
             
+            raidBoardCache.invalidateAll();
+            eventPublisher.publishEvent(RaidBoardEvent.boardReset());
+            
             logger.info("Weekly raid cleanup completed successfully");
             
         } catch (Exception e) {
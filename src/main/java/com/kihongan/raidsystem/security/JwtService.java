@@ -1,8 +1,11 @@
 package com.kihongan.raidsystem.security;
 
+import com.kihongan.raidsystem.metrics.OperationTimer;
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.ExpiredJwtException;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
@@ -18,24 +21,38 @@ import java.util.Date;
 public class JwtService {
     
     private final SecretKey secretKey;
+    private final OperationTimer jwtTimer;
     
-    public JwtService(@Value("${app.jwt.secret}") String secret) {
+    public JwtService(@Value("${app.jwt.secret}") String secret, MeterRegistry meterRegistry) {
         this.secretKey = Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8));
+        this.jwtTimer = new OperationTimer(meterRegistry, "raid.jwt");
     }
     
     /**
      * Validates JWT token signature and expiration.
+     * Timed as raid.jwt{operation=validate} with outcome valid, expired or invalid.
      * 
      * @param token JWT token string
      * @return Claims object containing token payload
      * @throws io.jsonwebtoken.JwtException if token is invalid or expired
      */
     public Claims validateToken(String token) {
-        return Jwts.parser()
-                .verifyWith(secretKey)
-                .build()
-                .parseSignedClaims(token)
-                .getPayload();
+        long start = System.nanoTime();
+        String outcome = "invalid";
+        try {
+            Claims claims = Jwts.parser()
+                    .verifyWith(secretKey)
+                    .build()
+                    .parseSignedClaims(token)
+                    .getPayload();
+            outcome = "valid";
+            return claims;
+        } catch (ExpiredJwtException e) {
+            outcome = "expired";
+            throw e;
+        } finally {
+            jwtTimer.record("validate", outcome, System.nanoTime() - start);
+        }
     }
     
     /**
@@ -0,0 +1,122 @@
+package com.kihongan.raidsystem.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.LongSupplier;
+
+/**
+ * Consecutive-failure circuit breaker.
+ *
+ * Closed: calls go through; {@code failureThreshold} failures in a row open it.
+ * Open: calls are refused until {@code openMs} has passed, then one probe call is let
+ * through (half-open). The probe's success closes the breaker, its failure opens it
+ * again for another {@code openMs}.
+ *
+ * Metrics: gauge {@code raid.notification.breaker.state{breaker}} (0 closed,
+ * 1 half-open, 2 open) and counter {@code raid.notification.breaker.transitions{breaker,to}}.
+ */
+public class CircuitBreaker {
+
+    private static final Logger log = LoggerFactory.getLogger(CircuitBreaker.class);
+
+    public enum State {
+        CLOSED, HALF_OPEN, OPEN
+    }
+
+    private final String name;
+    private final int failureThreshold;
+    private final long openMs;
+    private final LongSupplier clock;
+    private final Map<State, Counter> transitions = new EnumMap<>(State.class);
+
+    private State state = State.CLOSED;
+    private int consecutiveFailures;
+    private long openedAt;
+    private boolean probeInFlight;
+
+    public CircuitBreaker(String name, int failureThreshold, long openMs, MeterRegistry meterRegistry) {
+        this(name, failureThreshold, openMs, System::currentTimeMillis, meterRegistry);
+    }
+
+    CircuitBreaker(String name, int failureThreshold, long openMs, LongSupplier clock, MeterRegistry meterRegistry) {
+        this.name = name;
+        this.failureThreshold = failureThreshold;
+        this.openMs = openMs;
+        this.clock = clock;
+        for (State to : State.values()) {
+            transitions.put(to, Counter.builder("raid.notification.breaker.transitions")
+                    .tag("breaker", name)
+                    .tag("to", to.name().toLowerCase(Locale.ROOT))
+                    .register(meterRegistry));
+        }
+        Gauge.builder("raid.notification.breaker.state", this, breaker -> breaker.getState().ordinal())
+                .tag("breaker", name)
+                .description("0 closed, 1 half-open, 2 open")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Asks to make a call. Every granted call must be followed by
+     * {@link #onSuccess()}, {@link #onFailure()} or, if it was not made, {@link #release()}.
+     */
+    public synchronized boolean tryAcquire() {
+        switch (state) {
+            case CLOSED:
+                return true;
+            case OPEN:
+                if (clock.getAsLong() - openedAt < openMs) {
+                    return false;
+                }
+                transition(State.HALF_OPEN);
+                probeInFlight = true;
+                return true;
+            default:
+                if (probeInFlight) {
+                    return false;
+                }
+                probeInFlight = true;
+                return true;
+        }
+    }
+
+    public synchronized void onSuccess() {
+        consecutiveFailures = 0;
+        probeInFlight = false;
+        if (state != State.CLOSED) {
+            transition(State.CLOSED);
+        }
+    }
+
+    public synchronized void onFailure() {
+        probeInFlight = false;
+        consecutiveFailures++;
+        if (state == State.HALF_OPEN || (state == State.CLOSED && consecutiveFailures >= failureThreshold)) {
+            openedAt = clock.getAsLong();
+            transition(State.OPEN);
+        }
+    }
+
+    /**
+     * Gives back a granted call that was not made, without reporting an outcome.
+     */
+    public synchronized void release() {
+        probeInFlight = false;
+    }
+
+    public synchronized State getState() {
+        return state;
+    }
+
+    private void transition(State to) {
+        log.info("Circuit breaker {}: {} -> {}", name, state, to);
+        state = to;
+        transitions.get(to).increment();
+    }
+}
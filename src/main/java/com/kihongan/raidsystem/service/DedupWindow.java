@@ -0,0 +1,92 @@
+package com.kihongan.raidsystem.service;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.LongSupplier;
+
+/**
+ * Bounded, time-expiring set of recently seen keys.
+ *
+ * Keys are kept in insertion order with the time they were recorded, so expired keys
+ * are always at the head and are evicted there on every call; when the set is full
+ * the oldest key is evicted as well. Memory is bounded by {@code capacity} and each
+ * call costs one hash lookup plus the evictions it performs.
+ */
+public class DedupWindow {
+
+    private final int capacity;
+    private final long ttlMs;
+    private final LongSupplier clock;
+    private final LinkedHashMap<String, Long> seen = new LinkedHashMap<>();
+
+    public DedupWindow(int capacity, long ttlMs) {
+        this(capacity, ttlMs, System::currentTimeMillis);
+    }
+
+    DedupWindow(int capacity, long ttlMs, LongSupplier clock) {
+        this.capacity = capacity;
+        this.ttlMs = ttlMs;
+        this.clock = clock;
+    }
+
+    /**
+     * Records the key.
+     *
+     * @return false if it was already recorded within the time-to-live
+     */
+    public synchronized boolean firstSeen(String key) {
+        long now = clock.getAsLong();
+        evictExpired(now);
+        if (seen.containsKey(key)) {
+            return false;
+        }
+        record(key, now);
+        return true;
+    }
+
+    /**
+     * Whether the key was recorded within the time-to-live.
+     */
+    public synchronized boolean contains(String key) {
+        evictExpired(clock.getAsLong());
+        return seen.containsKey(key);
+    }
+
+    /**
+     * Records the key, restarting its time-to-live if it was already present.
+     */
+    public synchronized void remember(String key) {
+        long now = clock.getAsLong();
+        evictExpired(now);
+        seen.remove(key);
+        record(key, now);
+    }
+
+    /**
+     * Forgets the key, so it counts as first seen again.
+     */
+    public synchronized void forget(String key) {
+        seen.remove(key);
+    }
+
+    public synchronized int size() {
+        return seen.size();
+    }
+
+    private void record(String key, long now) {
+        seen.put(key, now);
+        if (seen.size() > capacity) {
+            Iterator<String> oldest = seen.keySet().iterator();
+            oldest.next();
+            oldest.remove();
+        }
+    }
+
+    private void evictExpired(long now) {
+        Iterator<Map.Entry<String, Long>> entries = seen.entrySet().iterator();
+        while (entries.hasNext() && now - entries.next().getValue() >= ttlMs) {
+            entries.remove();
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package com.kihongan.raidsystem.service;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A Discord webhook embed: title, color, optional description and fields.
+ * Every embed we send carries the same footer, which the encoder adds.
+ */
+public class DiscordEmbed {
+
+    private static final Field SPACER = new Field("\u200b", "\u200b", true);
+
+    private final String title;
+    private final int color;
+    private final String description;
+    private final List<Field> fields = new ArrayList<>(8);
+
+    public DiscordEmbed(String title, int color) {
+        this(title, color, null);
+    }
+
+    public DiscordEmbed(String title, int color, String description) {
+        this.title = title;
+        this.color = color;
+        this.description = description;
+    }
+
+    /**
+     * Adds a field and returns this embed.
+     */
+    public DiscordEmbed field(String name, String value, boolean inline) {
+        fields.add(new Field(name, value, inline));
+        return this;
+    }
+
+    /**
+     * Adds an empty inline field to push the next ones to a new column.
+     */
+    public DiscordEmbed spacer() {
+        fields.add(SPACER);
+        return this;
+    }
+
+    // Getters
+
+    public String getTitle() {
+        return title;
+    }
+
+    public int getColor() {
+        return color;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    public List<Field> getFields() {
+        return Collections.unmodifiableList(fields);
+    }
+
+    /**
+     * One name/value field of an embed.
+     */
+    public static class Field {
+        private final String name;
+        private final String value;
+        private final boolean inline;
+
+        public Field(String name, String value, boolean inline) {
+            this.name = name;
+            this.value = value;
+            this.inline = inline;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public String getValue() {
+            return value;
+        }
+
+        public boolean isInline() {
+            return inline;
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package com.kihongan.raidsystem.service;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.SerializableString;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.core.util.ByteArrayBuilder;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+/**
+ * Encodes Discord webhook payloads straight to UTF-8 bytes with a streaming generator.
+ *
+ * Property names, the footer object and mention strings are {@link SerializedString}s,
+ * so their quoted UTF-8 form is computed once and copied as-is. Each thread encodes into
+ * its own reusable buffer; the result is copied out once, sized exactly, so it can be
+ * kept for retries and handed to {@code BodyPublishers.ofByteArray}.
+ */
+public final class DiscordPayloadEncoder {
+
+    private static final SerializedString CONTENT = new SerializedString("content");
+    private static final SerializedString EMBEDS = new SerializedString("embeds");
+    private static final SerializedString TITLE = new SerializedString("title");
+    private static final SerializedString COLOR = new SerializedString("color");
+    private static final SerializedString DESCRIPTION = new SerializedString("description");
+    private static final SerializedString FIELDS = new SerializedString("fields");
+    private static final SerializedString NAME = new SerializedString("name");
+    private static final SerializedString VALUE = new SerializedString("value");
+    private static final SerializedString INLINE = new SerializedString("inline");
+    private static final SerializedString FOOTER = new SerializedString("footer");
+    private static final SerializedString FOOTER_VALUE = new SerializedString("{\"text\":\"KiHongan 遠征報名系統\"}");
+
+    private static final ThreadLocal<ByteArrayBuilder> BUFFER = ThreadLocal.withInitial(() -> new ByteArrayBuilder(2048));
+
+    private final JsonFactory jsonFactory = new JsonFactory();
+
+    /**
+     * Returns the payload {@code {"content": mention, "embeds": [embed]}}.
+     *
+     * @param mention message text outside the embed, or null for none
+     */
+    public byte[] encode(SerializableString mention, DiscordEmbed embed) {
+        ByteArrayBuilder buffer = BUFFER.get();
+        buffer.reset();
+        try (JsonGenerator generator = jsonFactory.createGenerator(buffer)) {
+            generator.writeStartObject();
+            if (mention != null) {
+                generator.writeFieldName(CONTENT);
+                generator.writeString(mention);
+            }
+            generator.writeFieldName(EMBEDS);
+            generator.writeStartArray();
+            writeEmbed(generator, embed);
+            generator.writeEndArray();
+            generator.writeEndObject();
+        } catch (IOException e) {
+            // Writing to an in-memory buffer does not fail
+            throw new UncheckedIOException(e);
+        }
+        return buffer.toByteArray();
+    }
+
+    private static void writeEmbed(JsonGenerator generator, DiscordEmbed embed) throws IOException {
+        generator.writeStartObject();
+        generator.writeFieldName(TITLE);
+        generator.writeString(embed.getTitle());
+        generator.writeFieldName(COLOR);
+        generator.writeNumber(embed.getColor());
+        if (embed.getDescription() != null) {
+            generator.writeFieldName(DESCRIPTION);
+            generator.writeString(embed.getDescription());
+        }
+        generator.writeFieldName(FIELDS);
+        generator.writeStartArray();
+        for (DiscordEmbed.Field field : embed.getFields()) {
+            generator.writeStartObject();
+            generator.writeFieldName(NAME);
+            generator.writeString(field.getName());
+            generator.writeFieldName(VALUE);
+            generator.writeString(field.getValue());
+            generator.writeFieldName(INLINE);
+            generator.writeBoolean(field.isInline());
+            generator.writeEndObject();
+        }
+        generator.writeEndArray();
+        generator.writeFieldName(FOOTER);
+        generator.writeRawValue(FOOTER_VALUE);
+        generator.writeEndObject();
+    }
+}
@@ -0,0 +1,145 @@
+package com.kihongan.raidsystem.service;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.net.http.HttpHeaders;
+import java.util.OptionalDouble;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * Shared token-bucket governor for Discord webhook calls.
+ *
+ * Every call reserves a token first; when none is left the caller is told how long
+ * to wait instead of sending and bouncing off a 429. The bucket starts from a local
+ * estimate (burst / refill period) and is corrected from the X-RateLimit-Remaining and
+ * X-RateLimit-Reset-After headers of every response, whether it came directly from
+ * Discord or through the proxy. A 429 blocks the whole bucket until its retry time.
+ */
+@Component
+public class DiscordRateLimiter {
+
+    private final int burst;
+    private final long refillPeriodNanos;
+    private final LongSupplier clock;
+
+    private double tokens;
+    private long lastRefillNanos;
+    private long blockedUntilNanos;
+
+    @Autowired
+    public DiscordRateLimiter(
+            @Value("${discord.rate-limit.burst:5}") int burst,
+            @Value("${discord.rate-limit.period-ms:2000}") long periodMs,
+            MeterRegistry meterRegistry) {
+        this(burst, periodMs, System::nanoTime);
+        Gauge.builder("raid.notification.discord.tokens", this, DiscordRateLimiter::availableTokens)
+                .description("Discord webhook calls that can be made right now")
+                .register(meterRegistry);
+    }
+
+    DiscordRateLimiter(int burst, long periodMs, LongSupplier clock) {
+        this.burst = burst;
+        this.refillPeriodNanos = TimeUnit.MILLISECONDS.toNanos(periodMs);
+        this.clock = clock;
+        this.tokens = burst;
+        this.lastRefillNanos = clock.getAsLong();
+    }
+
+    /**
+     * Takes a token if one is available.
+     *
+     * @return 0 if the call may go out now, otherwise the milliseconds to wait before asking again
+     */
+    public synchronized long reserve() {
+        long now = clock.getAsLong();
+        if (now < blockedUntilNanos) {
+            return toMillisRoundedUp(blockedUntilNanos - now);
+        }
+
+        refill(now);
+        if (tokens >= 1) {
+            tokens -= 1;
+            return 0;
+        }
+        long nanosPerToken = refillPeriodNanos / burst;
+        return toMillisRoundedUp((long) ((1 - tokens) * nanosPerToken));
+    }
+
+    /**
+     * Corrects the bucket from the rate-limit headers of a response.
+     */
+    public synchronized void update(HttpHeaders headers) {
+        OptionalDouble remaining = numericHeader(headers, "X-RateLimit-Remaining");
+        OptionalDouble resetAfter = numericHeader(headers, "X-RateLimit-Reset-After");
+        if (remaining.isEmpty()) {
+            return;
+        }
+
+        long now = clock.getAsLong();
+        refill(now);
+        // The server's count is authoritative; never assume more than it allows
+        tokens = Math.min(tokens, remaining.getAsDouble());
+        if (remaining.getAsDouble() < 1 && resetAfter.isPresent()) {
+            blockedUntilNanos = Math.max(blockedUntilNanos, now + secondsToNanos(resetAfter.getAsDouble()));
+            tokens = 0;
+        }
+    }
+
+    /**
+     * Blocks every call until the retry time of a 429 has passed.
+     */
+    public synchronized void penalize(long retryAfterMs) {
+        long until = clock.getAsLong() + TimeUnit.MILLISECONDS.toNanos(retryAfterMs);
+        blockedUntilNanos = Math.max(blockedUntilNanos, until);
+        tokens = 0;
+    }
+
+    synchronized double availableTokens() {
+        long now = clock.getAsLong();
+        if (now < blockedUntilNanos) {
+            return 0;
+        }
+        refill(now);
+        return tokens;
+    }
+
+    private void refill(long now) {
+        if (blockedUntilNanos != 0 && now >= blockedUntilNanos) {
+            // The server-side window has reset
+            tokens = burst;
+            blockedUntilNanos = 0;
+            lastRefillNanos = now;
+            return;
+        }
+        long elapsed = now - lastRefillNanos;
+        if (elapsed > 0) {
+            tokens = Math.min(burst, tokens + (double) elapsed * burst / refillPeriodNanos);
+        }
+        lastRefillNanos = now;
+    }
+
+    private static OptionalDouble numericHeader(HttpHeaders headers, String name) {
+        return headers.firstValue(name)
+                .map(value -> {
+                    try {
+                        return OptionalDouble.of(Double.parseDouble(value.trim()));
+                    } catch (NumberFormatException e) {
+                        return OptionalDouble.empty();
+                    }
+                })
+                .orElse(OptionalDouble.empty());
+    }
+
+    private static long secondsToNanos(double seconds) {
+        return (long) (seconds * 1_000_000_000L);
+    }
+
+    private static long toMillisRoundedUp(long nanos) {
+        return Math.max(1, (nanos + 999_999) / 1_000_000);
+    }
+}
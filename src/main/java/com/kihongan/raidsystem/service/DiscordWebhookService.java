@@ -1,198 +1,638 @@
 package com.kihongan.raidsystem.service;
 
+import com.fasterxml.jackson.core.SerializableString;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.kihongan.raidsystem.domain.notification.DiscordMessageRepository;
+import com.kihongan.raidsystem.metrics.OperationTimer;
+import com.kihongan.raidsystem.service.NotificationDispatcher.DeliveryResult;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
+import java.io.IOException;
 import java.net.URI;
 import java.net.http.HttpClient;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
-import java.util.*;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
 
 @Service
-public class DiscordWebhookService {
+public class DiscordWebhookService implements NotificationChannel {
+
+    private static final Logger log = LoggerFactory.getLogger(DiscordWebhookService.class);
+
+    private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(15);
+    private static final DateTimeFormatter TIME_FORMAT = DateTimeFormatter.ofPattern("MM/dd HH:mm");
+    private static final String[] WEEK_DAYS = {"日", "一", "二", "三", "四", "五", "六"};
+    private static final SerializableString RAID_ROLE_MENTION = new SerializedString("<@&1481614761836675072>");
+
+    private static final int COLOR_CREATED = 6717674;
+    private static final int COLOR_SIGNUP = 2600544;
+    private static final int COLOR_UPDATE = 3447003;
+    private static final int COLOR_CANCEL = 15158332;
+    private static final int COLOR_FULL = 15277667;
+
+    /** Result for messages skipped because no webhook is configured. */
+    private static final CompletableFuture<Boolean> NOT_SENT = CompletableFuture.completedFuture(false);
 
     private final String webhookUrl;
     private final String proxyUrl;
     private final String proxySecret;
     private final HttpClient httpClient;
     private final ObjectMapper objectMapper;
+    private final DiscordPayloadEncoder payloadEncoder;
+    private final OperationTimer sendTimer;
+    private final NotificationDispatcher notificationDispatcher;
+    private final DiscordRateLimiter rateLimiter;
+    private final CircuitBreaker breaker;
+    private final ArrayBlockingQueue<WebhookCall> backlog;
+    private final DiscordMessageRepository messageRepository;
+    private final DedupWindow sentKeys;
+    private final AtomicBoolean replaying = new AtomicBoolean();
+    /** The newest roster edit of each raid that has not finished yet. */
+    private final ConcurrentHashMap<Long, WebhookCall> pendingEdits = new ConcurrentHashMap<>();
+
+    private final Counter parked;
+    private final Counter backlogDropped;
+    private final Counter replayed;
+    private final Counter duplicates;
+    private final Counter supersededEdits;
 
     public DiscordWebhookService(
             @Value("${discord.webhook.url:}") String webhookUrl,
             @Value("${discord.proxy.url:}") String proxyUrl,
-            @Value("${discord.proxy.secret:kihongan-raid-2026}") String proxySecret) {
+            @Value("${discord.proxy.secret:kihongan-raid-2026}") String proxySecret,
+            MeterRegistry meterRegistry,
+            NotificationDispatcher notificationDispatcher,
+            DiscordRateLimiter rateLimiter,
+            @Value("${discord.breaker.failure-threshold:5}") int failureThreshold,
+            @Value("${discord.breaker.open-ms:30000}") long openMs,
+            @Value("${discord.breaker.backlog-capacity:100}") int backlogCapacity,
+            DiscordMessageRepository messageRepository,
+            @Value("${discord.dedup.capacity:10000}") int dedupCapacity,
+            @Value("${discord.dedup.ttl-ms:3600000}") long dedupTtlMs) {
         this.webhookUrl = webhookUrl;
         this.proxyUrl = proxyUrl;
         this.proxySecret = proxySecret;
         this.httpClient = HttpClient.newHttpClient();
         this.objectMapper = new ObjectMapper();
+        this.payloadEncoder = new DiscordPayloadEncoder();
+        // raid.notification{channel=discord, operation=send, outcome=success|rate_limited|http_error|error}
+        this.sendTimer = new OperationTimer(meterRegistry, "raid.notification", "channel", "discord");
+        this.notificationDispatcher = notificationDispatcher;
+        this.rateLimiter = rateLimiter;
+        // raid.notification.breaker.state{breaker=discord}, raid.notification.breaker.transitions{breaker=discord}
+        this.breaker = new CircuitBreaker("discord", failureThreshold, openMs, meterRegistry);
+        this.backlog = new ArrayBlockingQueue<>(backlogCapacity);
+        this.messageRepository = messageRepository;
+        this.sentKeys = new DedupWindow(dedupCapacity, dedupTtlMs);
+        this.parked = backlogCounter(meterRegistry, "parked");
+        this.backlogDropped = backlogCounter(meterRegistry, "dropped");
+        this.replayed = backlogCounter(meterRegistry, "replayed");
+        this.duplicates = Counter.builder("raid.notification.discord.duplicates")
+                .description("Discord messages skipped because their event was already delivered")
+                .register(meterRegistry);
+        this.supersededEdits = Counter.builder("raid.notification.discord.edits.superseded")
+                .description("Roster edits dropped because a newer edit of the same raid replaced them")
+                .register(meterRegistry);
+        Gauge.builder("raid.notification.discord.backlog.size", backlog, ArrayBlockingQueue::size)
+                .description("Discord notifications parked while the webhook is down")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public String name() {
+        return "discord";
     }
 
-    private boolean isEnabled() {
+    @Override
+    public boolean isEnabled() {
         return webhookUrl != null && !webhookUrl.isEmpty();
     }
 
-    public void sendRaidCreatedNotification(String raidTitle, String creatorName,
-            LocalDateTime startTime, String subtitle, String characterName,
-            String job, Integer level) {
-        if (!isEnabled()) return;
+    @Override
+    public CompletableFuture<Boolean> raidCreated(String eventKey, Long raidId, String raidTitle, String creatorName,
+                                                  LocalDateTime startTime, String subtitle,
+                                                  String characterName, String job, Integer level) {
+        return sendRaidCreatedNotification(eventKey, raidId, raidTitle, creatorName, startTime, subtitle,
+                characterName, job, level);
+    }
 
-        String timeStr = startTime.format(DateTimeFormatter.ofPattern("MM/dd HH:mm"));
-        String[] weekDays = {"日", "一", "二", "三", "四", "五", "六"};
-        String weekDay = "週" + weekDays[startTime.getDayOfWeek().getValue() % 7];
+    @Override
+    public CompletableFuture<Boolean> signupAdded(String eventKey, RosterSnapshot roster, String userName,
+                                                  String characterName, String job, Integer level) {
+        Supplier<CompletableFuture<Boolean>> post = () -> sendSignupNotification(eventKey, roster.getRaidTitle(),
+                userName, characterName, job, level,
+                roster.getCurrentCount(), roster.getMaxCount(), roster.getCreatorName(), roster.getMemberList());
+        CompletableFuture<Boolean> edit = editRosterMessage(eventKey, roster, post);
+        return edit != null ? edit : post.get();
+    }
 
-        Map<String, Object> embed = new LinkedHashMap<>();
-        embed.put("title", "⚔️ 新遠征隊建立");
-        embed.put("color", 6717674);
+    @Override
+    public CompletableFuture<Boolean> signupCancelled(String eventKey, RosterSnapshot roster, String userName,
+                                                      String characterName) {
+        Supplier<CompletableFuture<Boolean>> post = () -> sendCancelSignupNotification(eventKey, roster.getRaidTitle(),
+                userName, characterName, roster.getCurrentCount(), roster.getMaxCount(), roster.getCreatorName());
+        CompletableFuture<Boolean> edit = editRosterMessage(eventKey, roster, post);
+        return edit != null ? edit : post.get();
+    }
 
-        StringBuilder desc = new StringBuilder();
-        desc.append("## ").append(raidTitle).append("\n");
-        if (subtitle != null && !subtitle.isEmpty()) {
-            desc.append("> ").append(subtitle).append("\n");
-        }
-        embed.put("description", desc.toString());
+    @Override
+    public CompletableFuture<Boolean> rosterUpdated(String eventKey, RosterSnapshot roster, List<String> changes) {
+        Supplier<CompletableFuture<Boolean>> post = () -> sendRosterUpdateNotification(eventKey, roster.getRaidTitle(),
+                roster.getCreatorName(), changes, roster.getCurrentCount(), roster.getMaxCount(), roster.getMemberList());
+        CompletableFuture<Boolean> edit = editRosterMessage(eventKey, roster, post);
+        return edit != null ? edit : post.get();
+    }
 
-        List<Map<String, Object>> fields = new ArrayList<>();
-        fields.add(makeField("👤 建立人", creatorName + "\n\u200b", true));
-        fields.add(makeField("⏰ 時間", timeStr + " " + weekDay + "\n\u200b", true));
+    /**
+     * Posts the raid announcement. The post waits for Discord's reply (?wait=true) so
+     * the message id can be recorded and later roster changes edit this message.
+     */
+    public CompletableFuture<Boolean> sendRaidCreatedNotification(String eventKey, Long raidId, String raidTitle,
+            String creatorName, LocalDateTime startTime, String subtitle, String characterName,
+            String job, Integer level) {
+        if (!isEnabled()) return NOT_SENT;
+
+        DiscordEmbed embed = new DiscordEmbed("⚔️ 新遠征隊建立", COLOR_CREATED, raidDescription(raidTitle, subtitle))
+                .field("👤 建立人", creatorName + "\n\u200b", true)
+                .field("⏰ 時間", timeText(startTime) + "\n\u200b", true);
         if (characterName != null) {
             String jobLevel = (job != null ? job : "未設定") + (level != null ? " Lv." + level : "");
-            fields.add(makeField("\u200b", "\u200b", true)); // spacer
-            fields.add(makeField("⚔️ 參加角色", characterName + "\n\u200b", true));
-            fields.add(makeField("🎮 職業", jobLevel + "\n\u200b", true));
-            fields.add(makeField("👥 人數", "1 / 6\n\u200b", true));
+            embed.spacer()
+                    .field("⚔️ 參加角色", characterName + "\n\u200b", true)
+                    .field("🎮 職業", jobLevel + "\n\u200b", true)
+                    .field("👥 人數", "1 / 6\n\u200b", true);
         }
-        embed.put("fields", fields);
-        embed.put("footer", Map.of("text", "KiHongan 遠征報名系統"));
-        sendEmbed(embed, "<@&1481614761836675072>");
+        byte[] body = payloadEncoder.encode(RAID_ROLE_MENTION, embed);
+        return send(new WebhookCall(eventKey, "POST", "?wait=true", () -> body,
+                (statusCode, responseBody) -> rememberMessage(raidId, statusCode, responseBody), null));
     }
 
-    public void sendSignupNotification(String raidTitle, String userName,
+    public CompletableFuture<Boolean> sendSignupNotification(String eventKey, String raidTitle, String userName,
             String characterName, String job, Integer level,
             int currentCount, int maxCount, String creatorName, List<String> memberList) {
-        if (!isEnabled()) return;
+        if (!isEnabled()) return NOT_SENT;
         String jobLevel = (job != null ? job : "未設定") + (level != null ? " Lv." + level : "");
         boolean isFull = currentCount >= maxCount;
-        Map<String, Object> embed = new LinkedHashMap<>();
-        embed.put("title", isFull ? "🔴 遠征已滿員：" + raidTitle : "✅ 新成員報名：" + raidTitle);
-        embed.put("color", isFull ? 15277667 : 2600544);
-        List<Map<String, Object>> fields = new ArrayList<>();
-        fields.add(makeField("👤 玩家", userName + "\n\u200b", true));
-        fields.add(makeField("⚔️ 角色", characterName + "\n\u200b", true));
-        fields.add(makeField("🎮 職業", jobLevel + "\n\u200b", true));
-        fields.add(makeField("🎯 隊長", creatorName + "\n\u200b", true));
-        fields.add(makeField("👥 人數", currentCount + " / " + maxCount + "\n\u200b", true));
-        if (memberList != null && !memberList.isEmpty()) {
-            StringBuilder members = new StringBuilder();
-            for (int i = 0; i < memberList.size(); i++) {
-                members.append("`").append(i + 1).append("` ").append(memberList.get(i)).append("\n");
-            }
-            fields.add(makeField("📋 目前成員", members.toString().trim(), false));
-        }
-        embed.put("fields", fields);
-        embed.put("footer", Map.of("text", "KiHongan 遠征報名系統"));
-        sendEmbed(embed);
+        DiscordEmbed embed = new DiscordEmbed(
+                isFull ? "🔴 遠征已滿員：" + raidTitle : "✅ 新成員報名：" + raidTitle,
+                isFull ? COLOR_FULL : COLOR_SIGNUP)
+                .field("👤 玩家", userName + "\n\u200b", true)
+                .field("⚔️ 角色", characterName + "\n\u200b", true)
+                .field("🎮 職業", jobLevel + "\n\u200b", true)
+                .field("🎯 隊長", creatorName + "\n\u200b", true)
+                .field("👥 人數", currentCount + " / " + maxCount + "\n\u200b", true);
+        addMemberList(embed, memberList);
+        return sendEmbed(eventKey, embed, null);
     }
 
-    public void sendCancelSignupNotification(String raidTitle, String userName,
+    public CompletableFuture<Boolean> sendCancelSignupNotification(String eventKey, String raidTitle, String userName,
             String characterName, int currentCount, int maxCount, String creatorName) {
-        if (!isEnabled()) return;
-        Map<String, Object> embed = new LinkedHashMap<>();
-        embed.put("title", "❌ 取消報名：" + raidTitle);
-        embed.put("color", 15158332);
-        List<Map<String, Object>> fields = new ArrayList<>();
-        fields.add(makeField("👤 玩家", userName + "\n\u200b", true));
-        fields.add(makeField("⚔️ 角色", characterName + "\n\u200b", true));
-        fields.add(makeField("\u200b", "\u200b", true)); // spacer
-        fields.add(makeField("🎯 隊長", creatorName + "\n\u200b", true));
-        fields.add(makeField("👥 人數", currentCount + " / " + maxCount + "\n\u200b", true));
-        embed.put("fields", fields);
-        embed.put("footer", Map.of("text", "KiHongan 遠征報名系統"));
-        sendEmbed(embed);
+        if (!isEnabled()) return NOT_SENT;
+        DiscordEmbed embed = new DiscordEmbed("❌ 取消報名：" + raidTitle, COLOR_CANCEL)
+                .field("👤 玩家", userName + "\n\u200b", true)
+                .field("⚔️ 角色", characterName + "\n\u200b", true)
+                .spacer()
+                .field("🎯 隊長", creatorName + "\n\u200b", true)
+                .field("👥 人數", currentCount + " / " + maxCount + "\n\u200b", true);
+        return sendEmbed(eventKey, embed, null);
     }
 
-    private Map<String, Object> makeField(String name, String value, boolean inline) {
-        Map<String, Object> field = new LinkedHashMap<>();
-        field.put("name", name);
-        field.put("value", value);
-        field.put("inline", inline);
-        return field;
+    /**
+     * One message for several signups/cancels of a raid, with the resulting roster.
+     */
+    public CompletableFuture<Boolean> sendRosterUpdateNotification(String eventKey, String raidTitle, String creatorName,
+            List<String> changes, int currentCount, int maxCount, List<String> memberList) {
+        if (!isEnabled()) return NOT_SENT;
+        boolean isFull = currentCount >= maxCount;
+        DiscordEmbed embed = new DiscordEmbed(
+                isFull ? "🔴 遠征已滿員：" + raidTitle : "📝 報名更新：" + raidTitle,
+                isFull ? COLOR_FULL : COLOR_UPDATE)
+                .field("🔄 異動", String.join("\n", changes) + "\n\u200b", false)
+                .field("🎯 隊長", creatorName + "\n\u200b", true)
+                .field("👥 人數", currentCount + " / " + maxCount + "\n\u200b", true);
+        addMemberList(embed, memberList);
+        return sendEmbed(eventKey, embed, null);
     }
 
-    private void sendEmbed(Map<String, Object> embed) {
-        sendEmbed(embed, null);
+    /**
+     * Edits the raid's announcement to show the current roster. Only the newest edit
+     * of a raid is sent: an older one still waiting for its turn is dropped and
+     * reports the newer one's result. The body is rendered when the edit goes out.
+     *
+     * @param post posts the change as a new message; used if the announcement turns
+     *             out to be deleted in Discord
+     * @return the edit's result, or null if the raid has no recorded announcement
+     *         (posted before live rosters existed, or deleted in Discord), so a new
+     *         message must be posted
+     */
+    private CompletableFuture<Boolean> editRosterMessage(String eventKey, RosterSnapshot roster,
+                                                         Supplier<CompletableFuture<Boolean>> post) {
+        if (!isEnabled()) return NOT_SENT;
+        Long raidId = roster.getRaidId();
+        Optional<String> messageId = messageRepository.findMessageId(raidId);
+        if (messageId.isEmpty()) {
+            return null;
+        }
+
+        WebhookCall call = new WebhookCall(eventKey, "PATCH", "/messages/" + messageId.get(),
+                () -> rosterPayload(roster),
+                (statusCode, responseBody) -> {
+                    if (statusCode == 404) {
+                        // Deleted in Discord: post new messages from now on
+                        messageRepository.delete(raidId);
+                    }
+                },
+                post);
+        WebhookCall previous = pendingEdits.put(raidId, call);
+        if (previous != null) {
+            previous.replacedBy = call;
+        }
+        call.result.whenComplete((delivered, e) -> pendingEdits.remove(raidId, call));
+        return send(call);
     }
 
-    private void sendEmbed(Map<String, Object> embed, String mention) {
-        new Thread(() -> sendEmbedWithRetry(embed, mention, 0)).start();
+    private byte[] rosterPayload(RosterSnapshot roster) {
+        boolean isFull = roster.isFull();
+        DiscordEmbed embed = new DiscordEmbed(isFull ? "🔴 遠征已滿員" : "⚔️ 新遠征隊建立",
+                isFull ? COLOR_FULL : COLOR_CREATED, raidDescription(roster.getRaidTitle(), roster.getSubtitle()))
+                .field("👤 建立人", roster.getCreatorName() + "\n\u200b", true)
+                .field("⏰ 時間", timeText(roster.getStartTime()) + "\n\u200b", true)
+                .field("👥 人數", roster.getCurrentCount() + " / " + roster.getMaxCount() + "\n\u200b", true);
+        addMemberList(embed, roster.getMemberList());
+        // No content field: the edit keeps the original role mention
+        return payloadEncoder.encode(null, embed);
+    }
+
+    private void rememberMessage(Long raidId, int statusCode, String responseBody) throws Exception {
+        if (raidId == null || statusCode >= 300) {
+            return;
+        }
+        JsonNode id = objectMapper.readTree(responseBody).get("id");
+        if (id != null && !id.isNull()) {
+            messageRepository.save(raidId, id.asText());
+        }
+    }
+
+    private static String raidDescription(String raidTitle, String subtitle) {
+        StringBuilder desc = new StringBuilder();
+        desc.append("## ").append(raidTitle).append("\n");
+        if (subtitle != null && !subtitle.isEmpty()) {
+            desc.append("> ").append(subtitle).append("\n");
+        }
+        return desc.toString();
+    }
+
+    private static String timeText(LocalDateTime startTime) {
+        return startTime.format(TIME_FORMAT) + " 週" + WEEK_DAYS[startTime.getDayOfWeek().getValue() % 7];
+    }
+
+    private void addMemberList(DiscordEmbed embed, List<String> memberList) {
+        if (memberList == null || memberList.isEmpty()) {
+            return;
+        }
+        StringBuilder members = new StringBuilder();
+        for (int i = 0; i < memberList.size(); i++) {
+            members.append("`").append(i + 1).append("` ").append(memberList.get(i)).append("\n");
+        }
+        embed.field("📋 目前成員", members.toString().trim(), false);
+    }
+
+    private CompletableFuture<Boolean> sendEmbed(String eventKey, DiscordEmbed embed, SerializableString mention) {
+        byte[] body = payloadEncoder.encode(mention, embed);
+        return send(new WebhookCall(eventKey, "POST", "", () -> body, null, null));
+    }
+
+    /**
+     * Queues the call on the dispatcher.
+     *
+     * @return completes with true once Discord accepted the call, and with false if it
+     *         was rejected, dropped (queue or backlog full) or ran out of attempts
+     */
+    private CompletableFuture<Boolean> send(WebhookCall call) {
+        notificationDispatcher.dispatch("discord", attempt -> sendAttempt(call, attempt))
+                .thenAccept(finished -> {
+                    if (!finished) {
+                        call.result.complete(false);
+                    }
+                });
+        return call.result;
     }
 
     private boolean useProxy() {
         return proxyUrl != null && !proxyUrl.isEmpty();
     }
 
-    @SuppressWarnings("unchecked")
-    private void sendEmbedWithRetry(Map<String, Object> embed, String mention, int attempt) {
-        if (attempt >= 5) {
-            System.err.println("Discord webhook failed after 5 attempts, giving up.");
+    /**
+     * Replays parked notifications, oldest first, once the webhook is reachable again.
+     * While the breaker is open this does nothing, without taking rate-limit tokens;
+     * when its open period is over the oldest parked message is the half-open probe.
+     */
+    @Scheduled(fixedDelayString = "${discord.breaker.replay-check-ms:5000}")
+    public void replayBacklog() {
+        if (backlog.isEmpty() || !replaying.compareAndSet(false, true)) {
             return;
         }
+        notificationDispatcher.dispatch("discord-replay", this::replayAttempt)
+                .thenAccept(finished -> {
+                    if (!finished) {
+                        // Dropped before it ran
+                        replaying.set(false);
+                    }
+                });
+    }
+
+    private DeliveryResult replayAttempt(int attempt) throws InterruptedException {
         try {
-            Map<String, Object> payload = new LinkedHashMap<>();
-            if (mention != null && !mention.isEmpty()) {
-                payload.put("content", mention);
+            WebhookCall call;
+            // Stop at the first message that cannot go out now; the next check resumes there
+            while ((call = backlog.peek()) != null) {
+                if (alreadySent(call) || superseded(call)) {
+                    backlog.poll();
+                    continue;
+                }
+                if (!breaker.tryAcquire()) {
+                    break;
+                }
+                if (rateLimiter.reserve() > 0) {
+                    breaker.release();
+                    break;
+                }
+                SendResult result = execute(call, attempt);
+                if (result == SendResult.TRANSPORT_FAILED || result == SendResult.RATE_LIMITED) {
+                    break;
+                }
+                backlog.poll();
+                replayed.increment();
             }
-            payload.put("embeds", List.of(embed));
-            String json = objectMapper.writeValueAsString(payload);
-
-            HttpRequest.Builder requestBuilder;
-            if (useProxy()) {
-                // 透過 Cloudflare Worker 代理發送
-                requestBuilder = HttpRequest.newBuilder()
-                        .uri(URI.create(proxyUrl))
-                        .header("Content-Type", "application/json")
-                        .header("X-Proxy-Secret", proxySecret)
-                        .header("X-Target-Url", webhookUrl);
-                System.out.println("Sending Discord notification via proxy: " + proxyUrl);
+            return DeliveryResult.done();
+        } finally {
+            replaying.set(false);
+        }
+    }
+
+    /**
+     * Makes one webhook call, paced by the shared rate limiter and guarded by the
+     * circuit breaker. Calls that would exceed the limit, and calls that got a 429,
+     * go back to the dispatcher to be retried later instead of sleeping on the worker
+     * thread; neither counts as an attempt. While the breaker is open the message is
+     * parked in the backlog instead of being sent, and only network/5xx failures are
+     * retried with backoff and count toward the attempt limit. The call's
+     * result is completed once Discord answered with anything but a 429 or 5xx. Each
+     * attempt first checks the event key, so an event that was already delivered is
+     * not sent again, and a roster edit that a newer edit of the same raid replaced
+     * is dropped.
+     */
+    private DeliveryResult sendAttempt(WebhookCall call, int attempt) throws Exception {
+        if (alreadySent(call) || superseded(call)) {
+            return DeliveryResult.done();
+        }
+        if (!breaker.tryAcquire()) {
+            park(call);
+            return DeliveryResult.done();
+        }
+        long waitMs = rateLimiter.reserve();
+        if (waitMs > 0) {
+            breaker.release();
+            return DeliveryResult.deferFor(waitMs);
+        }
+
+        switch (execute(call, attempt)) {
+            case TRANSPORT_FAILED:
+                // 1s, 2s, 4s, ... capped at 30s; parked instead once the breaker opens
+                return DeliveryResult.retryAfter(Math.min(30000L, 1000L << attempt));
+            case RATE_LIMITED:
+                // Not a failure: wait out the penalty without spending an attempt
+                return DeliveryResult.deferFor(call.retryAfterMs);
+            default:
+                return DeliveryResult.done();
+        }
+    }
+
+    /**
+     * Makes the webhook call once and reports the outcome to the breaker and rate limiter.
+     * A final answer (2xx, or a 4xx other than 429) completes the call's result. The
+     * breaker always hears back: anything but an answer below 500, including an
+     * unexpected exception, counts as a failure.
+     */
+    private SendResult execute(WebhookCall call, int attempt) throws InterruptedException {
+        boolean reachable = false;
+        try {
+            SendResult result = sendRequest(call, attempt);
+            reachable = result != SendResult.TRANSPORT_FAILED;
+            return result;
+        } finally {
+            if (reachable) {
+                breaker.onSuccess();
             } else {
-                // 直接發送到 Discord
-                requestBuilder = HttpRequest.newBuilder()
-                        .uri(URI.create(webhookUrl))
-                        .header("Content-Type", "application/json");
+                breaker.onFailure();
             }
+        }
+    }
 
-            HttpRequest request = requestBuilder
-                    .POST(HttpRequest.BodyPublishers.ofString(json))
-                    .build();
+    @SuppressWarnings("unchecked")
+    private SendResult sendRequest(WebhookCall call, int attempt) throws InterruptedException {
+        String targetUrl = webhookUrl + call.path;
+        HttpRequest.Builder requestBuilder;
+        if (useProxy()) {
+            // 透過 Cloudflare Worker 代理發送
+            requestBuilder = HttpRequest.newBuilder()
+                    .uri(URI.create(proxyUrl))
+                    .header("Content-Type", "application/json")
+                    .header("X-Proxy-Secret", proxySecret)
+                    .header("X-Target-Url", targetUrl);
+        } else {
+            // 直接發送到 Discord
+            requestBuilder = HttpRequest.newBuilder()
+                    .uri(URI.create(targetUrl))
+                    .header("Content-Type", "application/json");
+        }
 
-            HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+        HttpRequest request = requestBuilder
+                .timeout(REQUEST_TIMEOUT)
+                .method(call.method, HttpRequest.BodyPublishers.ofByteArray(call.body.get()))
+                .build();
 
-            if (response.statusCode() == 429) {
-                long retryMs = 10000;
-                try {
-                    Map<String, Object> body = objectMapper.readValue(response.body(), Map.class);
-                    Object retryAfter = body.get("retry_after");
-                    if (retryAfter instanceof Number) {
-                        retryMs = (long)(((Number) retryAfter).doubleValue() * 1000) + 500;
-                    }
-                } catch (Exception ignored) {}
+        long start = System.nanoTime();
+        HttpResponse<String> response;
+        try {
+            response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+        } catch (IOException e) {
+            sendTimer.record("send", OperationTimer.ERROR, System.nanoTime() - start);
+            log.warn("Discord webhook unreachable (attempt {}): {}", attempt + 1, e.getMessage());
+            return SendResult.TRANSPORT_FAILED;
+        }
+        sendTimer.record("send", outcomeOf(response.statusCode()), System.nanoTime() - start);
 
-                System.err.println("Discord rate limited, retrying in " + retryMs + "ms (attempt " + (attempt + 1) + "/5)");
-                Thread.sleep(retryMs);
-                sendEmbedWithRetry(embed, mention, attempt + 1);
-            } else if (response.statusCode() >= 400) {
-                System.err.println("Discord webhook failed: " + response.statusCode() + " " + response.body());
-            } else {
-                System.out.println("Discord notification sent successfully (status: " + response.statusCode() + ")");
+        if (response.statusCode() >= 500) {
+            // Discord or the Cloudflare proxy is down
+            log.warn("Discord webhook failed: {} (attempt {})", response.statusCode(), attempt + 1);
+            return SendResult.TRANSPORT_FAILED;
+        }
+        rateLimiter.update(response.headers());
+
+        if (response.statusCode() == 429) {
+            long retryMs = response.headers().firstValue("Retry-After")
+                    .map(DiscordWebhookService::secondsToMillis)
+                    .orElse(10000L);
+            try {
+                Map<String, Object> error = objectMapper.readValue(response.body(), Map.class);
+                Object retryAfter = error.get("retry_after");
+                if (retryAfter instanceof Number) {
+                    retryMs = (long)(((Number) retryAfter).doubleValue() * 1000) + 500;
+                }
+            } catch (Exception ignored) {}
+
+            // Every queued message waits, not just this one
+            rateLimiter.penalize(retryMs);
+            call.retryAfterMs = retryMs;
+            log.warn("Discord rate limited, retrying in {}ms (attempt {})", retryMs, attempt + 1);
+            return SendResult.RATE_LIMITED;
+        } else if (response.statusCode() >= 400) {
+            log.warn("Discord webhook failed: {} {}", response.statusCode(), response.body());
+        }
+        if (call.onResponse != null) {
+            try {
+                call.onResponse.handle(response.statusCode(), response.body());
+            } catch (Exception e) {
+                log.warn("Failed to handle Discord webhook response", e);
             }
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
-        } catch (Exception e) {
-            System.err.println("Failed to send Discord notification: " + e.getMessage());
         }
+        if (response.statusCode() == 404 && call.fallback != null) {
+            // The edited message is gone: post the change as a new message instead
+            call.fallback.get().whenComplete(
+                    (delivered, e) -> call.result.complete(Boolean.TRUE.equals(delivered)));
+            return SendResult.REJECTED;
+        }
+        boolean accepted = response.statusCode() < 400;
+        if (accepted && call.eventKey != null) {
+            sentKeys.remember(call.eventKey);
+        }
+        call.result.complete(accepted);
+        return accepted ? SendResult.SENT : SendResult.REJECTED;
+    }
+
+    /**
+     * Whether the call's event was delivered before, e.g. by an earlier relay of the
+     * same change; such a call completes as delivered without an HTTP request.
+     */
+    private boolean alreadySent(WebhookCall call) {
+        if (call.eventKey == null || !sentKeys.contains(call.eventKey)) {
+            return false;
+        }
+        duplicates.increment();
+        call.result.complete(true);
+        return true;
+    }
+
+    /**
+     * Whether the call is a roster edit that a newer edit of the same raid replaced
+     * before it went out; such a call completes with the newer edit's result.
+     */
+    private boolean superseded(WebhookCall call) {
+        WebhookCall newer = call.replacedBy;
+        if (newer == null) {
+            return false;
+        }
+        supersededEdits.increment();
+        newer.result.whenComplete((delivered, e) -> {
+            boolean ok = Boolean.TRUE.equals(delivered);
+            if (ok && call.eventKey != null) {
+                sentKeys.remember(call.eventKey);
+            }
+            call.result.complete(ok);
+        });
+        return true;
+    }
+
+    private void park(WebhookCall call) {
+        if (backlog.offer(call)) {
+            parked.increment();
+        } else {
+            backlogDropped.increment();
+            log.warn("Discord backlog full, dropping notification");
+            call.result.complete(false);
+        }
+    }
+
+    private static long secondsToMillis(String seconds) {
+        try {
+            return (long) (Double.parseDouble(seconds.trim()) * 1000) + 500;
+        } catch (NumberFormatException e) {
+            return 10000L;
+        }
+    }
+
+    private static Counter backlogCounter(MeterRegistry meterRegistry, String result) {
+        return Counter.builder("raid.notification.discord.backlog")
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+
+    private static String outcomeOf(int statusCode) {
+        if (statusCode == 429) {
+            return "rate_limited";
+        }
+        return statusCode >= 400 ? "http_error" : OperationTimer.SUCCESS;
+    }
+
+    /**
+     * A webhook request: the event it announces, method, path after the webhook URL,
+     * JSON body (rendered when sent), an optional handler for Discord's reply, an
+     * optional fallback for when the edited message no longer exists, and the result
+     * reported back to the caller.
+     */
+    private static final class WebhookCall {
+        private final String eventKey;
+        private final String method;
+        private final String path;
+        private final Supplier<byte[]> body;
+        private final ResponseHandler onResponse;
+        private final Supplier<CompletableFuture<Boolean>> fallback;
+        private final CompletableFuture<Boolean> result = new CompletableFuture<>();
+        /** The newer edit of the same message that makes this one unnecessary. */
+        private volatile WebhookCall replacedBy;
+        /** How long Discord asked to wait after the last 429. */
+        private volatile long retryAfterMs;
+
+        private WebhookCall(String eventKey, String method, String path, Supplier<byte[]> body,
+                            ResponseHandler onResponse, Supplier<CompletableFuture<Boolean>> fallback) {
+            this.eventKey = eventKey;
+            this.method = method;
+            this.path = path;
+            this.body = body;
+            this.onResponse = onResponse;
+            this.fallback = fallback;
+        }
+    }
+
+    @FunctionalInterface
+    private interface ResponseHandler {
+        void handle(int statusCode, String responseBody) throws Exception;
+    }
+
+    /**
+     * Outcome of one webhook call; REJECTED is a final 4xx answer that is not retried.
+     */
+    private enum SendResult {
+        SENT, REJECTED, RATE_LIMITED, TRANSPORT_FAILED
     }
 }
@@ -0,0 +1,66 @@
+package com.kihongan.raidsystem.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Recognizes LINE webhook events that were already handled.
+ *
+ * LINE redelivers an event when our webhook did not answer in time, with the same
+ * {@code webhookEventId}. Ids of handled events are kept in a {@link DedupWindow} for
+ * {@code ttlMs}, bounded to {@code capacity} ids. The index is in memory, which covers
+ * the single instance this app runs as.
+ *
+ * Metrics: counter {@code raid.line.webhook.dedup{result}} with result hit|miss, one per lookup.
+ */
+@Component
+public class LineEventDedup {
+
+    private final DedupWindow handledEvents;
+    private final Counter hits;
+    private final Counter misses;
+
+    public LineEventDedup(
+            @Value("${app.line.webhook.dedup-capacity:10000}") int capacity,
+            @Value("${app.line.webhook.dedup-ttl-ms:3600000}") long ttlMs,
+            MeterRegistry meterRegistry) {
+        this.handledEvents = new DedupWindow(capacity, ttlMs);
+        this.hits = dedupCounter(meterRegistry, "hit");
+        this.misses = dedupCounter(meterRegistry, "miss");
+    }
+
+    /**
+     * Records the event id, in one step with the check, so two concurrent deliveries of
+     * the same event cannot both pass.
+     *
+     * @return true if the event is new and should be handled, false if it was already
+     *         handled; events without an id are always new
+     */
+    public boolean firstSeen(String webhookEventId) {
+        if (webhookEventId != null && !handledEvents.firstSeen(webhookEventId)) {
+            hits.increment();
+            return false;
+        }
+        misses.increment();
+        return true;
+    }
+
+    /**
+     * Forgets an event that was turned away (group budget, full queue), so it is
+     * handled if LINE sends it again.
+     */
+    public void forget(String webhookEventId) {
+        if (webhookEventId == null) {
+            return;
+        }
+        handledEvents.forget(webhookEventId);
+    }
+
+    private static Counter dedupCounter(MeterRegistry meterRegistry, String result) {
+        return Counter.builder("raid.line.webhook.dedup")
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+}
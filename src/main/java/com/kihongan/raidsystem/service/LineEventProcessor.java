@@ -0,0 +1,177 @@
+package com.kihongan.raidsystem.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs LINE webhook events off the webhook thread, so the webhook is acknowledged
+ * right away instead of after DB reads and reply calls.
+ *
+ * Events are queued per group and each group's queue is drained by at most one
+ * worker at a time, so events of one group run in arrival order while different
+ * groups run in parallel on a fixed pool. A worker runs one event and then requeues
+ * the group behind the others, so a busy group cannot hold a worker. At most
+ * {@code queueCapacity} events wait in total; beyond that new events are dropped.
+ *
+ * Metrics: counter {@code raid.line.webhook.events{result}} with result
+ * accepted|rejected|failed, gauge {@code raid.line.webhook.queue} and timer
+ * {@code raid.line.webhook.queue.wait} (time from acknowledgement to start).
+ */
+@Component
+public class LineEventProcessor {
+
+    private static final Logger log = LoggerFactory.getLogger(LineEventProcessor.class);
+
+    private final ThreadPoolExecutor workers;
+    private final int queueCapacity;
+
+    // Guarded by this. A group has an entry while a worker is scheduled for it.
+    private final Map<String, ArrayDeque<Task>> groups = new HashMap<>();
+    private int pending;
+
+    private final Counter accepted;
+    private final Counter rejected;
+    private final Counter failed;
+    private final Timer queueWait;
+
+    public LineEventProcessor(
+            @Value("${app.line.webhook.workers:4}") int workerCount,
+            @Value("${app.line.webhook.queue-capacity:256}") int queueCapacity,
+            MeterRegistry meterRegistry) {
+        this.queueCapacity = queueCapacity;
+
+        // Holds at most one entry per group, and groups are bounded by queueCapacity
+        AtomicInteger threadIndex = new AtomicInteger();
+        this.workers = new ThreadPoolExecutor(
+                workerCount, workerCount, 0L, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(),
+                r -> {
+                    Thread thread = new Thread(r, "line-event-" + threadIndex.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+
+        this.accepted = eventCounter(meterRegistry, "accepted");
+        this.rejected = eventCounter(meterRegistry, "rejected");
+        this.failed = eventCounter(meterRegistry, "failed");
+        this.queueWait = Timer.builder("raid.line.webhook.queue.wait")
+                .description("Time a LINE event waits between acknowledgement and processing")
+                .register(meterRegistry);
+        Gauge.builder("raid.line.webhook.queue", this, LineEventProcessor::pending)
+                .description("LINE events waiting for a worker")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Queues an event of a group. Never blocks the caller.
+     *
+     * @return false if too many events are waiting and this one was dropped
+     */
+    public boolean submit(String groupId, Runnable handler) {
+        Task task = new Task(handler, System.nanoTime());
+        boolean schedule;
+        synchronized (this) {
+            if (pending >= queueCapacity) {
+                rejected.increment();
+                log.warn("LINE event queue full, dropping event of group {}", groupId);
+                return false;
+            }
+            pending++;
+            ArrayDeque<Task> queue = groups.get(groupId);
+            schedule = queue == null;
+            if (schedule) {
+                queue = new ArrayDeque<>();
+                groups.put(groupId, queue);
+            }
+            queue.add(task);
+        }
+        accepted.increment();
+        if (schedule) {
+            schedule(groupId);
+        }
+        return true;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        workers.shutdown();
+        try {
+            workers.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        workers.shutdownNow();
+    }
+
+    synchronized int pending() {
+        return pending;
+    }
+
+    private void schedule(String groupId) {
+        try {
+            workers.execute(() -> runNext(groupId));
+        } catch (RejectedExecutionException e) {
+            // Only happens while shutting down
+            log.warn("LINE event processor stopped, dropping events of group {}", groupId);
+        }
+    }
+
+    private void runNext(String groupId) {
+        Task task;
+        synchronized (this) {
+            task = groups.get(groupId).poll();
+            pending--;
+        }
+
+        queueWait.record(System.nanoTime() - task.queuedAt, TimeUnit.NANOSECONDS);
+        try {
+            task.handler.run();
+        } catch (RuntimeException e) {
+            failed.increment();
+            log.error("LINE event of group {} failed: {}", groupId, e.getMessage());
+        }
+
+        boolean more;
+        synchronized (this) {
+            more = !groups.get(groupId).isEmpty();
+            if (!more) {
+                groups.remove(groupId);
+            }
+        }
+        if (more) {
+            schedule(groupId);
+        }
+    }
+
+    private Counter eventCounter(MeterRegistry meterRegistry, String result) {
+        return Counter.builder("raid.line.webhook.events")
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+
+    private static final class Task {
+        private final Runnable handler;
+        private final long queuedAt;
+
+        private Task(Runnable handler, long queuedAt) {
+            this.handler = handler;
+            this.queuedAt = queuedAt;
+        }
+    }
+}
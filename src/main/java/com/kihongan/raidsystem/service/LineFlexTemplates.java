@@ -0,0 +1,219 @@
+package com.kihongan.raidsystem.service;
+
+import com.linecorp.bot.model.message.flex.component.Box;
+import com.linecorp.bot.model.message.flex.component.FlexComponent;
+import com.linecorp.bot.model.message.flex.component.Separator;
+import com.linecorp.bot.model.message.flex.component.Text;
+import com.linecorp.bot.model.message.flex.container.Bubble;
+import com.linecorp.bot.model.message.flex.unit.FlexAlign;
+import com.linecorp.bot.model.message.flex.unit.FlexFontSize;
+import com.linecorp.bot.model.message.flex.unit.FlexLayout;
+import com.linecorp.bot.model.message.flex.unit.FlexMarginSize;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Flex message templates for the LINE notifications.
+ *
+ * Flex components are immutable, so every part that does not depend on the raid
+ * (headers, footer, row labels, the separator, the fixed "1/6" row) is built once
+ * here and shared by all messages. A notification only creates the Text components
+ * holding its values and the boxes around them.
+ */
+public final class LineFlexTemplates {
+
+    private static final DateTimeFormatter TIME_FORMAT = DateTimeFormatter.ofPattern("MM/dd HH:mm");
+
+    private static final String LABEL_COLOR = "#555555";
+    private static final String VALUE_COLOR = "#111111";
+    private static final String FULL_COLOR = "#e74c3c";
+    private static final String OPEN_COLOR = "#27ae60";
+    private static final String CANCELLED_COLOR = "#999999";
+
+    private static final Box RAID_CREATED_HEADER = header("🎯 新遠征隊", "#667eea");
+    private static final Box SIGNUP_HEADER = header("✅ 報名成功", "#27ae60");
+    private static final Box CANCEL_HEADER = header("❌ 取消報名", "#e74c3c");
+
+    private static final Box LIFF_FOOTER = Box.builder()
+            .layout(FlexLayout.VERTICAL)
+            .contents(List.of(
+                    Text.builder()
+                            .text("點擊 LIFF 連結報名參加！")
+                            .size(FlexFontSize.SM)
+                            .color("#999999")
+                            .align(FlexAlign.CENTER)
+                            .build()
+            ))
+            .build();
+
+    private static final Box SEPARATOR_ROW = Box.builder()
+            .layout(FlexLayout.VERTICAL)
+            .contents(List.of(Separator.builder().margin(FlexMarginSize.MD).build()))
+            .margin(FlexMarginSize.MD)
+            .build();
+
+    private static final Text CREATOR_LABEL = label("👤 建立人");
+    private static final Text TIME_LABEL = label("⏰ 時間");
+    private static final Text NOTE_LABEL = label("📝 備註");
+    private static final Text LEADER_LABEL = label("🎯 隊長");
+    private static final Text PLAYER_LABEL = label("👤 玩家");
+    private static final Text CHARACTER_LABEL = label("⚔️ 角色");
+    private static final Text JOB_LABEL = label("💼 職業");
+    private static final Text COUNT_LABEL = label("👥 人數");
+
+    // A new raid always starts with only its creator signed up
+    private static final Box CREATOR_ONLY_COUNT_ROW = row(COUNT_LABEL, "1/6 人");
+
+    private LineFlexTemplates() {
+    }
+
+    /**
+     * 遠征隊建立通知
+     */
+    public static Bubble raidCreated(String raidTitle, String creatorName, LocalDateTime startTime, String subtitle) {
+        List<FlexComponent> rows = new ArrayList<>(3);
+        rows.add(row(CREATOR_LABEL, creatorName));
+        rows.add(row(TIME_LABEL, startTime.format(TIME_FORMAT)));
+        if (subtitle != null && !subtitle.isEmpty()) {
+            rows.add(row(NOTE_LABEL, subtitle));
+        }
+        return bubble(RAID_CREATED_HEADER, raidTitle, rows, LIFF_FOOTER);
+    }
+
+    /**
+     * 遠征隊建立並加入通知（合併版）
+     */
+    public static Bubble raidCreatedWithSignup(String raidTitle, String creatorName, LocalDateTime startTime,
+                                               String subtitle, String characterName, String job, Integer level) {
+        List<FlexComponent> rows = new ArrayList<>(7);
+        rows.add(row(CREATOR_LABEL, creatorName));
+        rows.add(row(TIME_LABEL, startTime.format(TIME_FORMAT)));
+        if (subtitle != null && !subtitle.isEmpty()) {
+            rows.add(row(NOTE_LABEL, subtitle));
+        }
+        rows.add(SEPARATOR_ROW);
+        rows.add(row(CHARACTER_LABEL, characterName));
+        rows.add(row(JOB_LABEL, jobLevel(job, level)));
+        rows.add(CREATOR_ONLY_COUNT_ROW);
+        return bubble(RAID_CREATED_HEADER, raidTitle, rows, LIFF_FOOTER);
+    }
+
+    /**
+     * 報名成功通知
+     */
+    public static Bubble signup(String raidTitle, String userName, String characterName, String job, Integer level,
+                                int currentCount, int maxCount, String creatorName) {
+        boolean isFull = currentCount >= maxCount;
+        List<FlexComponent> rows = List.of(
+                row(LEADER_LABEL, creatorName),
+                row(PLAYER_LABEL, userName),
+                row(CHARACTER_LABEL, characterName),
+                row(JOB_LABEL, jobLevel(job, level)),
+                countRow(isFull ? "已滿員" : currentCount + "/" + maxCount + " 人", isFull ? FULL_COLOR : OPEN_COLOR)
+        );
+        return bubble(SIGNUP_HEADER, raidTitle, rows, null);
+    }
+
+    /**
+     * 取消報名通知
+     */
+    public static Bubble cancelSignup(String raidTitle, String userName, String characterName,
+                                      int currentCount, int maxCount, String creatorName) {
+        List<FlexComponent> rows = List.of(
+                row(LEADER_LABEL, creatorName),
+                row(PLAYER_LABEL, userName),
+                row(CHARACTER_LABEL, characterName),
+                countRow(currentCount + "/" + maxCount + " 人", CANCELLED_COLOR)
+        );
+        return bubble(CANCEL_HEADER, raidTitle, rows, null);
+    }
+
+    private static Bubble bubble(Box header, String raidTitle, List<FlexComponent> rows, Box footer) {
+        Box body = Box.builder()
+                .layout(FlexLayout.VERTICAL)
+                .contents(List.of(
+                        Text.builder()
+                                .text(raidTitle)
+                                .weight(Text.TextWeight.BOLD)
+                                .size(FlexFontSize.XL)
+                                .margin(FlexMarginSize.MD)
+                                .build(),
+                        Box.builder()
+                                .layout(FlexLayout.VERTICAL)
+                                .margin(FlexMarginSize.LG)
+                                .spacing(FlexMarginSize.SM)
+                                .contents(rows)
+                                .build()
+                ))
+                .build();
+        return Bubble.builder()
+                .header(header)
+                .body(body)
+                .footer(footer)
+                .build();
+    }
+
+    private static Box row(Text label, String value) {
+        return Box.builder()
+                .layout(FlexLayout.HORIZONTAL)
+                .contents(List.of(
+                        label,
+                        Text.builder()
+                                .text(value)
+                                .size(FlexFontSize.SM)
+                                .color(VALUE_COLOR)
+                                .align(FlexAlign.END)
+                                .build()
+                ))
+                .build();
+    }
+
+    private static Box countRow(String status, String color) {
+        return Box.builder()
+                .layout(FlexLayout.HORIZONTAL)
+                .contents(List.of(
+                        COUNT_LABEL,
+                        Text.builder()
+                                .text(status)
+                                .size(FlexFontSize.SM)
+                                .color(color)
+                                .weight(Text.TextWeight.BOLD)
+                                .align(FlexAlign.END)
+                                .build()
+                ))
+                .build();
+    }
+
+    private static String jobLevel(String job, Integer level) {
+        String jobLevel = job != null ? job : "未設定";
+        return level != null ? jobLevel + " Lv." + level : jobLevel;
+    }
+
+    private static Text label(String text) {
+        return Text.builder()
+                .text(text)
+                .size(FlexFontSize.SM)
+                .color(LABEL_COLOR)
+                .flex(0)
+                .build();
+    }
+
+    private static Box header(String title, String backgroundColor) {
+        return Box.builder()
+                .layout(FlexLayout.VERTICAL)
+                .contents(List.of(
+                        Text.builder()
+                                .text(title)
+                                .weight(Text.TextWeight.BOLD)
+                                .size(FlexFontSize.LG)
+                                .color("#FFFFFF")
+                                .build()
+                ))
+                .backgroundColor(backgroundColor)
+                .paddingAll("13px")
+                .build();
+    }
+}
@@ -0,0 +1,142 @@
+package com.kihongan.raidsystem.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.function.LongSupplier;
+
+/**
+ * Per-group admission for LINE bot commands.
+ *
+ * A command repeated in the same group within the coalescing window is answered
+ * once: the first one replies and the rest are dropped (their reply would be the
+ * same). Replies that do go out take a token from the group's bucket, which holds
+ * {@code burst} tokens and refills them over {@code periodMs}, so no group can use
+ * more than that share of the DB and of the LINE message quota. Buckets of the
+ * least recently active groups are forgotten beyond {@code maxGroups}. A command
+ * that was allowed but then could not be queued is {@link #release released}, so
+ * neither its token nor its coalescing slot is lost to a reply that never went out.
+ *
+ * Metrics: counter {@code raid.line.webhook.admission{result}} with result
+ * allowed|coalesced|throttled.
+ */
+@Component
+public class LineGroupLimiter {
+
+    /**
+     * What to do with a command.
+     */
+    public enum Decision {
+        ALLOWED, COALESCED, THROTTLED
+    }
+
+    private final DedupWindow recentCommands;
+    private final int burst;
+    private final long periodMs;
+    private final int maxGroups;
+    private final LongSupplier clock;
+
+    // Guarded by this; access-ordered so the idlest group is evicted first
+    private final LinkedHashMap<String, Bucket> buckets = new LinkedHashMap<>(16, 0.75f, true);
+
+    private final Counter allowed;
+    private final Counter coalesced;
+    private final Counter throttled;
+
+    @Autowired
+    public LineGroupLimiter(
+            @Value("${app.line.webhook.coalesce-window-ms:5000}") long coalesceWindowMs,
+            @Value("${app.line.webhook.reply-burst:5}") int burst,
+            @Value("${app.line.webhook.reply-period-ms:60000}") long periodMs,
+            @Value("${app.line.webhook.max-groups:1024}") int maxGroups,
+            MeterRegistry meterRegistry) {
+        this(coalesceWindowMs, burst, periodMs, maxGroups, meterRegistry, System::currentTimeMillis);
+    }
+
+    LineGroupLimiter(long coalesceWindowMs, int burst, long periodMs, int maxGroups,
+                     MeterRegistry meterRegistry, LongSupplier clock) {
+        this.recentCommands = new DedupWindow(maxGroups * 4, coalesceWindowMs, clock);
+        this.burst = burst;
+        this.periodMs = periodMs;
+        this.maxGroups = maxGroups;
+        this.clock = clock;
+        this.allowed = admissionCounter(meterRegistry, "allowed");
+        this.coalesced = admissionCounter(meterRegistry, "coalesced");
+        this.throttled = admissionCounter(meterRegistry, "throttled");
+    }
+
+    /**
+     * Decides whether a group's command gets a reply, taking a token if it does.
+     */
+    public Decision admit(String groupId, String command) {
+        if (!recentCommands.firstSeen(groupId + ':' + command)) {
+            coalesced.increment();
+            return Decision.COALESCED;
+        }
+        if (!takeToken(groupId)) {
+            throttled.increment();
+            return Decision.THROTTLED;
+        }
+        allowed.increment();
+        return Decision.ALLOWED;
+    }
+
+    /**
+     * Undoes an {@link Decision#ALLOWED} admission whose command was not run:
+     * returns the token and lets the next identical command through.
+     */
+    public void release(String groupId, String command) {
+        recentCommands.forget(groupId + ':' + command);
+        returnToken(groupId);
+    }
+
+    private synchronized void returnToken(String groupId) {
+        Bucket bucket = buckets.get(groupId);
+        if (bucket != null) {
+            bucket.tokens = Math.min(burst, bucket.tokens + 1);
+        }
+    }
+
+    private synchronized boolean takeToken(String groupId) {
+        long now = clock.getAsLong();
+        Bucket bucket = buckets.get(groupId);
+        if (bucket == null) {
+            bucket = new Bucket(burst, now);
+            buckets.put(groupId, bucket);
+            if (buckets.size() > maxGroups) {
+                buckets.remove(buckets.keySet().iterator().next());
+            }
+        }
+
+        long elapsed = now - bucket.lastRefill;
+        if (elapsed > 0) {
+            bucket.tokens = Math.min(burst, bucket.tokens + (double) elapsed * burst / periodMs);
+            bucket.lastRefill = now;
+        }
+        if (bucket.tokens < 1) {
+            return false;
+        }
+        bucket.tokens -= 1;
+        return true;
+    }
+
+    private static Counter admissionCounter(MeterRegistry meterRegistry, String result) {
+        return Counter.builder("raid.line.webhook.admission")
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+
+    private static final class Bucket {
+        private double tokens;
+        private long lastRefill;
+
+        private Bucket(double tokens, long lastRefill) {
+            this.tokens = tokens;
+            this.lastRefill = lastRefill;
+        }
+    }
+}
@@ -1,423 +1,147 @@
 package com.kihongan.raidsystem.service;
 
-import com.linecorp.bot.client.LineMessagingClient;
 import com.linecorp.bot.model.PushMessage;
 import com.linecorp.bot.model.message.FlexMessage;
-import com.linecorp.bot.model.message.flex.container.Bubble;
-import com.linecorp.bot.model.message.flex.component.*;
-import com.linecorp.bot.model.message.flex.unit.FlexAlign;
-import com.linecorp.bot.model.message.flex.unit.FlexFontSize;
-import com.linecorp.bot.model.message.flex.unit.FlexLayout;
-import com.linecorp.bot.model.message.flex.unit.FlexMarginSize;
+import com.linecorp.bot.model.message.TextMessage;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
-import java.util.Arrays;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.concurrent.CompletableFuture;
 
 @Service
-public class LineMessagingService {
+public class LineMessagingService implements NotificationChannel {
     
-    private final LineMessagingClient lineMessagingClient;
+    private static final Logger log = LoggerFactory.getLogger(LineMessagingService.class);
+    
+    /** Result for messages skipped because no group is configured. */
+    private static final CompletableFuture<Boolean> NOT_SENT = CompletableFuture.completedFuture(false);
+    
+    private final LinePushPipeline linePushPipeline;
     private final String groupId;
     
     public LineMessagingService(
-            LineMessagingClient lineMessagingClient,
+            LinePushPipeline linePushPipeline,
             @Value("${line.webhook.group-id:}") String groupId) {
-        this.lineMessagingClient = lineMessagingClient;
+        this.linePushPipeline = linePushPipeline;
         this.groupId = groupId;
     }
     
+    @Override
+    public String name() {
+        return "line";
+    }
+    
+    @Override
+    public boolean isEnabled() {
+        return groupId != null && !groupId.isEmpty();
+    }
+    
+    @Override
+    public CompletableFuture<Boolean> raidCreated(String eventKey, Long raidId, String raidTitle, String creatorName,
+                                                  LocalDateTime startTime, String subtitle,
+                                                  String characterName, String job, Integer level) {
+        if (characterName != null) {
+            return sendRaidCreatedWithSignupNotification(eventKey, raidTitle, creatorName, startTime, subtitle, characterName, job, level);
+        }
+        return sendRaidCreatedNotification(eventKey, raidTitle, creatorName, startTime, subtitle);
+    }
+    
+    @Override
+    public CompletableFuture<Boolean> signupAdded(String eventKey, RosterSnapshot roster, String userName,
+                                                  String characterName, String job, Integer level) {
+        return sendSignupNotification(eventKey, roster.getRaidTitle(), userName, characterName, job, level,
+                roster.getCurrentCount(), roster.getMaxCount(), roster.getCreatorName());
+    }
+    
+    @Override
+    public CompletableFuture<Boolean> signupCancelled(String eventKey, RosterSnapshot roster, String userName,
+                                                      String characterName) {
+        return sendCancelSignupNotification(eventKey, roster.getRaidTitle(), userName, characterName,
+                roster.getCurrentCount(), roster.getMaxCount(), roster.getCreatorName());
+    }
+    
     /**
-     * 發送遠征隊建立通知
+     * 報名異動（合併通知）
      */
-    public void sendRaidCreatedNotification(String raidTitle, String creatorName, LocalDateTime startTime, String subtitle) {
-        System.out.println("DEBUG: sendRaidCreatedNotification called - groupId: " + groupId);
+    @Override
+    public CompletableFuture<Boolean> rosterUpdated(String eventKey, RosterSnapshot roster, List<String> changes) {
+        if (!isEnabled()) {
+            return NOT_SENT;
+        }
         
+        String text = "📝 " + roster.getCreatorName() + " 的遠征隊：" + roster.getRaidTitle() + "\n"
+                + String.join("\n", changes) + "\n"
+                + "👥 " + roster.getCurrentCount() + "/" + roster.getMaxCount() + " 人";
+        return linePushPipeline.push("roster-updated", eventKey, new PushMessage(groupId, new TextMessage(text)));
+    }
+    
+    /**
+     * 發送遠征隊建立通知
+     */
+    public CompletableFuture<Boolean> sendRaidCreatedNotification(String eventKey, String raidTitle, String creatorName, LocalDateTime startTime, String subtitle) {
         if (groupId == null || groupId.isEmpty()) {
-            System.out.println("DEBUG: Group ID is empty, skipping notification");
-            return; // 未設定群組 ID，跳過通知
+            log.debug("LINE group ID is empty, skipping raid-created notification {}", eventKey);
+            return NOT_SENT; // 未設定群組 ID，跳過通知
         }
         
         FlexMessage flexMessage = FlexMessage.builder()
                 .altText("🎯 新遠征隊：" + raidTitle)
-                .contents(createRaidCreatedBubble(raidTitle, creatorName, startTime, subtitle))
+                .contents(LineFlexTemplates.raidCreated(raidTitle, creatorName, startTime, subtitle))
                 .build();
         
-        PushMessage pushMessage = new PushMessage(groupId, flexMessage);
-        
-        try {
-            System.out.println("DEBUG: Sending push message to LINE...");
-            lineMessagingClient.pushMessage(pushMessage).get();
-            System.out.println("DEBUG: Push message sent successfully");
-        } catch (Exception e) {
-            // Log error but don't fail the operation
-            System.err.println("Failed to send LINE notification: " + e.getMessage());
-            e.printStackTrace();
-        }
+        return linePushPipeline.push("raid-created", eventKey, new PushMessage(groupId, flexMessage));
     }
     
     /**
      * 發送遠征隊建立並加入通知（合併版）
      */
-    public void sendRaidCreatedWithSignupNotification(String raidTitle, String creatorName, LocalDateTime startTime, String subtitle, String characterName, String job, Integer level) {
-        System.out.println("DEBUG: sendRaidCreatedWithSignupNotification called - groupId: " + groupId);
-        
+    public CompletableFuture<Boolean> sendRaidCreatedWithSignupNotification(String eventKey, String raidTitle, String creatorName, LocalDateTime startTime, String subtitle, String characterName, String job, Integer level) {
         if (groupId == null || groupId.isEmpty()) {
-            System.out.println("DEBUG: Group ID is empty, skipping notification");
-            return;
+            log.debug("LINE group ID is empty, skipping raid-created-with-signup notification {}", eventKey);
+            return NOT_SENT;
         }
         
         FlexMessage flexMessage = FlexMessage.builder()
                 .altText("🎯 " + creatorName + " 建立遠征隊：" + raidTitle)
-                .contents(createRaidCreatedWithSignupBubble(raidTitle, creatorName, startTime, subtitle, characterName, job, level))
+                .contents(LineFlexTemplates.raidCreatedWithSignup(raidTitle, creatorName, startTime, subtitle, characterName, job, level))
                 .build();
         
-        PushMessage pushMessage = new PushMessage(groupId, flexMessage);
-        
-        try {
-            System.out.println("DEBUG: Sending push message to LINE...");
-            lineMessagingClient.pushMessage(pushMessage).get();
-            System.out.println("DEBUG: Push message sent successfully");
-        } catch (Exception e) {
-            System.err.println("Failed to send LINE notification: " + e.getMessage());
-            e.printStackTrace();
-        }
+        return linePushPipeline.push("raid-created-with-signup", eventKey, new PushMessage(groupId, flexMessage));
     }
     
     /**
      * 發送報名成功通知
      */
-    public void sendSignupNotification(String raidTitle, String userName, String characterName, String job, Integer level, int currentCount, int maxCount, String creatorName) {
+    public CompletableFuture<Boolean> sendSignupNotification(String eventKey, String raidTitle, String userName, String characterName, String job, Integer level, int currentCount, int maxCount, String creatorName) {
         if (groupId == null || groupId.isEmpty()) {
-            return;
+            return NOT_SENT;
         }
         
         FlexMessage flexMessage = FlexMessage.builder()
                 .altText("✅ " + userName + " 加入 " + creatorName + " 的遠征隊：" + raidTitle)
-                .contents(createSignupBubble(raidTitle, userName, characterName, job, level, currentCount, maxCount, creatorName))
+                .contents(LineFlexTemplates.signup(raidTitle, userName, characterName, job, level, currentCount, maxCount, creatorName))
                 .build();
         
-        PushMessage pushMessage = new PushMessage(groupId, flexMessage);
-        
-        try {
-            lineMessagingClient.pushMessage(pushMessage).get();
-        } catch (Exception e) {
-            System.err.println("Failed to send LINE notification: " + e.getMessage());
-        }
+        return linePushPipeline.push("signup", eventKey, new PushMessage(groupId, flexMessage));
     }
     
     /**
      * 發送取消報名通知
      */
-    public void sendCancelSignupNotification(String raidTitle, String userName, String characterName, int currentCount, int maxCount, String creatorName) {
+    public CompletableFuture<Boolean> sendCancelSignupNotification(String eventKey, String raidTitle, String userName, String characterName, int currentCount, int maxCount, String creatorName) {
         if (groupId == null || groupId.isEmpty()) {
-            return;
+            return NOT_SENT;
         }
         
         FlexMessage flexMessage = FlexMessage.builder()
                 .altText("❌ " + userName + " 取消 " + creatorName + " 的遠征隊：" + raidTitle)
-                .contents(createCancelSignupBubble(raidTitle, userName, characterName, currentCount, maxCount, creatorName))
-                .build();
-        
-        PushMessage pushMessage = new PushMessage(groupId, flexMessage);
-        
-        try {
-            lineMessagingClient.pushMessage(pushMessage).get();
-        } catch (Exception e) {
-            System.err.println("Failed to send LINE notification: " + e.getMessage());
-        }
-    }
-    
-    /**
-     * 建立遠征隊通知的 Flex Message Bubble
-     */
-    private Bubble createRaidCreatedBubble(String raidTitle, String creatorName, LocalDateTime startTime, String subtitle) {
-        DateTimeFormatter formatter = DateTimeFormatter.ofPattern("MM/dd HH:mm");
-        String timeStr = startTime.format(formatter);
-        
-        List<FlexComponent> bodyContents = Arrays.asList(
-                createInfoRow("👤 建立人", creatorName),
-                createInfoRow("⏰ 時間", timeStr),
-                subtitle != null && !subtitle.isEmpty() ? createInfoRow("📝 備註", subtitle) : null
-        ).stream().filter(c -> c != null).collect(Collectors.toList());
-        
-        return Bubble.builder()
-                .header(Box.builder()
-                        .layout(FlexLayout.VERTICAL)
-                        .contents(Arrays.asList(
-                                Text.builder()
-                                        .text("🎯 新遠征隊")
-                                        .weight(Text.TextWeight.BOLD)
-                                        .size(FlexFontSize.LG)
-                                        .color("#FFFFFF")
-                                        .build()
-                        ))
-                        .backgroundColor("#667eea")
-                        .paddingAll("13px")
-                        .build())
-                .body(Box.builder()
-                        .layout(FlexLayout.VERTICAL)
-                        .contents(Arrays.asList(
-                                Text.builder()
-                                        .text(raidTitle)
-                                        .weight(Text.TextWeight.BOLD)
-                                        .size(FlexFontSize.XL)
-                                        .margin(FlexMarginSize.MD)
-                                        .build(),
-                                Box.builder()
-                                        .layout(FlexLayout.VERTICAL)
-                                        .margin(FlexMarginSize.LG)
-                                        .spacing(FlexMarginSize.SM)
-                                        .contents(bodyContents)
-                                        .build()
-                        ))
-                        .build())
-                .footer(Box.builder()
-                        .layout(FlexLayout.VERTICAL)
-                        .contents(Arrays.asList(
-                                Text.builder()
-                                        .text("點擊 LIFF 連結報名參加！")
-                                        .size(FlexFontSize.SM)
-                                        .color("#999999")
-                                        .align(FlexAlign.CENTER)
-                                        .build()
-                        ))
-                        .build())
-                .build();
-    }
-    
-    /**
-     * 建立遠征隊並加入通知的 Flex Message Bubble（合併版）
-     */
-    private Bubble createRaidCreatedWithSignupBubble(String raidTitle, String creatorName, LocalDateTime startTime, String subtitle, String characterName, String job, Integer level) {
-        DateTimeFormatter formatter = DateTimeFormatter.ofPattern("MM/dd HH:mm");
-        String timeStr = startTime.format(formatter);
-        
-        String jobLevel = job != null ? job : "未設定";
-        if (level != null) {
-            jobLevel += " Lv." + level;
-        }
-        
-        List<FlexComponent> bodyContents = Arrays.asList(
-                createInfoRow("👤 建立人", creatorName),
-                createInfoRow("⏰ 時間", timeStr),
-                subtitle != null && !subtitle.isEmpty() ? createInfoRow("📝 備註", subtitle) : null,
-                // 分隔線
-                Box.builder()
-                        .layout(FlexLayout.VERTICAL)
-                        .contents(Arrays.asList(
-                                Separator.builder().margin(FlexMarginSize.MD).build()
-                        ))
-                        .margin(FlexMarginSize.MD)
-                        .build(),
-                // 加入資訊
-                createInfoRow("⚔️ 角色", characterName),
-                createInfoRow("💼 職業", jobLevel),
-                createInfoRow("👥 人數", "1/6 人")
-        ).stream().filter(c -> c != null).collect(Collectors.toList());
-        
-        return Bubble.builder()
-                .header(Box.builder()
-                        .layout(FlexLayout.VERTICAL)
-                        .contents(Arrays.asList(
-                                Text.builder()
-                                        .text("🎯 新遠征隊")
-                                        .weight(Text.TextWeight.BOLD)
-                                        .size(FlexFontSize.LG)
-                                        .color("#FFFFFF")
-                                        .build()
-                        ))
-                        .backgroundColor("#667eea")
-                        .paddingAll("13px")
-                        .build())
-                .body(Box.builder()
-                        .layout(FlexLayout.VERTICAL)
-                        .contents(Arrays.asList(
-                                Text.builder()
-                                        .text(raidTitle)
-                                        .weight(Text.TextWeight.BOLD)
-                                        .size(FlexFontSize.XL)
-                                        .margin(FlexMarginSize.MD)
-                                        .build(),
-                                Box.builder()
-                                        .layout(FlexLayout.VERTICAL)
-                                        .margin(FlexMarginSize.LG)
-                                        .spacing(FlexMarginSize.SM)
-                                        .contents(bodyContents)
-                                        .build()
-                        ))
-                        .build())
-                .footer(Box.builder()
-                        .layout(FlexLayout.VERTICAL)
-                        .contents(Arrays.asList(
-                                Text.builder()
-                                        .text("點擊 LIFF 連結報名參加！")
-                                        .size(FlexFontSize.SM)
-                                        .color("#999999")
-                                        .align(FlexAlign.CENTER)
-                                        .build()
-                        ))
-                        .build())
-                .build();
-    }
-    
-    /**
-     * 建立報名通知的 Flex Message Bubble
-     */
-    private Bubble createSignupBubble(String raidTitle, String userName, String characterName, String job, Integer level, int currentCount, int maxCount, String creatorName) {
-        String jobLevel = job != null ? job : "未設定";
-        if (level != null) {
-            jobLevel += " Lv." + level;
-        }
-        
-        boolean isFull = currentCount >= maxCount;
-        String statusColor = isFull ? "#e74c3c" : "#27ae60";
-        String statusText = isFull ? "已滿員" : currentCount + "/" + maxCount + " 人";
-        
-        return Bubble.builder()
-                .header(Box.builder()
-                        .layout(FlexLayout.VERTICAL)
-                        .contents(Arrays.asList(
-                                Text.builder()
-                                        .text("✅ 報名成功")
-                                        .weight(Text.TextWeight.BOLD)
-                                        .size(FlexFontSize.LG)
-                                        .color("#FFFFFF")
-                                        .build()
-                        ))
-                        .backgroundColor("#27ae60")
-                        .paddingAll("13px")
-                        .build())
-                .body(Box.builder()
-                        .layout(FlexLayout.VERTICAL)
-                        .contents(Arrays.asList(
-                                Text.builder()
-                                        .text(raidTitle)
-                                        .weight(Text.TextWeight.BOLD)
-                                        .size(FlexFontSize.XL)
-                                        .margin(FlexMarginSize.MD)
-                                        .build(),
-                                Box.builder()
-                                        .layout(FlexLayout.VERTICAL)
-                                        .margin(FlexMarginSize.LG)
-                                        .spacing(FlexMarginSize.SM)
-                                        .contents(Arrays.asList(
-                                                createInfoRow("🎯 隊長", creatorName),
-                                                createInfoRow("👤 玩家", userName),
-                                                createInfoRow("⚔️ 角色", characterName),
-                                                createInfoRow("💼 職業", jobLevel),
-                                                Box.builder()
-                                                        .layout(FlexLayout.HORIZONTAL)
-                                                        .contents(Arrays.asList(
-                                                                Text.builder()
-                                                                        .text("👥 人數")
-                                                                        .size(FlexFontSize.SM)
-                                                                        .color("#555555")
-                                                                        .flex(0)
-                                                                        .build(),
-                                                                Text.builder()
-                                                                        .text(statusText)
-                                                                        .size(FlexFontSize.SM)
-                                                                        .color(statusColor)
-                                                                        .weight(Text.TextWeight.BOLD)
-                                                                        .align(FlexAlign.END)
-                                                                        .build()
-                                                        ))
-                                                        .build()
-                                        ))
-                                        .build()
-                        ))
-                        .build())
+                .contents(LineFlexTemplates.cancelSignup(raidTitle, userName, characterName, currentCount, maxCount, creatorName))
                 .build();
-    }
-    
-    /**
-     * 建立取消報名通知的 Flex Message Bubble
-     */
-    private Bubble createCancelSignupBubble(String raidTitle, String userName, String characterName, int currentCount, int maxCount, String creatorName) {
-        String statusColor = "#999999";
-        String statusText = currentCount + "/" + maxCount + " 人";
         
-        return Bubble.builder()
-                .header(Box.builder()
-                        .layout(FlexLayout.VERTICAL)
-                        .contents(Arrays.asList(
-                                Text.builder()
-                                        .text("❌ 取消報名")
-                                        .weight(Text.TextWeight.BOLD)
-                                        .size(FlexFontSize.LG)
-                                        .color("#FFFFFF")
-                                        .build()
-                        ))
-                        .backgroundColor("#e74c3c")
-                        .paddingAll("13px")
-                        .build())
-                .body(Box.builder()
-                        .layout(FlexLayout.VERTICAL)
-                        .contents(Arrays.asList(
-                                Text.builder()
-                                        .text(raidTitle)
-                                        .weight(Text.TextWeight.BOLD)
-                                        .size(FlexFontSize.XL)
-                                        .margin(FlexMarginSize.MD)
-                                        .build(),
-                                Box.builder()
-                                        .layout(FlexLayout.VERTICAL)
-                                        .margin(FlexMarginSize.LG)
-                                        .spacing(FlexMarginSize.SM)
-                                        .contents(Arrays.asList(
-                                                createInfoRow("🎯 隊長", creatorName),
-                                                createInfoRow("👤 玩家", userName),
-                                                createInfoRow("⚔️ 角色", characterName),
-                                                Box.builder()
-                                                        .layout(FlexLayout.HORIZONTAL)
-                                                        .contents(Arrays.asList(
-                                                                Text.builder()
-                                                                        .text("👥 人數")
-                                                                        .size(FlexFontSize.SM)
-                                                                        .color("#555555")
-                                                                        .flex(0)
-                                                                        .build(),
-                                                                Text.builder()
-                                                                        .text(statusText)
-                                                                        .size(FlexFontSize.SM)
-                                                                        .color(statusColor)
-                                                                        .weight(Text.TextWeight.BOLD)
-                                                                        .align(FlexAlign.END)
-                                                                        .build()
-                                                        ))
-                                                        .build()
-                                        ))
-                                        .build()
-                        ))
-                        .build())
-                .build();
-    }
-    
-    /**
-     * 建立資訊列
-     */
-    private FlexComponent createInfoRow(String label, String value) {
-        return Box.builder()
-                .layout(FlexLayout.HORIZONTAL)
-                .contents(Arrays.asList(
-                        Text.builder()
-                                .text(label)
-                                .size(FlexFontSize.SM)
-                                .color("#555555")
-                                .flex(0)
-                                .build(),
-                        Text.builder()
-                                .text(value)
-                                .size(FlexFontSize.SM)
-                                .color("#111111")
-                                .align(FlexAlign.END)
-                                .build()
-                ))
-                .build();
+        return linePushPipeline.push("cancel-signup", eventKey, new PushMessage(groupId, flexMessage));
     }
 }
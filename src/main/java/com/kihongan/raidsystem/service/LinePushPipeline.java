@@ -0,0 +1,248 @@
+package com.kihongan.raidsystem.service;
+
+import com.kihongan.raidsystem.metrics.OperationTimer;
+import com.linecorp.bot.client.LineMessagingClient;
+import com.linecorp.bot.client.exception.GeneralLineMessagingException;
+import com.linecorp.bot.client.exception.LineMessagingException;
+import com.linecorp.bot.client.exception.LineServerException;
+import com.linecorp.bot.client.exception.TooManyRequestsException;
+import com.linecorp.bot.model.PushMessage;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Non-blocking delivery of LINE push messages.
+ *
+ * Pushes are chained on the client's CompletableFuture instead of waiting on it, so
+ * the caller returns immediately. Each call has its own timeout; 429 and 5xx
+ * responses (and timeouts) are retried with exponential backoff from a scheduler.
+ * At most {@code max-in-flight} pushes, including those waiting for a retry, are
+ * outstanding at once; anything beyond that is rejected and counted rather than
+ * queued without bound. A push can carry the key of the event it announces; keys of
+ * delivered pushes are remembered, and each attempt checks them first so an event
+ * relayed again is not pushed twice.
+ *
+ * Attempts go through a {@link CircuitBreaker}: 5xx answers, timeouts and transport
+ * errors count as failures, and while the breaker is open an attempt fails at once
+ * instead of waiting out its timeout and retries.
+ */
+@Component
+public class LinePushPipeline {
+
+    private static final Logger log = LoggerFactory.getLogger(LinePushPipeline.class);
+
+    static final String SUCCESS = OperationTimer.SUCCESS;
+    static final String RATE_LIMITED = "rate_limited";
+    static final String SERVER_ERROR = "server_error";
+    static final String TIMEOUT = "timeout";
+    static final String ERROR = OperationTimer.ERROR;
+
+    private final LineMessagingClient lineMessagingClient;
+    private final Semaphore inFlight;
+    private final long timeoutMs;
+    private final int maxAttempts;
+    private final long backoffMs;
+    private final ScheduledExecutorService retryScheduler;
+    private final OperationTimer pushTimer;
+    private final DedupWindow sentKeys;
+    private final CircuitBreaker breaker;
+
+    private final Counter accepted;
+    private final Counter rejected;
+    private final Counter retried;
+    private final Counter gaveUp;
+    private final Counter duplicates;
+    private final Counter breakerOpen;
+
+    public LinePushPipeline(
+            LineMessagingClient lineMessagingClient,
+            @Value("${app.line.push.max-in-flight:16}") int maxInFlight,
+            @Value("${app.line.push.timeout-ms:10000}") long timeoutMs,
+            @Value("${app.line.push.max-attempts:4}") int maxAttempts,
+            @Value("${app.line.push.backoff-ms:1000}") long backoffMs,
+            @Value("${app.line.push.dedup-capacity:10000}") int dedupCapacity,
+            @Value("${app.line.push.dedup-ttl-ms:3600000}") long dedupTtlMs,
+            @Value("${app.line.push.breaker.failure-threshold:5}") int failureThreshold,
+            @Value("${app.line.push.breaker.open-ms:30000}") long openMs,
+            MeterRegistry meterRegistry) {
+        this.lineMessagingClient = lineMessagingClient;
+        this.inFlight = new Semaphore(maxInFlight);
+        this.timeoutMs = timeoutMs;
+        this.maxAttempts = maxAttempts;
+        this.backoffMs = backoffMs;
+        this.retryScheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "line-push-retry");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.pushTimer = new OperationTimer(meterRegistry, "raid.notification", "channel", "line");
+        this.sentKeys = new DedupWindow(dedupCapacity, dedupTtlMs);
+        // raid.notification.breaker.state{breaker=line}, raid.notification.breaker.transitions{breaker=line}
+        this.breaker = new CircuitBreaker("line", failureThreshold, openMs, meterRegistry);
+
+        this.accepted = pushCounter(meterRegistry, "accepted");
+        this.rejected = pushCounter(meterRegistry, "rejected");
+        this.retried = pushCounter(meterRegistry, "retried");
+        this.gaveUp = pushCounter(meterRegistry, "gave_up");
+        this.duplicates = pushCounter(meterRegistry, "duplicate");
+        this.breakerOpen = pushCounter(meterRegistry, "breaker_open");
+        Gauge.builder("raid.notification.line.in_flight", inFlight, s -> maxInFlight - s.availablePermits())
+                .description("LINE pushes sent or waiting for a retry")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Starts delivering a push message that is not tied to an event.
+     */
+    public CompletableFuture<Boolean> push(String name, PushMessage message) {
+        return push(name, null, message);
+    }
+
+    /**
+     * Starts delivering a push message. Never blocks the caller.
+     *
+     * @param eventKey key of the event the message announces, or null
+     * @return completes with true once LINE accepted the message (or an earlier push
+     *         of the same event), false if it was rejected by the in-flight limit or
+     *         failed for good; never completes exceptionally
+     */
+    public CompletableFuture<Boolean> push(String name, String eventKey, PushMessage message) {
+        CompletableFuture<Boolean> result = new CompletableFuture<>();
+        if (!inFlight.tryAcquire()) {
+            rejected.increment();
+            log.warn("Too many LINE pushes in flight, dropping {}", name);
+            result.complete(false);
+            return result;
+        }
+        accepted.increment();
+        send(name, eventKey, message, 0, result);
+        return result;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        retryScheduler.shutdownNow();
+    }
+
+    private void send(String name, String eventKey, PushMessage message, int attempt,
+                      CompletableFuture<Boolean> result) {
+        if (eventKey != null && sentKeys.contains(eventKey)) {
+            duplicates.increment();
+            finish(result, true);
+            return;
+        }
+        if (!breaker.tryAcquire()) {
+            breakerOpen.increment();
+            log.warn("LINE API unavailable (circuit open), dropping push {}", name);
+            finish(result, false);
+            return;
+        }
+        long start = System.nanoTime();
+        CompletableFuture<?> call;
+        try {
+            call = lineMessagingClient.pushMessage(message);
+        } catch (RuntimeException e) {
+            call = CompletableFuture.failedFuture(e);
+        }
+        call.orTimeout(timeoutMs, TimeUnit.MILLISECONDS)
+                .whenComplete((response, error) -> {
+                    String outcome = error == null ? SUCCESS : classify(unwrap(error));
+                    pushTimer.record("push", outcome, System.nanoTime() - start);
+                    if (reachedLine(outcome, error == null ? null : unwrap(error))) {
+                        breaker.onSuccess();
+                    } else {
+                        breaker.onFailure();
+                    }
+                    if (error == null) {
+                        if (eventKey != null) {
+                            sentKeys.remember(eventKey);
+                        }
+                        finish(result, true);
+                    } else {
+                        retryOrGiveUp(name, eventKey, message, attempt, outcome, unwrap(error), result);
+                    }
+                });
+    }
+
+    private void retryOrGiveUp(String name, String eventKey, PushMessage message, int attempt, String outcome,
+                               Throwable error, CompletableFuture<Boolean> result) {
+        boolean retryable = !ERROR.equals(outcome);
+        if (!retryable || attempt + 1 >= maxAttempts) {
+            gaveUp.increment();
+            log.error("LINE push {} failed after {} attempt(s): {}", name, attempt + 1, error.toString());
+            finish(result, false);
+            return;
+        }
+
+        // 1s, 2s, 4s, ...
+        long delayMs = backoffMs << attempt;
+        retried.increment();
+        log.warn("LINE push {} failed ({}), retrying in {}ms", name, outcome, delayMs);
+        try {
+            retryScheduler.schedule(() -> send(name, eventKey, message, attempt + 1, result),
+                    delayMs, TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException e) {
+            finish(result, false);
+        }
+    }
+
+    private void finish(CompletableFuture<Boolean> result, boolean delivered) {
+        inFlight.release();
+        result.complete(delivered);
+    }
+
+    static String classify(Throwable error) {
+        if (error instanceof TooManyRequestsException) {
+            return RATE_LIMITED;
+        }
+        if (error instanceof LineServerException) {
+            return SERVER_ERROR;
+        }
+        if (error instanceof TimeoutException) {
+            return TIMEOUT;
+        }
+        return ERROR;
+    }
+
+    /**
+     * Whether LINE answered the call. A 429 or 4xx still shows the API is up; 5xx,
+     * timeouts and errors that never got an answer count against the breaker.
+     */
+    static boolean reachedLine(String outcome, Throwable error) {
+        if (SERVER_ERROR.equals(outcome) || TIMEOUT.equals(outcome)) {
+            return false;
+        }
+        return error == null
+                || (error instanceof LineMessagingException && !(error instanceof GeneralLineMessagingException));
+    }
+
+    private static Throwable unwrap(Throwable error) {
+        while ((error instanceof CompletionException || error instanceof ExecutionException)
+                && error.getCause() != null) {
+            error = error.getCause();
+        }
+        return error;
+    }
+
+    private static Counter pushCounter(MeterRegistry meterRegistry, String result) {
+        return Counter.builder("raid.notification.line.push")
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,49 @@
+package com.kihongan.raidsystem.service;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * A destination for raid notifications (Discord, LINE, ...).
+ *
+ * Implementations are called by {@link NotificationFanout}. A method hands the message
+ * to the channel's own transport (queue, rate limiter, retries) and returns without
+ * waiting for it. The returned future completes with true once the channel has
+ * accepted the message (e.g. Discord answered the webhook call), and with false if
+ * it was dropped or failed for good; it never completes exceptionally.
+ *
+ * Every method gets an {@code eventKey} naming the change it announces (event, raid,
+ * signup). The same change always has the same key, so a channel can skip a message
+ * it already delivered when the change is relayed again.
+ */
+public interface NotificationChannel {
+
+    /**
+     * Short name used in logs and metric tags.
+     */
+    String name();
+
+    /**
+     * Whether the channel is configured; disabled channels get no events.
+     */
+    boolean isEnabled();
+
+    /**
+     * A raid was created; the character fields are null if the creator did not sign up.
+     */
+    CompletableFuture<Boolean> raidCreated(String eventKey, Long raidId, String raidTitle, String creatorName,
+                                           LocalDateTime startTime, String subtitle,
+                                           String characterName, String job, Integer level);
+
+    CompletableFuture<Boolean> signupAdded(String eventKey, RosterSnapshot roster, String userName,
+                                           String characterName, String job, Integer level);
+
+    CompletableFuture<Boolean> signupCancelled(String eventKey, RosterSnapshot roster, String userName,
+                                               String characterName);
+
+    /**
+     * Several signups/cancels of one raid.
+     */
+    CompletableFuture<Boolean> rosterUpdated(String eventKey, RosterSnapshot roster, List<String> changes);
+}
@@ -0,0 +1,235 @@
+package com.kihongan.raidsystem.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Bounded executor for outgoing notifications (Discord webhooks, ...).
+ *
+ * Deliveries are queued on a fixed-size queue drained by a fixed worker pool, so a
+ * signup burst never grows the thread count. A delivery that asks to be retried is
+ * re-queued by a scheduler after its delay instead of sleeping on a worker; one that
+ * is deferred (e.g. by a rate limiter, before sending) is re-queued the same way
+ * without using up an attempt. When the queue is full the new delivery is dropped
+ * and counted (drop-newest), which keeps memory flat and preserves the order of what
+ * is already queued. Every dispatch returns the delivery's outcome, so callers learn
+ * about drops and give-ups instead of assuming the notification went out.
+ */
+@Component
+public class NotificationDispatcher {
+
+    private static final Logger log = LoggerFactory.getLogger(NotificationDispatcher.class);
+
+    private final ThreadPoolExecutor workers;
+    private final ScheduledExecutorService retryScheduler;
+    private final int maxAttempts;
+
+    private final Counter accepted;
+    private final Counter dropped;
+    private final Counter retried;
+    private final Counter deferred;
+    private final Counter gaveUp;
+    private final Counter failed;
+
+    public NotificationDispatcher(
+            @Value("${app.notification.workers:2}") int workerCount,
+            @Value("${app.notification.queue-capacity:256}") int queueCapacity,
+            @Value("${app.notification.max-attempts:5}") int maxAttempts,
+            MeterRegistry meterRegistry) {
+        this.maxAttempts = maxAttempts;
+
+        AtomicInteger threadIndex = new AtomicInteger();
+        this.workers = new ThreadPoolExecutor(
+                workerCount, workerCount, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                r -> daemon(r, "notification-worker-" + threadIndex.incrementAndGet()),
+                new ThreadPoolExecutor.AbortPolicy());
+        this.retryScheduler = Executors.newSingleThreadScheduledExecutor(r -> daemon(r, "notification-retry"));
+
+        this.accepted = dispatchCounter(meterRegistry, "accepted");
+        this.dropped = dispatchCounter(meterRegistry, "dropped");
+        this.retried = dispatchCounter(meterRegistry, "retried");
+        this.deferred = dispatchCounter(meterRegistry, "deferred");
+        this.gaveUp = dispatchCounter(meterRegistry, "gave_up");
+        this.failed = dispatchCounter(meterRegistry, "failed");
+        Gauge.builder("raid.notification.queue.depth", workers, executor -> executor.getQueue().size())
+                .description("Notifications waiting for a worker")
+                .register(meterRegistry);
+        Gauge.builder("raid.notification.active", workers, ThreadPoolExecutor::getActiveCount)
+                .description("Notifications currently being delivered")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Queues a delivery. Never blocks the caller.
+     *
+     * @return completes with true once the delivery returned {@link DeliveryResult#done()},
+     *         and with false if it was dropped (queue full), threw or ran out of attempts
+     */
+    public CompletableFuture<Boolean> dispatch(String name, Delivery delivery) {
+        Job job = new Job(name, delivery);
+        if (enqueue(job)) {
+            accepted.increment();
+        }
+        return job.outcome;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        retryScheduler.shutdownNow();
+        workers.shutdown();
+        try {
+            // Give queued notifications a moment to go out before the JVM stops
+            workers.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        workers.shutdownNow();
+    }
+
+    private boolean enqueue(Job job) {
+        try {
+            workers.execute(() -> run(job));
+            return true;
+        } catch (RejectedExecutionException e) {
+            dropped.increment();
+            log.warn("Notification queue full, dropping {} (attempt {})", job.name, job.attempt + 1);
+            job.outcome.complete(false);
+            return false;
+        }
+    }
+
+    private void run(Job job) {
+        DeliveryResult result;
+        try {
+            result = job.delivery.attempt(job.attempt);
+        } catch (Exception e) {
+            failed.increment();
+            log.error("Notification {} failed: {}", job.name, e.getMessage());
+            job.outcome.complete(false);
+            return;
+        }
+
+        if (result.retryAfterMs < 0) {
+            job.outcome.complete(true);
+            return;
+        }
+
+        if (result.deferred) {
+            deferred.increment();
+        } else {
+            job.attempt++;
+            if (job.attempt >= maxAttempts) {
+                gaveUp.increment();
+                log.error("Notification {} failed after {} attempts, giving up", job.name, maxAttempts);
+                job.outcome.complete(false);
+                return;
+            }
+            retried.increment();
+        }
+
+        try {
+            retryScheduler.schedule(() -> enqueue(job), result.retryAfterMs, TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException e) {
+            dropped.increment();
+            job.outcome.complete(false);
+        }
+    }
+
+    private static Counter dispatchCounter(MeterRegistry meterRegistry, String result) {
+        return Counter.builder("raid.notification.dispatch")
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+
+    private static Thread daemon(Runnable runnable, String name) {
+        Thread thread = new Thread(runnable, name);
+        thread.setDaemon(true);
+        return thread;
+    }
+
+    /**
+     * One delivery attempt of a notification.
+     */
+    @FunctionalInterface
+    public interface Delivery {
+
+        /**
+         * @param attempt zero-based attempt number
+         * @return {@link DeliveryResult#done()}, {@link DeliveryResult#retryAfter(long)}
+         *         or {@link DeliveryResult#deferFor(long)}
+         */
+        DeliveryResult attempt(int attempt) throws Exception;
+    }
+
+    /**
+     * Outcome of a delivery attempt: finished, retry after a delay, or not attempted yet.
+     */
+    public static final class DeliveryResult {
+        private static final DeliveryResult DONE = new DeliveryResult(-1, false);
+
+        private final long retryAfterMs;
+        private final boolean deferred;
+
+        private DeliveryResult(long retryAfterMs, boolean deferred) {
+            this.retryAfterMs = retryAfterMs;
+            this.deferred = deferred;
+        }
+
+        public static DeliveryResult done() {
+            return DONE;
+        }
+
+        /**
+         * The attempt failed and should be retried; counts towards the attempt limit.
+         */
+        public static DeliveryResult retryAfter(long delayMs) {
+            return new DeliveryResult(Math.max(0, delayMs), false);
+        }
+
+        /**
+         * Nothing was sent; try again later without using up an attempt.
+         */
+        public static DeliveryResult deferFor(long delayMs) {
+            return new DeliveryResult(Math.max(0, delayMs), true);
+        }
+
+        public boolean isRetry() {
+            return retryAfterMs >= 0;
+        }
+
+        public long getRetryAfterMs() {
+            return retryAfterMs;
+        }
+    }
+
+    /**
+     * Queued delivery with its attempt counter and outcome.
+     */
+    private static final class Job {
+        private final String name;
+        private final Delivery delivery;
+        private final CompletableFuture<Boolean> outcome = new CompletableFuture<>();
+        private int attempt;
+
+        private Job(String name, Delivery delivery) {
+            this.name = name;
+            this.delivery = delivery;
+        }
+    }
+}
@@ -0,0 +1,186 @@
+package com.kihongan.raidsystem.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Fans each notification out to every enabled {@link NotificationChannel}.
+ *
+ * Channels only enqueue on their own transport, each bounded, timed out and guarded
+ * by its own circuit breaker (Discord's dispatcher with its rate limiter, LINE's push
+ * pipeline with its in-flight limit), so a slow or failing channel is
+ * contained by that transport and never delays the others or the caller. The
+ * returned future completes once every channel has reported back, with true only if
+ * all of them delivered, so a dropped or failed message reaches the caller instead
+ * of being counted as sent.
+ *
+ * Each channel remembers the signup/cancel change keys it has announced. A change is
+ * never announced twice on the same channel, even when a retry regroups it with other
+ * changes after another channel failed: a roster update sends each channel only the
+ * changes it has not announced yet, and skips a channel that announced all of them.
+ *
+ * Metrics per channel: counter {@code raid.notification.channel{channel,result}} with
+ * result delivered|failed.
+ */
+@Component
+public class NotificationFanout {
+
+    private static final Logger log = LoggerFactory.getLogger(NotificationFanout.class);
+
+    // Same bounds as the channels' own dedup windows
+    private static final int ANNOUNCED_CAPACITY = 10000;
+    private static final long ANNOUNCED_TTL_MS = TimeUnit.HOURS.toMillis(1);
+
+    private final List<Channel> channels = new ArrayList<>();
+
+    public NotificationFanout(List<NotificationChannel> channels, MeterRegistry meterRegistry) {
+        for (NotificationChannel channel : channels) {
+            this.channels.add(new Channel(channel, meterRegistry));
+        }
+    }
+
+    public CompletableFuture<Boolean> raidCreated(String eventKey, Long raidId, String raidTitle, String creatorName,
+                                                  LocalDateTime startTime, String subtitle,
+                                                  String characterName, String job, Integer level) {
+        return publish("raid-created", channel -> channel.raidCreated(
+                eventKey, raidId, raidTitle, creatorName, startTime, subtitle, characterName, job, level));
+    }
+
+    public CompletableFuture<Boolean> signupAdded(String eventKey, RosterSnapshot roster, String userName,
+                                                  String characterName, String job, Integer level) {
+        return publishChange("signup-added", eventKey,
+                channel -> channel.signupAdded(eventKey, roster, userName, characterName, job, level));
+    }
+
+    public CompletableFuture<Boolean> signupCancelled(String eventKey, RosterSnapshot roster, String userName,
+                                                      String characterName) {
+        return publishChange("signup-cancelled", eventKey,
+                channel -> channel.signupCancelled(eventKey, roster, userName, characterName));
+    }
+
+    /**
+     * Several signups/cancels of one raid.
+     *
+     * @param changes change key to the line announcing it (null if there is nothing to show),
+     *                in the order the lines are listed
+     */
+    public CompletableFuture<Boolean> rosterUpdated(RosterSnapshot roster, Map<String, String> changes) {
+        List<CompletableFuture<Boolean>> results = new ArrayList<>();
+        for (Channel channel : channels) {
+            if (!channel.channel.isEnabled()) {
+                continue;
+            }
+            List<String> keys = new ArrayList<>();
+            List<String> lines = new ArrayList<>();
+            changes.forEach((key, line) -> {
+                if (!channel.announced.contains(key)) {
+                    keys.add(key);
+                    if (line != null) {
+                        lines.add(line);
+                    }
+                }
+            });
+            if (keys.isEmpty()) {
+                continue;
+            }
+            if (lines.isEmpty()) {
+                channel.remember(keys);
+                continue;
+            }
+            // Keyed only by the changes it covers, in a stable order, whatever order they arrived in
+            List<String> sortedKeys = new ArrayList<>(keys);
+            Collections.sort(sortedKeys);
+            String eventKey = "roster-updated:" + roster.getRaidId() + ":" + String.join(",", sortedKeys);
+            results.add(channel.deliver("roster-updated", keys,
+                    target -> target.rosterUpdated(eventKey, roster, lines)));
+        }
+        return allDelivered(results);
+    }
+
+    private CompletableFuture<Boolean> publish(String event,
+                                               Function<NotificationChannel, CompletableFuture<Boolean>> delivery) {
+        List<CompletableFuture<Boolean>> results = new ArrayList<>();
+        for (Channel channel : channels) {
+            if (channel.channel.isEnabled()) {
+                results.add(channel.deliver(event, List.of(), delivery));
+            }
+        }
+        return allDelivered(results);
+    }
+
+    private CompletableFuture<Boolean> publishChange(String event, String changeKey,
+                                                     Function<NotificationChannel, CompletableFuture<Boolean>> delivery) {
+        List<CompletableFuture<Boolean>> results = new ArrayList<>();
+        for (Channel channel : channels) {
+            if (channel.channel.isEnabled() && !channel.announced.contains(changeKey)) {
+                results.add(channel.deliver(event, List.of(changeKey), delivery));
+            }
+        }
+        return allDelivered(results);
+    }
+
+    private static CompletableFuture<Boolean> allDelivered(List<CompletableFuture<Boolean>> results) {
+        return CompletableFuture.allOf(results.toArray(new CompletableFuture<?>[0]))
+                .thenApply(ignored -> results.stream().allMatch(CompletableFuture::join));
+    }
+
+    /**
+     * One channel with its delivery counters and the change keys it has announced.
+     */
+    private static final class Channel {
+        private final NotificationChannel channel;
+        private final DedupWindow announced = new DedupWindow(ANNOUNCED_CAPACITY, ANNOUNCED_TTL_MS);
+        private final Counter delivered;
+        private final Counter failed;
+
+        private Channel(NotificationChannel channel, MeterRegistry meterRegistry) {
+            this.channel = channel;
+            this.delivered = channelCounter(meterRegistry, channel.name(), "delivered");
+            this.failed = channelCounter(meterRegistry, channel.name(), "failed");
+        }
+
+        private void remember(List<String> changeKeys) {
+            changeKeys.forEach(announced::remember);
+        }
+
+        private CompletableFuture<Boolean> deliver(String event, List<String> changeKeys,
+                                                   Function<NotificationChannel, CompletableFuture<Boolean>> delivery) {
+            CompletableFuture<Boolean> result;
+            try {
+                result = delivery.apply(channel);
+            } catch (RuntimeException e) {
+                result = CompletableFuture.failedFuture(e);
+            }
+            return result.handle((accepted, error) -> {
+                if (error == null && Boolean.TRUE.equals(accepted)) {
+                    remember(changeKeys);
+                    delivered.increment();
+                    return true;
+                }
+                failed.increment();
+                log.warn("Notification {} to {} was not delivered{}", event, channel.name(),
+                        error != null ? ": " + error.getMessage() : "");
+                return false;
+            });
+        }
+
+        private static Counter channelCounter(MeterRegistry meterRegistry, String channel, String result) {
+            return Counter.builder("raid.notification.channel")
+                    .tag("channel", channel)
+                    .tag("result", result)
+                    .register(meterRegistry);
+        }
+    }
+}
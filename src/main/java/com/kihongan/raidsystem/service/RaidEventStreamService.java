@@ -0,0 +1,343 @@
+package com.kihongan.raidsystem.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.kihongan.raidsystem.domain.raid.RaidBoardCache;
+import com.kihongan.raidsystem.domain.raid.RaidBoardEvent;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Server-Sent Events registry for live raid board updates.
+ *
+ * Idle connections cost one emitter and a small bounded queue each; no thread is
+ * held while a client is idle. Events are serialized once and fanned out to every
+ * client's queue, then drained by a small shared pool. A client whose queue fills
+ * up (slow or stalled phone) is disconnected and will reconnect and reload.
+ *
+ * A write that blocks longer than the send timeout also disconnects its client. The
+ * blocked sender thread cannot be reclaimed until the write returns, so the pool
+ * temporarily grows by one thread per stalled write (up to a cap) and the other
+ * clients keep their senders.
+ */
+@Service
+public class RaidEventStreamService {
+
+    private static final Logger log = LoggerFactory.getLogger(RaidEventStreamService.class);
+
+    private static final int MAX_PENDING_EVENTS = 16;
+    private static final long EMITTER_TIMEOUT_MS = 30 * 60 * 1000L;
+    private static final long RECONNECT_DELAY_MS = 30000L;
+    private static final int SENDER_THREADS = 2;
+    private static final int MAX_STALLED_SENDERS = 8;
+
+    private final Set<Client> clients = ConcurrentHashMap.newKeySet();
+    private final RaidBoardCache raidBoardCache;
+    private final ObjectMapper objectMapper;
+    private final int maxClients;
+    private final long sendTimeoutMs;
+    private final ScheduledExecutorService heartbeatScheduler;
+    private final ThreadPoolExecutor senders;
+    private final AtomicInteger stalledSenders = new AtomicInteger();
+    private final Supplier<SseEmitter> emitterFactory;
+
+    @Autowired
+    public RaidEventStreamService(
+            RaidBoardCache raidBoardCache,
+            ObjectMapper objectMapper,
+            @Value("${app.stream.max-clients:500}") int maxClients,
+            @Value("${app.stream.heartbeat-seconds:20}") long heartbeatSeconds,
+            @Value("${app.stream.send-timeout-ms:5000}") long sendTimeoutMs) {
+        this(raidBoardCache, objectMapper, maxClients, heartbeatSeconds, sendTimeoutMs,
+                () -> new SseEmitter(EMITTER_TIMEOUT_MS));
+    }
+
+    RaidEventStreamService(RaidBoardCache raidBoardCache, ObjectMapper objectMapper, int maxClients,
+                           long heartbeatSeconds, long sendTimeoutMs, Supplier<SseEmitter> emitterFactory) {
+        this.emitterFactory = emitterFactory;
+        this.raidBoardCache = raidBoardCache;
+        this.objectMapper = objectMapper;
+        this.maxClients = maxClients;
+        this.sendTimeoutMs = sendTimeoutMs;
+        this.heartbeatScheduler = Executors.newSingleThreadScheduledExecutor(r -> daemon(r, "raid-stream-heartbeat"));
+        // Runs SENDER_THREADS threads; the core size is only raised while writes are stalled
+        this.senders = new ThreadPoolExecutor(
+                SENDER_THREADS, SENDER_THREADS + MAX_STALLED_SENDERS, 30L, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(),
+                r -> daemon(r, "raid-stream-sender"));
+        this.heartbeatScheduler.scheduleAtFixedRate(this::sendHeartbeats, heartbeatSeconds, heartbeatSeconds, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Registers a new stream client and sends it the current board version.
+     */
+    public SseEmitter subscribe() {
+        SseEmitter emitter = emitterFactory.get();
+
+        if (clients.size() >= maxClients) {
+            // Over capacity: tell EventSource to retry later instead of holding a slot
+            try {
+                emitter.send(SseEmitter.event().reconnectTime(RECONNECT_DELAY_MS).comment("busy"));
+            } catch (IOException ignored) {
+            }
+            emitter.complete();
+            return emitter;
+        }
+
+        Client client = new Client(emitter);
+        clients.add(client);
+        emitter.onCompletion(() -> clients.remove(client));
+        emitter.onTimeout(() -> disconnect(client));
+        emitter.onError(e -> clients.remove(client));
+
+        long version = raidBoardCache.getBoardVersion();
+        Map<String, Object> hello = new LinkedHashMap<>();
+        hello.put("version", version);
+        enqueue(client, new StreamEvent("hello", Long.toString(version), toJson(hello)));
+        return emitter;
+    }
+
+    /**
+     * Fans a committed board change out to all connected clients.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onRaidBoardEvent(RaidBoardEvent event) {
+        if (clients.isEmpty()) {
+            return;
+        }
+
+        long version = raidBoardCache.getBoardVersion();
+        Map<String, Object> payload = new LinkedHashMap<>();
+        payload.put("type", event.getType().getEventName());
+        payload.put("raidId", event.getRaidId());
+        payload.put("signupCount", event.getSignupCount());
+        payload.put("isFull", event.getIsFull());
+        payload.put("version", version);
+
+        StreamEvent streamEvent = new StreamEvent(event.getType().getEventName(), Long.toString(version), toJson(payload));
+        for (Client client : clients) {
+            enqueue(client, streamEvent);
+        }
+    }
+
+    /**
+     * Number of currently connected stream clients.
+     */
+    public int getClientCount() {
+        return clients.size();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        heartbeatScheduler.shutdownNow();
+        senders.shutdownNow();
+        for (Client client : clients) {
+            client.emitter.complete();
+        }
+        clients.clear();
+    }
+
+    private void sendHeartbeats() {
+        for (Client client : clients) {
+            // Only ping idle clients; a queued event already keeps the connection alive
+            if (client.queue.isEmpty()) {
+                enqueue(client, StreamEvent.HEARTBEAT);
+            }
+        }
+    }
+
+    private void enqueue(Client client, StreamEvent event) {
+        if (!client.queue.offer(event)) {
+            log.debug("SSE client fell behind, disconnecting");
+            disconnect(client);
+            return;
+        }
+        scheduleDrain(client);
+    }
+
+    private void scheduleDrain(Client client) {
+        if (!client.draining.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            senders.execute(() -> drain(client));
+        } catch (Exception e) {
+            client.draining.set(false);
+        }
+    }
+
+    private void drain(Client client) {
+        try {
+            StreamEvent event;
+            while (clients.contains(client) && (event = client.queue.poll()) != null) {
+                if (!send(client, event)) {
+                    return;
+                }
+            }
+        } finally {
+            client.draining.set(false);
+        }
+
+        // An event may have arrived between the last poll and releasing the flag
+        if (!client.queue.isEmpty()) {
+            scheduleDrain(client);
+        }
+    }
+
+    /**
+     * Writes one event, giving up on the client if the write blocks past the send timeout.
+     *
+     * @return false if the client was disconnected
+     */
+    private boolean send(Client client, StreamEvent event) {
+        // The watchdog and the end of the write are serialized on this monitor, so the
+        // sender is only interrupted while it is still inside this write
+        SendWatch watch = new SendWatch(Thread.currentThread());
+        ScheduledFuture<?> timeout = heartbeatScheduler.schedule(
+                () -> onStalled(client, watch), sendTimeoutMs, TimeUnit.MILLISECONDS);
+
+        boolean failed = false;
+        try {
+            client.emitter.send(event.toBuilder());
+        } catch (IOException | IllegalStateException e) {
+            failed = true;
+        }
+
+        boolean stalled;
+        synchronized (watch) {
+            watch.writing = false;
+            stalled = watch.stalled;
+        }
+        if (stalled) {
+            // The watchdog already dropped the client; clear its interrupt and hand the extra thread back
+            Thread.interrupted();
+            stalledSenders.decrementAndGet();
+            resizeSenders();
+            client.emitter.complete();
+            return false;
+        }
+        timeout.cancel(false);
+
+        if (failed) {
+            disconnect(client);
+            return false;
+        }
+        return true;
+    }
+
+    private void onStalled(Client client, SendWatch watch) {
+        synchronized (watch) {
+            if (!watch.writing) {
+                return;
+            }
+            // Counted before the sender can see the flag, so its decrement always follows
+            stalledSenders.incrementAndGet();
+            watch.stalled = true;
+            watch.sender.interrupt();
+        }
+        log.debug("SSE client write blocked for {}ms, disconnecting", sendTimeoutMs);
+        // Completing the emitter here would block on the stalled write, so only forget the
+        // client now; the sender completes it once the write returns
+        clients.remove(client);
+        client.queue.clear();
+        resizeSenders();
+    }
+
+    private synchronized void resizeSenders() {
+        senders.setCorePoolSize(SENDER_THREADS + Math.min(stalledSenders.get(), MAX_STALLED_SENDERS));
+    }
+
+    private void disconnect(Client client) {
+        if (clients.remove(client)) {
+            client.queue.clear();
+            client.emitter.complete();
+        }
+    }
+
+    private String toJson(Object value) {
+        try {
+            return objectMapper.writeValueAsString(value);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to serialize stream event", e);
+        }
+    }
+
+    private static Thread daemon(Runnable runnable, String name) {
+        Thread thread = new Thread(runnable, name);
+        thread.setDaemon(true);
+        return thread;
+    }
+
+    /**
+     * Connected client with its bounded outgoing queue.
+     */
+    private static final class Client {
+        private final SseEmitter emitter;
+        private final BlockingQueue<StreamEvent> queue = new ArrayBlockingQueue<>(MAX_PENDING_EVENTS);
+        private final AtomicBoolean draining = new AtomicBoolean();
+
+        private Client(SseEmitter emitter) {
+            this.emitter = emitter;
+        }
+    }
+
+    /**
+     * State of one write, shared by the sender and its watchdog; guarded by its own monitor.
+     */
+    private static final class SendWatch {
+        private final Thread sender;
+        private boolean writing = true;
+        private boolean stalled;
+
+        private SendWatch(Thread sender) {
+            this.sender = sender;
+        }
+    }
+
+    /**
+     * Pre-serialized event shared by all clients.
+     */
+    private static final class StreamEvent {
+        private static final StreamEvent HEARTBEAT = new StreamEvent(null, null, null);
+
+        private final String name;
+        private final String id;
+        private final String json;
+
+        private StreamEvent(String name, String id, String json) {
+            this.name = name;
+            this.id = id;
+            this.json = json;
+        }
+
+        private SseEmitter.SseEventBuilder toBuilder() {
+            if (this == HEARTBEAT) {
+                return SseEmitter.event().comment("ping");
+            }
+            return SseEmitter.event().name(name).id(id).data(json);
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package com.kihongan.raidsystem.service;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * A raid and its roster at the moment a notification is sent.
+ */
+public class RosterSnapshot {
+
+    private final Long raidId;
+    private final String raidTitle;
+    private final String subtitle;
+    private final LocalDateTime startTime;
+    private final String creatorName;
+    private final int currentCount;
+    private final int maxCount;
+    private final List<String> memberList;
+
+    public RosterSnapshot(Long raidId, String raidTitle, String subtitle, LocalDateTime startTime,
+                          String creatorName, int currentCount, int maxCount, List<String> memberList) {
+        this.raidId = raidId;
+        this.raidTitle = raidTitle;
+        this.subtitle = subtitle;
+        this.startTime = startTime;
+        this.creatorName = creatorName;
+        this.currentCount = currentCount;
+        this.maxCount = maxCount;
+        this.memberList = memberList;
+    }
+
+    // Getters
+
+    public Long getRaidId() {
+        return raidId;
+    }
+
+    public String getRaidTitle() {
+        return raidTitle;
+    }
+
+    public String getSubtitle() {
+        return subtitle;
+    }
+
+    public LocalDateTime getStartTime() {
+        return startTime;
+    }
+
+    public String getCreatorName() {
+        return creatorName;
+    }
+
+    public int getCurrentCount() {
+        return currentCount;
+    }
+
+    public int getMaxCount() {
+        return maxCount;
+    }
+
+    public List<String> getMemberList() {
+        return memberList;
+    }
+
+    public boolean isFull() {
+        return currentCount >= maxCount;
+    }
+}
@@ -47,8 +47,30 @@ CREATE TABLE IF NOT EXISTS raid_signups (
     UNIQUE(raid_id, character_id)
 );
 
+-- Notification outbox (written in the same transaction as the raid/signup change)
+CREATE TABLE IF NOT EXISTS notification_outbox (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    event_type TEXT NOT NULL,
+    raid_id BIGINT,
+    payload TEXT NOT NULL,
+    status TEXT NOT NULL DEFAULT 'pending',
+    attempts INTEGER NOT NULL DEFAULT 0,
+    available_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    processed_at TIMESTAMP
+);
+
+-- Discord message posted for each raid, edited in place on roster changes
+CREATE TABLE IF NOT EXISTS discord_raid_messages (
+    raid_id BIGINT PRIMARY KEY,
+    message_id TEXT NOT NULL,
+    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    FOREIGN KEY (raid_id) REFERENCES raids(id) ON DELETE CASCADE
+);
+
 -- Indexes
 CREATE INDEX IF NOT EXISTS idx_characters_user_id ON characters(user_id);
 CREATE INDEX IF NOT EXISTS idx_raids_start_time ON raids(start_time);
 CREATE INDEX IF NOT EXISTS idx_raid_signups_raid_id ON raid_signups(raid_id);
 CREATE INDEX IF NOT EXISTS idx_raid_signups_character_id ON raid_signups(character_id);
+CREATE INDEX IF NOT EXISTS idx_notification_outbox_pending ON notification_outbox(status, available_at);
@@ -22,6 +22,7 @@ public abstract class BaseIntegrationTest {
     @BeforeEach
     void cleanDatabase() {
         // Clean up tables in reverse order of dependencies
+        jdbcTemplate.execute("DELETE FROM notification_outbox");
         jdbcTemplate.execute("DELETE FROM raid_signups");
         jdbcTemplate.execute("DELETE FROM raids");
         jdbcTemplate.execute("DELETE FROM characters");
@@ -0,0 +1,45 @@
+package com.kihongan.raidsystem.controller;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * Unit tests for LineCommandRouter.
+ * Tests alias lookup, normalization and rejection of ordinary chatter.
+ */
+class LineCommandRouterTest {
+
+    private final LineCommandRouter router = new LineCommandRouter()
+            .register("raids", (groupId, replyToken) -> { }, "!raids", "!遠征")
+            .register("help", (groupId, replyToken) -> { }, "!help");
+
+    @Test
+    void aliasesResolveToTheSameCommandIgnoringCaseAndSpaces() {
+        // WHEN the command is looked up by its aliases
+        LineCommandRouter.Command byName = router.find("!raids");
+        LineCommandRouter.Command byAlias = router.find("  !遠征 ");
+        LineCommandRouter.Command mixedCase = router.find("!RAIDS");
+
+        // THEN they all find the raids command
+        assertThat(byName.getName()).isEqualTo("raids");
+        assertThat(byAlias).isSameAs(byName);
+        assertThat(mixedCase).isSameAs(byName);
+    }
+
+    @Test
+    void chatterAndUnknownCommandsAreNotMatched() {
+        // THEN plain messages are rejected by the prefix check, unknown commands by lookup
+        assertThat(LineCommandRouter.isCandidate("今晚誰要打遠征")).isFalse();
+        assertThat(LineCommandRouter.isCandidate("")).isFalse();
+        assertThat(router.find("raids")).isNull();
+        assertThat(router.find("!unknown")).isNull();
+    }
+
+    @Test
+    void duplicateAliasIsRejected() {
+        // THEN registering an alias twice fails
+        assertThatThrownBy(() -> router.register("other", (groupId, replyToken) -> { }, "!HELP"))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
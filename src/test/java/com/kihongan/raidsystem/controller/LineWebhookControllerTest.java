@@ -0,0 +1,228 @@
+package com.kihongan.raidsystem.controller;
+
+import com.kihongan.raidsystem.domain.raid.Raid;
+import com.kihongan.raidsystem.domain.raid.RaidService;
+import com.kihongan.raidsystem.service.LineEventDedup;
+import com.kihongan.raidsystem.service.LineEventProcessor;
+import com.kihongan.raidsystem.service.LineGroupLimiter;
+import com.linecorp.bot.client.LineMessagingClient;
+import com.linecorp.bot.model.ReplyMessage;
+import com.linecorp.bot.model.event.MessageEvent;
+import com.linecorp.bot.model.event.message.TextMessageContent;
+import com.linecorp.bot.model.event.source.GroupSource;
+import com.linecorp.bot.model.message.TextMessage;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for LineWebhookController.
+ * Tests that a LINE event is only recorded as handled once it was admitted and queued,
+ * so an event that was turned away runs when LINE sends it again, that a command the
+ * processor rejected does not swallow the next identical command, and that the !raids
+ * reply is reused until the raid list version changes (not on signups), and that a hung reply call
+ * times out.
+ */
+class LineWebhookControllerTest {
+
+    private final LineMessagingClient lineMessagingClient = mock(LineMessagingClient.class);
+    private final RaidService raidService = mock(RaidService.class);
+    private final LineEventProcessor lineEventProcessor = mock(LineEventProcessor.class);
+    private final LineGroupLimiter lineGroupLimiter = mock(LineGroupLimiter.class);
+    private final LineEventDedup lineEventDedup = new LineEventDedup(100, 60_000, new SimpleMeterRegistry());
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final LineWebhookController controller = new LineWebhookController();
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(controller, "lineMessagingClient", lineMessagingClient);
+        ReflectionTestUtils.setField(controller, "raidService", raidService);
+        ReflectionTestUtils.setField(controller, "lineEventProcessor", lineEventProcessor);
+        ReflectionTestUtils.setField(controller, "lineGroupLimiter", lineGroupLimiter);
+        ReflectionTestUtils.setField(controller, "lineEventDedup", lineEventDedup);
+        ReflectionTestUtils.setField(controller, "replyTimeoutMs", 1000L);
+        controller.setMeterRegistry(meterRegistry);
+
+        when(lineMessagingClient.replyMessage(any())).thenReturn(CompletableFuture.completedFuture(null));
+        when(lineGroupLimiter.admit(anyString(), anyString())).thenReturn(LineGroupLimiter.Decision.ALLOWED);
+        // Run commands inline instead of on a LINE event worker
+        when(lineEventProcessor.submit(anyString(), any())).thenAnswer(invocation -> {
+            invocation.<Runnable>getArgument(1).run();
+            return true;
+        });
+    }
+
+    @Test
+    void acceptedEventIsNotRunAgainWhenResent() {
+        // GIVEN a command event that was handled
+        controller.handleTextMessage(event("ev-1", "!help"));
+
+        // WHEN LINE sends the same event again
+        controller.handleTextMessage(event("ev-1", "!help"));
+
+        // THEN the command ran once
+        verify(lineEventProcessor, times(1)).submit(anyString(), any());
+    }
+
+    @Test
+    void eventTurnedAwayByTheGroupLimiterRunsWhenResent() {
+        // GIVEN a command event the group's budget turned away
+        when(lineGroupLimiter.admit(anyString(), anyString()))
+                .thenReturn(LineGroupLimiter.Decision.THROTTLED, LineGroupLimiter.Decision.ALLOWED);
+        controller.handleTextMessage(event("ev-1", "!help"));
+
+        // WHEN LINE sends the same event again
+        controller.handleTextMessage(event("ev-1", "!help"));
+
+        // THEN it is not mistaken for a handled event
+        verify(lineEventProcessor, times(1)).submit(anyString(), any());
+    }
+
+    @Test
+    void coalescedEventIsNotRunWhenResent() {
+        // GIVEN a command event that joined an identical command already answered
+        when(lineGroupLimiter.admit(anyString(), anyString()))
+                .thenReturn(LineGroupLimiter.Decision.ALLOWED, LineGroupLimiter.Decision.COALESCED,
+                        LineGroupLimiter.Decision.ALLOWED);
+        controller.handleTextMessage(event("ev-1", "!help"));
+        controller.handleTextMessage(event("ev-2", "!help"));
+
+        // WHEN LINE sends it again after the coalescing window
+        controller.handleTextMessage(event("ev-2", "!help"));
+
+        // THEN it counts as handled and only the first command ran
+        verify(lineGroupLimiter, times(2)).admit(anyString(), anyString());
+        verify(lineEventProcessor, times(1)).submit(anyString(), any());
+    }
+
+    @Test
+    void eventDroppedByAFullQueueRunsWhenResent() {
+        // GIVEN a command event the processor dropped because its queue was full
+        doReturn(false, true).when(lineEventProcessor).submit(anyString(), any());
+        controller.handleTextMessage(event("ev-1", "!help"));
+
+        // WHEN LINE sends the same event again, and once more after it was accepted
+        controller.handleTextMessage(event("ev-1", "!help"));
+        controller.handleTextMessage(event("ev-1", "!help"));
+
+        // THEN it was queued again, and skipped only after that
+        verify(lineEventProcessor, times(2)).submit(anyString(), any());
+    }
+
+    @Test
+    void commandRejectedByAFullQueueDoesNotCoalesceTheNextOne() {
+        // GIVEN a real group limiter and a command the processor rejected
+        ReflectionTestUtils.setField(controller, "lineGroupLimiter",
+                new LineGroupLimiter(5_000, 5, 60_000, 16, new SimpleMeterRegistry()));
+        doReturn(false, true).when(lineEventProcessor).submit(anyString(), any());
+        controller.handleTextMessage(event("ev-1", "!help"));
+
+        // WHEN another member sends the same command inside the coalescing window
+        controller.handleTextMessage(event("ev-2", "!help"));
+
+        // THEN it is queued and answered
+        verify(lineEventProcessor, times(2)).submit(anyString(), any());
+    }
+
+    @Test
+    void raidsReplyIsReusedWhileTheBoardIsUnchanged() {
+        // GIVEN a raid list at version 5
+        when(raidService.getRaidListVersion()).thenReturn(5L);
+        when(raidService.listRaids()).thenReturn(List.of(raid("Zakum")));
+
+        // WHEN !raids is asked twice
+        controller.handleTextMessage(event("ev-1", "!raids"));
+        controller.handleTextMessage(event("ev-2", "!raids"));
+
+        // THEN the raids are loaded once and both replies list them
+        verify(raidService, times(1)).listRaids();
+        assertThat(replies()).hasSize(2).allSatisfy(text -> assertThat(text).contains("Zakum"));
+    }
+
+    @Test
+    void boardChangeRendersTheReplyAgain() {
+        // GIVEN a reply rendered at version 5
+        when(raidService.getRaidListVersion()).thenReturn(5L, 6L);
+        when(raidService.listRaids()).thenReturn(List.of(raid("Zakum")), List.of(raid("Zakum"), raid("Horntail")));
+        controller.handleTextMessage(event("ev-1", "!raids"));
+
+        // WHEN a raid is created and !raids is asked again
+        controller.handleTextMessage(event("ev-2", "!raids"));
+
+        // THEN the raids are loaded again and the new raid is listed
+        verify(raidService, times(2)).listRaids();
+        List<String> replies = replies();
+        assertThat(replies.get(0)).doesNotContain("Horntail");
+        assertThat(replies.get(1)).contains("Horntail");
+    }
+
+    @Test
+    void signupDoesNotRenderTheReplyAgain() {
+        // GIVEN a reply rendered while the board was at version 5
+        when(raidService.getRaidListVersion()).thenReturn(5L);
+        when(raidService.getRaidBoardVersion()).thenReturn(5L, 6L);
+        when(raidService.listRaids()).thenReturn(List.of(raid("Zakum")));
+        controller.handleTextMessage(event("ev-1", "!raids"));
+
+        // WHEN someone signs up (the board moves, the raid list does not) and !raids is asked again
+        controller.handleTextMessage(event("ev-2", "!raids"));
+
+        // THEN the raids are not loaded again
+        verify(raidService, times(1)).listRaids();
+        assertThat(replies()).hasSize(2).allSatisfy(text -> assertThat(text).contains("Zakum"));
+    }
+
+    @Test
+    void hungReplyTimesOutInsteadOfHoldingTheWorker() {
+        // GIVEN a LINE reply call that never answers
+        ReflectionTestUtils.setField(controller, "replyTimeoutMs", 50L);
+        when(lineMessagingClient.replyMessage(any())).thenReturn(new CompletableFuture<>());
+
+        // WHEN a command is handled on the worker
+        assertTimeoutPreemptively(Duration.ofSeconds(5),
+                () -> controller.handleTextMessage(event("ev-1", "!help")));
+
+        // THEN the command gives up and is recorded as failed
+        assertThat(meterRegistry.timer("raid.line.webhook", "operation", "help", "outcome", "error").count())
+                .isEqualTo(1);
+    }
+
+    private List<String> replies() {
+        ArgumentCaptor<ReplyMessage> captor = ArgumentCaptor.forClass(ReplyMessage.class);
+        verify(lineMessagingClient, atLeastOnce()).replyMessage(captor.capture());
+        return captor.getAllValues().stream()
+                .map(reply -> ((TextMessage) reply.getMessages().get(0)).getText())
+                .toList();
+    }
+
+    private static Raid raid(String title) {
+        return new Raid(1L, title, null, null, Instant.parse("2026-01-15T12:00:00Z"), 1L, Instant.now());
+    }
+
+    @SuppressWarnings("unchecked")
+    private static MessageEvent<TextMessageContent> event(String webhookEventId, String text) {
+        TextMessageContent message = mock(TextMessageContent.class);
+        when(message.getText()).thenReturn(text);
+        GroupSource source = mock(GroupSource.class);
+        when(source.getGroupId()).thenReturn("G1");
+        MessageEvent<TextMessageContent> event = mock(MessageEvent.class);
+        when(event.getMessage()).thenReturn(message);
+        when(event.getSource()).thenReturn(source);
+        when(event.getWebhookEventId()).thenReturn(webhookEventId);
+        when(event.getReplyToken()).thenReturn("reply-token");
+        return event;
+    }
+}
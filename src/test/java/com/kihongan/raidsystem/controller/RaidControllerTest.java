@@ -0,0 +1,102 @@
+package com.kihongan.raidsystem.controller;
+
+import com.kihongan.raidsystem.domain.raid.RaidService;
+import com.kihongan.raidsystem.domain.signup.SignupService;
+import com.kihongan.raidsystem.service.RaidEventStreamService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.util.List;
+
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * Unit tests for RaidController's conditional GETs.
+ * Tests that a matching If-None-Match on the raid board or a roster returns 304
+ * without loading it, and that a changed version after a write gives a new ETag
+ * and a full response.
+ */
+class RaidControllerTest {
+
+    private final RaidService raidService = mock(RaidService.class);
+    private final SignupService signupService = mock(SignupService.class);
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        RaidController controller = new RaidController(raidService, signupService, mock(RaidEventStreamService.class));
+        mockMvc = MockMvcBuilders.standaloneSetup(controller).build();
+        when(raidService.getRaidBoard()).thenReturn(List.of());
+        when(signupService.getRaidSignups(7L)).thenReturn(List.of());
+    }
+
+    @Test
+    void unchangedBoardIsNotModified() throws Exception {
+        // GIVEN a client holding the board at version 5
+        when(raidService.getRaidBoardVersion()).thenReturn(5L);
+
+        // WHEN it asks again with that ETag
+        mockMvc.perform(get("/raids").header("If-None-Match", "\"board-5\""))
+
+                // THEN it gets a 304 and the board is not loaded
+                .andExpect(status().isNotModified())
+                .andExpect(header().string("ETag", "\"board-5\""))
+                .andExpect(content().string(""));
+        verify(raidService, never()).getRaidBoard();
+    }
+
+    @Test
+    void boardWriteChangesTheETag() throws Exception {
+        // GIVEN a client that got the board at version 5, and a write that moved it to 6
+        when(raidService.getRaidBoardVersion()).thenReturn(5L, 6L);
+        mockMvc.perform(get("/raids"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"board-5\""));
+
+        // WHEN it asks again with the old ETag
+        mockMvc.perform(get("/raids").header("If-None-Match", "\"board-5\""))
+
+                // THEN it gets the reloaded board with the new ETag
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"board-6\""))
+                .andExpect(jsonPath("$").isArray());
+        verify(raidService, times(2)).getRaidBoard();
+    }
+
+    @Test
+    void unchangedRosterIsNotModified() throws Exception {
+        // GIVEN a client holding raid 7's roster at version 3
+        when(signupService.getRaidSignupsVersion(7L)).thenReturn(3L);
+
+        // WHEN it asks again with that ETag
+        mockMvc.perform(get("/raids/7/signups").header("If-None-Match", "\"roster-7-3\""))
+
+                // THEN it gets a 304 and the roster is not loaded
+                .andExpect(status().isNotModified())
+                .andExpect(header().string("ETag", "\"roster-7-3\""))
+                .andExpect(content().string(""));
+        verify(signupService, never()).getRaidSignups(7L);
+    }
+
+    @Test
+    void rosterWriteChangesTheETag() throws Exception {
+        // GIVEN a client that got raid 7's roster at version 3, and a signup that moved it to 4
+        when(signupService.getRaidSignupsVersion(7L)).thenReturn(3L, 4L);
+        mockMvc.perform(get("/raids/7/signups"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"roster-7-3\""));
+
+        // WHEN it asks again with the old ETag
+        mockMvc.perform(get("/raids/7/signups").header("If-None-Match", "\"roster-7-3\""))
+
+                // THEN it gets the reloaded roster with the new ETag
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"roster-7-4\""))
+                .andExpect(jsonPath("$").isArray());
+        verify(signupService, times(2)).getRaidSignups(7L);
+    }
+}
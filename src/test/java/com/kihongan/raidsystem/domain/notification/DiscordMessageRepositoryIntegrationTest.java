@@ -0,0 +1,72 @@
+package com.kihongan.raidsystem.domain.notification;
+
+import com.kihongan.raidsystem.BaseIntegrationTest;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Integration tests for DiscordMessageRepository.
+ * Tests recording, replacing and forgetting the announcement of a raid, and that
+ * deleting the raid removes its announcement.
+ */
+class DiscordMessageRepositoryIntegrationTest extends BaseIntegrationTest {
+
+    @Autowired
+    private DiscordMessageRepository messageRepository;
+
+    @Test
+    void savedMessageIsFoundAndReplaced() {
+        // GIVEN a raid with a recorded announcement
+        Long raidId = createRaid();
+        messageRepository.save(raidId, "111");
+
+        // WHEN the raid is announced again
+        messageRepository.save(raidId, "222");
+
+        // THEN the newer message is the one found
+        assertThat(messageRepository.findMessageId(raidId)).contains("222");
+        assertThat(jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM discord_raid_messages WHERE raid_id = ?", Integer.class, raidId)).isEqualTo(1);
+    }
+
+    @Test
+    void deletedMessageIsNoLongerFound() {
+        // GIVEN a raid with a recorded announcement
+        Long raidId = createRaid();
+        messageRepository.save(raidId, "111");
+
+        // WHEN it is forgotten
+        messageRepository.delete(raidId);
+
+        // THEN the raid has no announcement
+        assertThat(messageRepository.findMessageId(raidId)).isEmpty();
+    }
+
+    @Test
+    void deletingTheRaidRemovesItsMessage() {
+        // GIVEN a raid with a recorded announcement
+        Long raidId = createRaid();
+        messageRepository.save(raidId, "111");
+
+        // WHEN the raid is deleted
+        jdbcTemplate.update("DELETE FROM raids WHERE id = ?", raidId);
+
+        // THEN its announcement goes with it
+        assertThat(messageRepository.findMessageId(raidId)).isEmpty();
+    }
+
+    private Long createRaid() {
+        jdbcTemplate.update("INSERT INTO users (line_user_id, name) VALUES (?, ?)", "U1", "U1");
+        Long userId = jdbcTemplate.queryForObject("SELECT id FROM users WHERE line_user_id = ?", Long.class, "U1");
+        String title = "Raid " + System.nanoTime();
+        jdbcTemplate.update("INSERT INTO raids (title, start_time, created_by) VALUES (?, ?, ?)",
+                title, Timestamp.from(Instant.now().plus(1, ChronoUnit.DAYS)), userId);
+        return jdbcTemplate.queryForObject("SELECT id FROM raids WHERE title = ?", Long.class, title);
+    }
+}
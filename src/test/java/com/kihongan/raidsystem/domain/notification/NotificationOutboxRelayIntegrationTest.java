@@ -0,0 +1,100 @@
+package com.kihongan.raidsystem.domain.notification;
+
+import com.kihongan.raidsystem.BaseIntegrationTest;
+import com.kihongan.raidsystem.service.NotificationFanout;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.mock.mockito.MockBean;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.when;
+
+/**
+ * Integration tests for NotificationOutboxRelay.
+ * Tests that a row is marked delivered only once the channels report it delivered,
+ * that a notification they did not deliver is retried, and that a signup row without
+ * a signup id is never sent.
+ */
+class NotificationOutboxRelayIntegrationTest extends BaseIntegrationTest {
+
+    @Autowired
+    private NotificationOutboxRelay relay;
+
+    @Autowired
+    private NotificationOutboxRepository outboxRepository;
+
+    @MockBean
+    private NotificationFanout notificationFanout;
+
+    @Test
+    void rowIsMarkedDeliveredOnlyOnceTheChannelsAnswer() {
+        // GIVEN a raid announcement, keyed by its raid, whose delivery has not finished yet
+        CompletableFuture<Boolean> delivery = new CompletableFuture<>();
+        when(notificationFanout.raidCreated(eq("raid-created:1"), any(), any(), any(), any(), any(), any(), any(), any()))
+                .thenReturn(delivery);
+        Long id = enqueueRaidCreated();
+
+        // WHEN the relay hands it over
+        relay.relay();
+
+        // THEN the row stays leased until the channels answer
+        assertThat(status(id)).isEqualTo("processing");
+        delivery.complete(true);
+        assertThat(status(id)).isEqualTo("done");
+    }
+
+    @Test
+    void undeliveredRowIsRetriedLater() {
+        // GIVEN a raid announcement the channels drop
+        when(notificationFanout.raidCreated(any(), any(), any(), any(), any(), any(), any(), any(), any()))
+                .thenReturn(CompletableFuture.completedFuture(false));
+        Long id = enqueueRaidCreated();
+
+        // WHEN the relay hands it over
+        Instant before = Instant.now();
+        relay.relay();
+
+        // THEN it goes back to pending with a backoff instead of being marked delivered
+        assertThat(status(id)).isEqualTo("pending");
+        assertThat(jdbcTemplate.queryForObject(
+                "SELECT attempts FROM notification_outbox WHERE id = ?", Integer.class, id)).isEqualTo(1);
+        assertThat(jdbcTemplate.queryForObject(
+                "SELECT available_at FROM notification_outbox WHERE id = ?", Timestamp.class, id).toInstant())
+                .isAfter(before);
+    }
+
+    @Test
+    void signupRowWithoutSignupIdIsNotHandedOver() {
+        // GIVEN a signup notification whose payload lacks the signup id that keys it
+        outboxRepository.enqueue(OutboxMessage.SIGNUP_ADDED, 1L, """
+                {"characterId":7}
+                """);
+        Long id = jdbcTemplate.queryForObject("SELECT MAX(id) FROM notification_outbox", Long.class);
+
+        // WHEN the relay picks it up
+        relay.relay();
+
+        // THEN it is counted as a failed attempt instead of being sent under a made-up key
+        assertThat(status(id)).isEqualTo("pending");
+        assertThat(jdbcTemplate.queryForObject(
+                "SELECT attempts FROM notification_outbox WHERE id = ?", Integer.class, id)).isEqualTo(1);
+    }
+
+    private Long enqueueRaidCreated() {
+        outboxRepository.enqueue(OutboxMessage.RAID_CREATED, 1L, """
+                {"title":"Zakum","subtitle":null,"startTime":"2026-01-15T12:00:00Z",
+                 "creatorName":"Leader","characterName":null,"job":null,"level":null}
+                """);
+        return jdbcTemplate.queryForObject("SELECT MAX(id) FROM notification_outbox", Long.class);
+    }
+
+    private String status(Long id) {
+        return jdbcTemplate.queryForObject("SELECT status FROM notification_outbox WHERE id = ?", String.class, id);
+    }
+}
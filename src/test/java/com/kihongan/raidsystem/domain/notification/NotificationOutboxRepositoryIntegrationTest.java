@@ -0,0 +1,97 @@
+package com.kihongan.raidsystem.domain.notification;
+
+import com.kihongan.raidsystem.BaseIntegrationTest;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Integration tests for NotificationOutboxRepository.
+ * Tests that claimed rows are leased, that a leased row is only claimed again once
+ * its lease expires, and that a relay that lost its lease cannot record an outcome. Skipping rows locked by another relay needs PostgreSQL and is
+ * covered by {@link NotificationOutboxSkipLockedIntegrationTest}.
+ */
+class NotificationOutboxRepositoryIntegrationTest extends BaseIntegrationTest {
+
+    private static final Duration LEASE = Duration.ofMinutes(2);
+
+    @Autowired
+    private NotificationOutboxRepository outboxRepository;
+
+    @Test
+    void claimedRowsAreLeasedAndNotClaimedAgain() {
+        // GIVEN three pending notifications
+        enqueue(3);
+
+        // WHEN the relay claims them
+        Instant before = Instant.now();
+        List<OutboxMessage> claimed = outboxRepository.claimBatch(10, LEASE);
+
+        // THEN they are leased in insertion order and a second claim finds nothing
+        assertThat(claimed).hasSize(3);
+        assertThat(claimed).extracting(OutboxMessage::getAttempts).containsOnly(1);
+        assertThat(claimed.get(0).getId()).isLessThan(claimed.get(1).getId());
+        for (OutboxMessage message : claimed) {
+            assertThat(status(message.getId())).isEqualTo("processing");
+            assertThat(availableAt(message.getId())).isAfter(before.plus(LEASE).minusSeconds(1));
+        }
+        assertThat(outboxRepository.claimBatch(10, LEASE)).isEmpty();
+    }
+
+    @Test
+    void rowIsClaimedAgainOnceItsLeaseExpires() throws Exception {
+        // GIVEN a notification claimed with a lease that has already run out
+        enqueue(1);
+        OutboxMessage first = outboxRepository.claimBatch(10, Duration.ZERO).get(0);
+        Thread.sleep(5);
+
+        // WHEN the relay claims again
+        List<OutboxMessage> claimed = outboxRepository.claimBatch(10, LEASE);
+
+        // THEN the same row comes back with its attempt counted
+        assertThat(claimed).hasSize(1);
+        assertThat(claimed.get(0).getId()).isEqualTo(first.getId());
+        assertThat(claimed.get(0).getAttempts()).isEqualTo(2);
+    }
+
+    @Test
+    void lateOutcomeDoesNotOverwriteARowClaimedAgain() throws Exception {
+        // GIVEN a row whose first lease ran out and that another relay claimed again
+        enqueue(1);
+        OutboxMessage stale = outboxRepository.claimBatch(10, Duration.ZERO).get(0);
+        Thread.sleep(5);
+        OutboxMessage current = outboxRepository.claimBatch(10, LEASE).get(0);
+
+        // WHEN the first relay finishes late
+        int delivered = outboxRepository.markDelivered(stale.getId(), stale.getLeaseUntil());
+        int retried = outboxRepository.retryAt(stale.getId(), stale.getLeaseUntil(), Instant.now());
+        int failed = outboxRepository.markFailed(stale.getId(), stale.getLeaseUntil());
+
+        // THEN nothing is recorded, and the relay holding the lease still can
+        assertThat(delivered + retried + failed).isZero();
+        assertThat(status(current.getId())).isEqualTo("processing");
+        assertThat(outboxRepository.markDelivered(current.getId(), current.getLeaseUntil())).isEqualTo(1);
+        assertThat(status(current.getId())).isEqualTo("done");
+    }
+
+    private void enqueue(int count) {
+        for (int i = 0; i < count; i++) {
+            outboxRepository.enqueue(OutboxMessage.SIGNUP_ADDED, 1L, "{\"characterId\":" + i + "}");
+        }
+    }
+
+    private String status(Long id) {
+        return jdbcTemplate.queryForObject("SELECT status FROM notification_outbox WHERE id = ?", String.class, id);
+    }
+
+    private Instant availableAt(Long id) {
+        return jdbcTemplate.queryForObject(
+                "SELECT available_at FROM notification_outbox WHERE id = ?", Timestamp.class, id).toInstant();
+    }
+}
@@ -0,0 +1,106 @@
+package com.kihongan.raidsystem.domain.notification;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Integration tests for NotificationOutboxRepository.claimBatch on PostgreSQL.
+ * Tests that rows locked by another relay are skipped. H2 does not implement
+ * {@code FOR UPDATE SKIP LOCKED}, so this runs against a PostgreSQL container and is
+ * skipped when Docker is not available.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@Testcontainers(disabledWithoutDocker = true)
+class NotificationOutboxSkipLockedIntegrationTest {
+
+    private static final Duration LEASE = Duration.ofMinutes(2);
+
+    @Container
+    private static final PostgreSQLContainer<?> POSTGRES = new PostgreSQLContainer<>("postgres:16-alpine");
+
+    @DynamicPropertySource
+    static void postgresProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", POSTGRES::getJdbcUrl);
+        registry.add("spring.datasource.username", POSTGRES::getUsername);
+        registry.add("spring.datasource.password", POSTGRES::getPassword);
+        registry.add("spring.datasource.driver-class-name", POSTGRES::getDriverClassName);
+    }
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private NotificationOutboxRepository outboxRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @BeforeEach
+    void cleanOutbox() {
+        jdbcTemplate.execute("DELETE FROM notification_outbox");
+    }
+
+    @Test
+    void rowsLockedByAnotherRelayAreSkipped() throws Exception {
+        // GIVEN one relay holding the first two rows in an open transaction
+        for (int i = 0; i < 5; i++) {
+            outboxRepository.enqueue(OutboxMessage.SIGNUP_ADDED, 1L, "{\"characterId\":" + i + "}");
+        }
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        CountDownLatch locked = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService pool = Executors.newSingleThreadExecutor();
+        try {
+            Future<List<OutboxMessage>> holder = pool.submit(() -> transaction.execute(status -> {
+                List<OutboxMessage> claimed = outboxRepository.claimBatch(2, LEASE);
+                locked.countDown();
+                try {
+                    release.await(30, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return claimed;
+            }));
+            assertThat(locked.await(30, TimeUnit.SECONDS)).isTrue();
+
+            // WHEN a second relay claims while those locks are held
+            List<OutboxMessage> claimed = CompletableFuture
+                    .supplyAsync(() -> outboxRepository.claimBatch(10, LEASE))
+                    .get(10, TimeUnit.SECONDS);
+            release.countDown();
+
+            // THEN it gets the other rows without waiting, and no row goes to both
+            List<OutboxMessage> held = holder.get(30, TimeUnit.SECONDS);
+            assertThat(held).hasSize(2);
+            assertThat(claimed).hasSize(3);
+            assertThat(claimed).extracting(OutboxMessage::getId)
+                    .doesNotContainAnyElementsOf(held.stream().map(OutboxMessage::getId).toList());
+        } finally {
+            release.countDown();
+            pool.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,141 @@
+package com.kihongan.raidsystem.domain.raid;
+
+import com.kihongan.raidsystem.domain.raid.dto.RaidDTO;
+import com.kihongan.raidsystem.domain.signup.SignupWithDetails;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * Unit tests for RaidBoardCache.
+ * Tests versioning (board, raid list, rosters), precise invalidation and coalescing of concurrent misses.
+ */
+class RaidBoardCacheTest {
+
+    private RaidBoardCache cache;
+
+    @BeforeEach
+    void setUp() {
+        cache = new RaidBoardCache();
+    }
+
+    @Test
+    void repeatedReadsAreServedFromCache() {
+        // GIVEN a board loader that counts invocations
+        AtomicInteger loads = new AtomicInteger();
+
+        // WHEN the board is read twice without any write
+        cache.getBoard(() -> board(loads));
+        RaidBoardCache.Versioned<List<RaidDTO>> second = cache.getBoard(() -> board(loads));
+
+        // THEN the database is hit only once and the version is unchanged
+        assertThat(loads.get()).isEqualTo(1);
+        assertThat(second.getVersion()).isEqualTo(cache.getBoardVersion());
+    }
+
+    @Test
+    void invalidateRaidReloadsOnlyAffectedEntries() {
+        // GIVEN a cached board and rosters for two raids
+        AtomicInteger boardLoads = new AtomicInteger();
+        AtomicInteger raid1Loads = new AtomicInteger();
+        AtomicInteger raid2Loads = new AtomicInteger();
+        cache.getBoard(() -> board(boardLoads));
+        cache.getRoster(1L, () -> roster(raid1Loads));
+        cache.getRoster(2L, () -> roster(raid2Loads));
+        long boardVersion = cache.getBoardVersion();
+        long raid2Version = cache.getRosterVersion(2L);
+
+        // WHEN raid 1 changes
+        cache.invalidateRaid(1L);
+        cache.getBoard(() -> board(boardLoads));
+        cache.getRoster(1L, () -> roster(raid1Loads));
+        cache.getRoster(2L, () -> roster(raid2Loads));
+
+        // THEN the board and raid 1 are reloaded, raid 2 is untouched
+        assertThat(boardLoads.get()).isEqualTo(2);
+        assertThat(raid1Loads.get()).isEqualTo(2);
+        assertThat(raid2Loads.get()).isEqualTo(1);
+        assertThat(cache.getBoardVersion()).isGreaterThan(boardVersion);
+        assertThat(cache.getRosterVersion(2L)).isEqualTo(raid2Version);
+    }
+
+    @Test
+    void signupsLeaveTheRaidListVersionUnchanged() {
+        // GIVEN the current raid list version
+        long raidListVersion = cache.getRaidListVersion();
+
+        // WHEN a raid's roster changes
+        cache.invalidateRaid(1L);
+
+        // THEN only the board moved
+        assertThat(cache.getRaidListVersion()).isEqualTo(raidListVersion);
+
+        // WHEN a raid is created, and then one is deleted
+        cache.invalidateBoard();
+        long afterCreate = cache.getRaidListVersion();
+        cache.removeRaid(1L);
+
+        // THEN the raid list moved both times
+        assertThat(afterCreate).isGreaterThan(raidListVersion);
+        assertThat(cache.getRaidListVersion()).isGreaterThan(afterCreate);
+    }
+
+    @Test
+    void concurrentMissesAreCoalescedIntoOneLoad() throws Exception {
+        // GIVEN a slow loader that blocks until released
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch loaderStarted = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+
+        try {
+            // WHEN many readers miss at the same time
+            List<Future<List<RaidDTO>>> results = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                results.add(executor.submit(() -> cache.getBoard(() -> {
+                    loaderStarted.countDown();
+                    awaitQuietly(release);
+                    return board(loads);
+                }).getValue()));
+            }
+            assertThat(loaderStarted.await(5, TimeUnit.SECONDS)).isTrue();
+            release.countDown();
+
+            // THEN only one reload runs and every reader gets its result
+            for (Future<List<RaidDTO>> result : results) {
+                assertThat(result.get(5, TimeUnit.SECONDS)).hasSize(1);
+            }
+            assertThat(loads.get()).isEqualTo(1);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static List<RaidDTO> board(AtomicInteger loads) {
+        loads.incrementAndGet();
+        return List.of(new RaidDTO());
+    }
+
+    private static List<SignupWithDetails> roster(AtomicInteger loads) {
+        loads.incrementAndGet();
+        return List.of(new SignupWithDetails());
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package com.kihongan.raidsystem.domain.signup;
+
+import com.kihongan.raidsystem.domain.raid.RaidBoardEvent;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * Unit tests for SignupAdmissionController.
+ * Tests fast rejection of full raids and per-raid bookkeeping.
+ */
+class SignupAdmissionControllerTest {
+    
+    private SignupAdmissionController admission;
+    
+    @BeforeEach
+    void setUp() {
+        admission = new SignupAdmissionController(1000);
+    }
+    
+    @Test
+    void signupIsRejectedWithoutDatabaseOnceRaidIsKnownFull() {
+        // GIVEN a raid whose last signup filled it
+        admission.admitSignup(1L, () -> SignupAttempt.created(new Signup(), 6));
+        
+        // WHEN another signup arrives
+        AtomicInteger inserts = new AtomicInteger();
+        SignupAttempt attempt = admission.admitSignup(1L, () -> {
+            inserts.incrementAndGet();
+            return SignupAttempt.created(new Signup(), 7);
+        });
+        
+        // THEN it is rejected as full without running the insert
+        assertThat(attempt.getOutcome()).isEqualTo(SignupAttempt.Outcome.RAID_FULL);
+        assertThat(inserts.get()).isZero();
+    }
+    
+    @Test
+    void cancelReopensFullRaid() {
+        // GIVEN a full raid
+        admission.admitSignup(1L, () -> SignupAttempt.created(new Signup(), 6));
+        
+        // WHEN a member cancels
+        admission.runExclusive(1L, () -> {
+            admission.recordSignupCount(1L, 5);
+            return null;
+        });
+        
+        // THEN the next signup reaches the database again
+        SignupAttempt attempt = admission.admitSignup(1L, () -> SignupAttempt.created(new Signup(), 6));
+        assertThat(attempt.getOutcome()).isEqualTo(SignupAttempt.Outcome.CREATED);
+    }
+    
+    @Test
+    void fullRaidDoesNotBlockOtherRaids() {
+        // GIVEN raid 1 is full
+        admission.admitSignup(1L, () -> SignupAttempt.created(new Signup(), 6));
+        
+        // WHEN signing up for raid 2
+        SignupAttempt attempt = admission.admitSignup(2L, () -> SignupAttempt.created(new Signup(), 1));
+        
+        // THEN it is admitted
+        assertThat(attempt.getOutcome()).isEqualTo(SignupAttempt.Outcome.CREATED);
+    }
+    
+    @Test
+    void deletedRaidForgetsKnownState() {
+        // GIVEN a full raid that is then deleted
+        admission.admitSignup(1L, () -> SignupAttempt.created(new Signup(), 6));
+        admission.onRaidBoardEvent(RaidBoardEvent.raidDeleted(1L));
+        
+        // WHEN a signup arrives for the same ID
+        AtomicInteger inserts = new AtomicInteger();
+        admission.admitSignup(1L, () -> {
+            inserts.incrementAndGet();
+            return SignupAttempt.rejected(SignupAttempt.Outcome.RAID_NOT_FOUND, 0);
+        });
+        
+        // THEN the database decides
+        assertThat(inserts.get()).isEqualTo(1);
+    }
+}
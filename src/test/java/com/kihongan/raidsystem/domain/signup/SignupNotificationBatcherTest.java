@@ -0,0 +1,149 @@
+package com.kihongan.raidsystem.domain.signup;
+
+import com.kihongan.raidsystem.domain.raid.Raid;
+import com.kihongan.raidsystem.domain.raid.RaidRepository;
+import com.kihongan.raidsystem.service.NotificationFanout;
+import com.kihongan.raidsystem.service.RosterSnapshot;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.entry;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for SignupNotificationBatcher.
+ * Tests that changes inside one window become a single notification with the final roster,
+ * and that each change gets that notification's outcome. Skipping changes a channel
+ * already announced is covered by NotificationFanoutTest.
+ */
+@ExtendWith(MockitoExtension.class)
+class SignupNotificationBatcherTest {
+
+    @Mock
+    private SignupRepository signupRepository;
+
+    @Mock
+    private RaidRepository raidRepository;
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private NotificationFanout notificationFanout;
+
+    @Captor
+    private ArgumentCaptor<Map<String, String>> changes;
+
+    private SignupNotificationBatcher batcher;
+
+    @BeforeEach
+    void setUp() {
+        // Long window: the test flushes explicitly
+        batcher = new SignupNotificationBatcher(signupRepository, raidRepository, jdbcTemplate,
+                notificationFanout, 60000);
+
+        Raid raid = new Raid();
+        raid.setId(1L);
+        raid.setTitle("Zakum");
+        raid.setCreatedBy(10L);
+        raid.setStartTime(Instant.parse("2026-01-15T12:00:00Z"));
+        when(raidRepository.findById(1L)).thenReturn(Optional.of(raid));
+        when(jdbcTemplate.queryForObject(anyString(), eq(String.class), eq(10L))).thenReturn("Leader");
+    }
+
+    @AfterEach
+    void tearDown() {
+        batcher.shutdown();
+    }
+
+    @Test
+    void burstOfChangesIsSentAsOneMessageWithFinalRoster() {
+        // GIVEN three signups and one cancel inside the same window
+        SignupWithDetails alice = details(1L, "Alice");
+        SignupWithDetails bob = details(2L, "Bob");
+        SignupWithDetails carol = details(3L, "Carol");
+        when(signupRepository.findByRaidIdWithDetails(1L)).thenReturn(List.of(alice, carol));
+        when(notificationFanout.rosterUpdated(any(), any())).thenReturn(CompletableFuture.completedFuture(true));
+
+        batcher.signupAdded("signup-added:1:1", 1L, 1L);
+        batcher.signupAdded("signup-added:1:2", 1L, 2L);
+        batcher.signupAdded("signup-added:1:3", 1L, 3L);
+        batcher.signupCancelled("signup-cancelled:1:2", 1L, bob);
+
+        // WHEN the window closes
+        batcher.flush(1L);
+
+        // THEN one roster message is sent with every change and the final roster
+        ArgumentCaptor<RosterSnapshot> roster = ArgumentCaptor.forClass(RosterSnapshot.class);
+        verify(notificationFanout).rosterUpdated(roster.capture(), changes.capture());
+        assertThat(changes.getValue()).containsExactly(
+                entry("signup-added:1:1", "✅ Alice (Alice-user)"),
+                entry("signup-added:1:2", "✅ Bob (Bob-user)"),
+                entry("signup-added:1:3", "✅ Carol (Carol-user)"),
+                entry("signup-cancelled:1:2", "❌ Bob (Bob-user)"));
+        assertThat(roster.getValue().getRaidTitle()).isEqualTo("Zakum");
+        assertThat(roster.getValue().getCreatorName()).isEqualTo("Leader");
+        assertThat(roster.getValue().getCurrentCount()).isEqualTo(2);
+        assertThat(roster.getValue().getMemberList()).containsExactly("Alice (Hero)", "Carol (Hero)");
+        verify(notificationFanout, never()).signupAdded(any(), any(), any(), any(), any(), any());
+        verify(signupRepository, times(1)).findByRaidIdWithDetails(1L);
+    }
+
+    @Test
+    void singleChangeKeepsTheSignupMessage() {
+        // GIVEN one signup in the window
+        SignupWithDetails alice = details(1L, "Alice");
+        when(signupRepository.findByRaidIdWithDetails(1L)).thenReturn(List.of(alice));
+        when(notificationFanout.signupAdded(any(), any(), any(), any(), any(), any()))
+                .thenReturn(CompletableFuture.completedFuture(true));
+        CompletableFuture<Boolean> outcome = batcher.signupAdded("signup-added:1:1", 1L, 1L);
+        assertThat(outcome).isNotDone();
+
+        // WHEN the window closes
+        batcher.flush(1L);
+
+        // THEN the regular signup message is sent and the change is reported delivered
+        assertThat(outcome.getNow(null)).isTrue();
+        ArgumentCaptor<RosterSnapshot> roster = ArgumentCaptor.forClass(RosterSnapshot.class);
+        verify(notificationFanout).signupAdded(eq("signup-added:1:1"), roster.capture(), eq("Alice-user"), eq("Alice"), eq("Hero"), eq(100));
+        assertThat(roster.getValue().getCurrentCount()).isEqualTo(1);
+        assertThat(roster.getValue().getMaxCount()).isEqualTo(Raid.MAX_PARTICIPANTS);
+        verify(notificationFanout, never()).rosterUpdated(any(), any());
+    }
+
+    @Test
+    void undeliveredBatchFailsEveryChangeInIt() {
+        // GIVEN two signups in the window and a notification the channels do not deliver
+        when(signupRepository.findByRaidIdWithDetails(1L)).thenReturn(List.of(details(1L, "Alice"), details(2L, "Bob")));
+        when(notificationFanout.rosterUpdated(any(), any())).thenReturn(CompletableFuture.completedFuture(false));
+        CompletableFuture<Boolean> alice = batcher.signupAdded("signup-added:1:1", 1L, 1L);
+        CompletableFuture<Boolean> bob = batcher.signupAdded("signup-added:1:2", 1L, 2L);
+
+        // WHEN the window closes
+        batcher.flush(1L);
+
+        // THEN both changes report the failure, so the relay retries them
+        assertThat(alice.getNow(null)).isFalse();
+        assertThat(bob.getNow(null)).isFalse();
+    }
+
+    private static SignupWithDetails details(Long characterId, String name) {
+        return new SignupWithDetails(characterId, characterId, name, "Hero", 100,
+                characterId, name + "-user", null, "confirmed");
+    }
+}
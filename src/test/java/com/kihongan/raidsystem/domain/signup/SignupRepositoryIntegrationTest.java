@@ -0,0 +1,137 @@
+package com.kihongan.raidsystem.domain.signup;
+
+import com.kihongan.raidsystem.BaseIntegrationTest;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Integration tests for SignupRepository.saveIfAllowed.
+ * Tests the capacity and duplicate rules, and that the raid row lock keeps
+ * concurrent signups from overfilling a raid.
+ */
+class SignupRepositoryIntegrationTest extends BaseIntegrationTest {
+
+    @Autowired
+    private SignupRepository signupRepository;
+
+    @Test
+    void signupIsRejectedWhenRaidIsFull() {
+        // GIVEN a raid with capacity 2 that already has 2 signups
+        Long userId = createUser("U1");
+        Long raidId = createRaid(userId);
+        signupRepository.saveIfAllowed(userId, raidId, createCharacter(userId, "A"), 2);
+        signupRepository.saveIfAllowed(userId, raidId, createCharacter(userId, "B"), 2);
+
+        // WHEN a third character signs up
+        SignupAttempt attempt = signupRepository.saveIfAllowed(userId, raidId, createCharacter(userId, "C"), 2);
+
+        // THEN it is rejected and nothing is inserted
+        assertThat(attempt.getOutcome()).isEqualTo(SignupAttempt.Outcome.RAID_FULL);
+        assertThat(attempt.getSignupCount()).isEqualTo(2);
+        assertThat(countSignups(raidId)).isEqualTo(2);
+    }
+
+    @Test
+    void sameCharacterCannotSignUpTwice() {
+        // GIVEN a character already signed up
+        Long userId = createUser("U1");
+        Long raidId = createRaid(userId);
+        Long characterId = createCharacter(userId, "A");
+        SignupAttempt first = signupRepository.saveIfAllowed(userId, raidId, characterId, 6);
+
+        // WHEN it signs up again
+        SignupAttempt second = signupRepository.saveIfAllowed(userId, raidId, characterId, 6);
+
+        // THEN only the first is created
+        assertThat(first.getOutcome()).isEqualTo(SignupAttempt.Outcome.CREATED);
+        assertThat(first.getSignup().getId()).isNotNull();
+        assertThat(second.getOutcome()).isEqualTo(SignupAttempt.Outcome.ALREADY_SIGNED_UP);
+        assertThat(countSignups(raidId)).isEqualTo(1);
+    }
+
+    @Test
+    void concurrentSignupsForTheLastSlotCreateExactlyOne() throws Exception {
+        // GIVEN a raid with one slot left and eight characters ready to take it
+        Long creatorId = createUser("CREATOR");
+        Long raidId = createRaid(creatorId);
+        signupRepository.saveIfAllowed(creatorId, raidId, createCharacter(creatorId, "Creator"), 2);
+
+        int contenders = 8;
+        List<Long> userIds = new ArrayList<>();
+        List<Long> characterIds = new ArrayList<>();
+        for (int i = 0; i < contenders; i++) {
+            Long userId = createUser("U" + i);
+            userIds.add(userId);
+            characterIds.add(createCharacter(userId, "C" + i));
+        }
+
+        // WHEN they all sign up at the same moment
+        ExecutorService pool = Executors.newFixedThreadPool(contenders);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<SignupAttempt>> attempts = new ArrayList<>();
+        try {
+            for (int i = 0; i < contenders; i++) {
+                Long userId = userIds.get(i);
+                Long characterId = characterIds.get(i);
+                attempts.add(pool.submit(() -> {
+                    start.await();
+                    return signupRepository.saveIfAllowed(userId, raidId, characterId, 2);
+                }));
+            }
+            start.countDown();
+
+            // THEN exactly one gets the slot and the rest see a full raid
+            int created = 0;
+            int full = 0;
+            for (Future<SignupAttempt> attempt : attempts) {
+                SignupAttempt.Outcome outcome = attempt.get(30, TimeUnit.SECONDS).getOutcome();
+                if (outcome == SignupAttempt.Outcome.CREATED) {
+                    created++;
+                } else if (outcome == SignupAttempt.Outcome.RAID_FULL) {
+                    full++;
+                }
+            }
+            assertThat(created).isEqualTo(1);
+            assertThat(full).isEqualTo(contenders - 1);
+            assertThat(countSignups(raidId)).isEqualTo(2);
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    private Long createUser(String lineUserId) {
+        jdbcTemplate.update("INSERT INTO users (line_user_id, name) VALUES (?, ?)", lineUserId, lineUserId);
+        return jdbcTemplate.queryForObject("SELECT id FROM users WHERE line_user_id = ?", Long.class, lineUserId);
+    }
+
+    private Long createCharacter(Long userId, String name) {
+        jdbcTemplate.update("INSERT INTO characters (user_id, name, job, level) VALUES (?, ?, ?, ?)",
+                userId, name, "Warrior", 100);
+        return jdbcTemplate.queryForObject(
+                "SELECT id FROM characters WHERE user_id = ? AND name = ?", Long.class, userId, name);
+    }
+
+    private Long createRaid(Long creatorId) {
+        String title = "Raid " + System.nanoTime();
+        jdbcTemplate.update("INSERT INTO raids (title, start_time, created_by) VALUES (?, ?, ?)",
+                title, Timestamp.from(Instant.now().plus(1, ChronoUnit.DAYS)), creatorId);
+        return jdbcTemplate.queryForObject("SELECT id FROM raids WHERE title = ?", Long.class, title);
+    }
+
+    private int countSignups(Long raidId) {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM raid_signups WHERE raid_id = ?", Integer.class, raidId);
+    }
+}
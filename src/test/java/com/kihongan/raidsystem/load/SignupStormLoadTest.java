@@ -0,0 +1,274 @@
+package com.kihongan.raidsystem.load;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.kihongan.raidsystem.security.JwtService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * Hermetic signup-storm load test.
+ *
+ * Boots the full application on a random port against the in-memory H2 database
+ * of the test profile (no Docker, no network) and drives the real controllers over
+ * HTTP: create raids, release a simultaneous signup burst for every raid, cancel
+ * half of the accepted signups, then poll GET /raids. Logs p50/p95/p99 latency
+ * and throughput per operation and checks the final invariants. The outbox and
+ * Discord message tables are cleared too, so rows left by a previous run do not
+ * keep the outbox relay busy during the timed phases.
+ *
+ * Disabled by default. Run with:
+ * <pre>
+ * mvn test -Dtest=SignupStormLoadTest -Dloadtest=true [-Dloadtest.raids=8] [-Dloadtest.users=12]
+ * </pre>
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles("test")
+@EnabledIfSystemProperty(named = "loadtest", matches = "true")
+class SignupStormLoadTest {
+
+    private static final Logger log = LoggerFactory.getLogger(SignupStormLoadTest.class);
+
+    private static final int MAX_PARTICIPANTS = 6;
+
+    private final int raidCount = Integer.getInteger("loadtest.raids", 8);
+    private final int userCount = Integer.getInteger("loadtest.users", 12);
+    private final int boardPolls = Integer.getInteger("loadtest.polls", 500);
+    private final int threads = Integer.getInteger("loadtest.threads", 64);
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private JwtService jwtService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private final HttpClient httpClient = HttpClient.newBuilder()
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+    private final Map<String, ConcurrentLinkedQueue<Long>> latencies = new ConcurrentHashMap<>();
+    private final Map<String, Long> phaseNanos = new ConcurrentHashMap<>();
+    private final Map<Integer, AtomicInteger> statusCounts = new ConcurrentHashMap<>();
+
+    @BeforeEach
+    void cleanDatabase() {
+        jdbcTemplate.execute("DELETE FROM notification_outbox");
+        jdbcTemplate.execute("DELETE FROM discord_raid_messages");
+        jdbcTemplate.execute("DELETE FROM raid_signups");
+        jdbcTemplate.execute("DELETE FROM raids");
+        jdbcTemplate.execute("DELETE FROM characters");
+        jdbcTemplate.execute("DELETE FROM users");
+    }
+
+    @Test
+    void signupStormKeepsRaidsWithinCapacity() throws Exception {
+        // GIVEN a creator and a crowd of users, each with one character
+        Player creator = createPlayer("creator");
+        List<Player> players = new ArrayList<>();
+        for (int i = 0; i < userCount; i++) {
+            players.add(createPlayer("player-" + i));
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            // WHEN raids are created concurrently
+            List<Long> raidIds = runPhase(executor, "create", raidCount, i -> () -> {
+                String body = "{\"title\":\"Storm " + i + "\",\"startTime\":\""
+                        + Instant.now().plus(Duration.ofDays(1)) + "\"}";
+                HttpResponse<String> response = send("create", creator, "POST", "/raids", body);
+                assertThat(response.statusCode()).isEqualTo(201);
+                return objectMapper.readTree(response.body()).get("id").asLong();
+            });
+
+            // AND every player signs up for every raid at the same instant
+            Map<Long, List<Player>> accepted = new ConcurrentHashMap<>();
+            runPhase(executor, "signup", raidCount * userCount, i -> () -> {
+                Long raidId = raidIds.get(i / userCount);
+                Player player = players.get(i % userCount);
+                String body = "{\"characterId\":" + player.characterId + "}";
+                HttpResponse<String> response = send("signup", player, "POST", "/raids/" + raidId + "/signup", body);
+                if (response.statusCode() == 201) {
+                    accepted.computeIfAbsent(raidId, id -> Collections.synchronizedList(new ArrayList<>())).add(player);
+                } else {
+                    assertThat(response.statusCode()).isIn(400, 429);
+                }
+                return null;
+            });
+
+            // AND half of the accepted players cancel
+            List<Map.Entry<Long, Player>> cancels = new ArrayList<>();
+            accepted.forEach((raidId, signedUp) -> {
+                for (int i = 0; i < signedUp.size() / 2; i++) {
+                    cancels.add(Map.entry(raidId, signedUp.get(i)));
+                }
+            });
+            runPhase(executor, "cancel", cancels.size(), i -> () -> {
+                Map.Entry<Long, Player> cancel = cancels.get(i);
+                HttpResponse<String> response = send("cancel", cancel.getValue(), "DELETE",
+                        "/raids/" + cancel.getKey() + "/signup", null);
+                assertThat(response.statusCode()).isEqualTo(204);
+                return null;
+            });
+
+            // AND the board is polled
+            runPhase(executor, "board", boardPolls, i -> () -> {
+                HttpResponse<String> response = send("board", null, "GET", "/raids", null);
+                assertThat(response.statusCode()).isEqualTo(200);
+                return null;
+            });
+
+            logReport();
+
+            // THEN no raid ever ends above capacity and the board matches the database
+            JsonNode board = objectMapper.readTree(send("board", null, "GET", "/raids", null).body());
+            Map<Long, Integer> boardCounts = new TreeMap<>();
+            board.forEach(raid -> boardCounts.put(raid.get("id").asLong(), raid.get("signupCount").asInt()));
+
+            Map<Long, Long> cancelledPerRaid = new TreeMap<>();
+            cancels.forEach(cancel -> cancelledPerRaid.merge(cancel.getKey(), 1L, Long::sum));
+
+            for (Long raidId : raidIds) {
+                int dbCount = jdbcTemplate.queryForObject(
+                        "SELECT COUNT(*) FROM raid_signups WHERE raid_id = ?", Integer.class, raidId);
+                int acceptedCount = accepted.getOrDefault(raidId, List.of()).size();
+                long cancelledCount = cancelledPerRaid.getOrDefault(raidId, 0L);
+
+                assertThat(acceptedCount).as("accepted signups for raid %d", raidId).isLessThanOrEqualTo(MAX_PARTICIPANTS);
+                assertThat(dbCount).as("signups in DB for raid %d", raidId).isLessThanOrEqualTo(MAX_PARTICIPANTS);
+                assertThat(dbCount).as("accepted - cancelled for raid %d", raidId).isEqualTo(acceptedCount - cancelledCount);
+                assertThat(boardCounts.get(raidId)).as("board count for raid %d", raidId).isEqualTo(dbCount);
+            }
+            assertThat(statusCounts.keySet()).as("HTTP statuses").allMatch(status -> status < 500);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    // Helpers
+
+    private <T> List<T> runPhase(ExecutorService executor, String phase, int tasks,
+                                 java.util.function.IntFunction<Callable<T>> task) throws Exception {
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<T>> futures = new ArrayList<>();
+        for (int i = 0; i < tasks; i++) {
+            Callable<T> callable = task.apply(i);
+            futures.add(executor.submit(() -> {
+                start.await();
+                return callable.call();
+            }));
+        }
+
+        long begin = System.nanoTime();
+        start.countDown();
+        List<T> results = new ArrayList<>();
+        for (Future<T> future : futures) {
+            results.add(future.get(60, TimeUnit.SECONDS));
+        }
+        phaseNanos.put(phase, System.nanoTime() - begin);
+        return results;
+    }
+
+    private HttpResponse<String> send(String operation, Player player, String method, String path, String body)
+            throws Exception {
+        HttpRequest.Builder builder = HttpRequest.newBuilder()
+                .uri(URI.create("http://localhost:" + port + path))
+                .timeout(Duration.ofSeconds(30))
+                .header("Content-Type", "application/json")
+                .method(method, body != null
+                        ? HttpRequest.BodyPublishers.ofString(body)
+                        : HttpRequest.BodyPublishers.noBody());
+        if (player != null) {
+            builder.header("Authorization", "Bearer " + player.token);
+        }
+
+        long begin = System.nanoTime();
+        HttpResponse<String> response = httpClient.send(builder.build(), HttpResponse.BodyHandlers.ofString());
+        latencies.computeIfAbsent(operation, op -> new ConcurrentLinkedQueue<>()).add(System.nanoTime() - begin);
+        statusCounts.computeIfAbsent(response.statusCode(), status -> new AtomicInteger()).incrementAndGet();
+        return response;
+    }
+
+    private Player createPlayer(String lineUserId) {
+        jdbcTemplate.update("INSERT INTO users (line_user_id, name) VALUES (?, ?)", lineUserId, lineUserId);
+        Long userId = jdbcTemplate.queryForObject(
+                "SELECT id FROM users WHERE line_user_id = ?", Long.class, lineUserId);
+        jdbcTemplate.update("INSERT INTO characters (user_id, name, job, level) VALUES (?, ?, ?, ?)",
+                userId, lineUserId + "-char", "戰士", 100);
+        Long characterId = jdbcTemplate.queryForObject(
+                "SELECT id FROM characters WHERE user_id = ?", Long.class, userId);
+        return new Player(characterId, jwtService.generateToken(userId, lineUserId, 3600000));
+    }
+
+    private void logReport() {
+        StringBuilder report = new StringBuilder();
+        report.append("=== Signup storm: ").append(raidCount).append(" raids x ").append(userCount).append(" users ===\n");
+        report.append(String.format("%-8s %8s %10s %10s %10s %10s %12s%n",
+                "op", "count", "p50(ms)", "p95(ms)", "p99(ms)", "max(ms)", "req/s"));
+        for (String op : List.of("create", "signup", "cancel", "board")) {
+            List<Long> samples = new ArrayList<>(latencies.getOrDefault(op, new ConcurrentLinkedQueue<>()));
+            if (samples.isEmpty()) {
+                continue;
+            }
+            Collections.sort(samples);
+            double seconds = phaseNanos.getOrDefault(op, 1L) / 1e9;
+            report.append(String.format("%-8s %8d %10.2f %10.2f %10.2f %10.2f %12.1f%n",
+                    op, samples.size(),
+                    percentile(samples, 50), percentile(samples, 95), percentile(samples, 99),
+                    samples.get(samples.size() - 1) / 1e6,
+                    samples.size() / seconds));
+        }
+        report.append("HTTP statuses: ").append(new TreeMap<>(statusCounts));
+        log.info("\n{}", report);
+    }
+
+    private static double percentile(List<Long> sorted, int percentile) {
+        int index = (int) Math.ceil(percentile / 100.0 * sorted.size()) - 1;
+        return sorted.get(Math.max(0, index)) / 1e6;
+    }
+
+    private static final class Player {
+        private final Long characterId;
+        private final String token;
+
+        private Player(Long characterId, String token) {
+            this.characterId = characterId;
+            this.token = token;
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package com.kihongan.raidsystem.security;
 
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
@@ -39,7 +40,7 @@ class JwtAuthenticationFilterTest {
     
     @BeforeEach
     void setUp() {
-        jwtService = new JwtService(TEST_SECRET);
+        jwtService = new JwtService(TEST_SECRET, new SimpleMeterRegistry());
         filter = new JwtAuthenticationFilter(jwtService);
         SecurityContextHolder.clearContext();
     }
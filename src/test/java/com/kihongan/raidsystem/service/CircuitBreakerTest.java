@@ -0,0 +1,98 @@
+package com.kihongan.raidsystem.service;
+
+import com.kihongan.raidsystem.service.CircuitBreaker.State;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit tests for CircuitBreaker.
+ * Tests the closed -> open -> half-open cycle with a fake clock, and giving back an unused probe.
+ */
+class CircuitBreakerTest {
+
+    private final AtomicLong now = new AtomicLong(1_000);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final CircuitBreaker breaker = new CircuitBreaker("test", 3, 30_000, now::get, meterRegistry);
+
+    @Test
+    void opensAfterConsecutiveFailuresAndFailsFast() {
+        // GIVEN two failures, a success, then three failures in a row
+        fail(2);
+        breaker.tryAcquire();
+        breaker.onSuccess();
+        fail(3);
+
+        // WHEN another call is attempted
+        boolean allowed = breaker.tryAcquire();
+
+        // THEN only the uninterrupted run opened the breaker
+        assertThat(allowed).isFalse();
+        assertThat(breaker.getState()).isEqualTo(State.OPEN);
+        assertThat(meterRegistry.get("raid.notification.breaker.state").tag("breaker", "test").gauge().value())
+                .isEqualTo(2);
+    }
+
+    @Test
+    void letsOneProbeThroughAfterTheOpenPeriod() {
+        // GIVEN an open breaker whose open period has passed
+        fail(3);
+        now.addAndGet(30_000);
+
+        // WHEN calls are attempted
+        boolean probe = breaker.tryAcquire();
+        boolean second = breaker.tryAcquire();
+
+        // THEN only the probe goes through, and its success closes the breaker
+        assertThat(probe).isTrue();
+        assertThat(second).isFalse();
+        assertThat(breaker.getState()).isEqualTo(State.HALF_OPEN);
+        breaker.onSuccess();
+        assertThat(breaker.getState()).isEqualTo(State.CLOSED);
+        assertThat(meterRegistry.counter("raid.notification.breaker.transitions", "breaker", "test", "to", "closed")
+                .count()).isEqualTo(1);
+    }
+
+    @Test
+    void failedProbeReopensForAnotherPeriod() {
+        // GIVEN a half-open breaker
+        fail(3);
+        now.addAndGet(30_000);
+        breaker.tryAcquire();
+
+        // WHEN the probe fails
+        breaker.onFailure();
+
+        // THEN the breaker is open again until a full period passes
+        assertThat(breaker.getState()).isEqualTo(State.OPEN);
+        now.addAndGet(29_000);
+        assertThat(breaker.tryAcquire()).isFalse();
+        now.addAndGet(1_000);
+        assertThat(breaker.tryAcquire()).isTrue();
+    }
+
+    @Test
+    void releasedProbeLetsTheNextCallThrough() {
+        // GIVEN a half-open breaker whose probe was granted but never made
+        fail(3);
+        now.addAndGet(30_000);
+        breaker.tryAcquire();
+
+        // WHEN the probe is given back
+        breaker.release();
+
+        // THEN the breaker stays half-open and grants the next probe
+        assertThat(breaker.getState()).isEqualTo(State.HALF_OPEN);
+        assertThat(breaker.tryAcquire()).isTrue();
+    }
+
+    private void fail(int times) {
+        for (int i = 0; i < times; i++) {
+            breaker.tryAcquire();
+            breaker.onFailure();
+        }
+    }
+}
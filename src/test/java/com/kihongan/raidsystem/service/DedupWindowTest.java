@@ -0,0 +1,49 @@
+package com.kihongan.raidsystem.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit tests for DedupWindow.
+ * Tests duplicate detection, expiry and the size bound with a fake clock.
+ */
+class DedupWindowTest {
+
+    private final AtomicLong now = new AtomicLong(0);
+    private final DedupWindow window = new DedupWindow(3, 1_000, now::get);
+
+    @Test
+    void repeatedKeyIsDetectedUntilItExpires() {
+        // GIVEN a key seen once
+        assertThat(window.firstSeen("signup-added:1:7:42")).isTrue();
+
+        // WHEN it is seen again inside and after the time-to-live
+        now.addAndGet(999);
+        boolean insideTtl = window.firstSeen("signup-added:1:7:42");
+        now.addAndGet(1);
+        boolean afterTtl = window.firstSeen("signup-added:1:7:42");
+
+        // THEN only the repeat inside the time-to-live is a duplicate
+        assertThat(insideTtl).isFalse();
+        assertThat(afterTtl).isTrue();
+    }
+
+    @Test
+    void oldestKeyIsEvictedWhenFull() {
+        // GIVEN a full window
+        window.remember("a");
+        window.remember("b");
+        window.remember("c");
+
+        // WHEN another key is recorded
+        window.remember("d");
+
+        // THEN the oldest is forgotten and the size stays bounded
+        assertThat(window.contains("a")).isFalse();
+        assertThat(window.contains("d")).isTrue();
+        assertThat(window.size()).isEqualTo(3);
+    }
+}
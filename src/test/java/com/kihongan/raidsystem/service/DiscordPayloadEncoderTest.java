@@ -0,0 +1,56 @@
+package com.kihongan.raidsystem.service;
+
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit tests for DiscordPayloadEncoder.
+ * Tests that the streamed bytes are the webhook payload Discord expects.
+ */
+class DiscordPayloadEncoderTest {
+
+    private final DiscordPayloadEncoder encoder = new DiscordPayloadEncoder();
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    void encodesMentionEmbedFieldsAndFooter() throws Exception {
+        // GIVEN an embed with a description, a spacer and text that needs escaping
+        DiscordEmbed embed = new DiscordEmbed("⚔️ 新遠征隊建立", 6717674, "## \"Zakum\"\n")
+                .field("👤 建立人", "Leader\n\u200b", true)
+                .spacer()
+                .field("📋 目前成員", "`1` Alice", false);
+
+        // WHEN it is encoded with a mention
+        JsonNode payload = objectMapper.readTree(encoder.encode(new SerializedString("<@&1>"), embed));
+
+        // THEN the payload has the same shape the map-based serialization produced
+        assertThat(payload.get("content").asText()).isEqualTo("<@&1>");
+        JsonNode encoded = payload.get("embeds").get(0);
+        assertThat(encoded.get("title").asText()).isEqualTo("⚔️ 新遠征隊建立");
+        assertThat(encoded.get("color").asInt()).isEqualTo(6717674);
+        assertThat(encoded.get("description").asText()).isEqualTo("## \"Zakum\"\n");
+        assertThat(encoded.get("fields")).hasSize(3);
+        assertThat(encoded.get("fields").get(0).get("value").asText()).isEqualTo("Leader\n\u200b");
+        assertThat(encoded.get("fields").get(1).get("name").asText()).isEqualTo("\u200b");
+        assertThat(encoded.get("fields").get(2).get("inline").asBoolean()).isFalse();
+        assertThat(encoded.get("footer").get("text").asText()).isEqualTo("KiHongan 遠征報名系統");
+    }
+
+    @Test
+    void reusedBufferDoesNotLeakPreviousPayload() throws Exception {
+        // GIVEN a long payload encoded first on this thread
+        encoder.encode(null, new DiscordEmbed("long", 1, "x".repeat(4096)));
+
+        // WHEN a short one is encoded next
+        JsonNode payload = objectMapper.readTree(encoder.encode(null, new DiscordEmbed("short", 2)));
+
+        // THEN it only contains its own content
+        assertThat(payload.has("content")).isFalse();
+        assertThat(payload.get("embeds").get(0).get("title").asText()).isEqualTo("short");
+        assertThat(payload.get("embeds").get(0).has("description")).isFalse();
+    }
+}
@@ -0,0 +1,99 @@
+package com.kihongan.raidsystem.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.net.http.HttpHeaders;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * Unit tests for DiscordRateLimiter.
+ * Tests local pacing and corrections from Discord rate-limit headers.
+ */
+class DiscordRateLimiterTest {
+
+    private final AtomicLong now = new AtomicLong();
+    private DiscordRateLimiter limiter;
+
+    @BeforeEach
+    void setUp() {
+        // 5 calls per 2 seconds
+        limiter = new DiscordRateLimiter(5, 2000, now::get);
+    }
+
+    @Test
+    void burstIsAllowedThenCallersArePaced() {
+        // GIVEN a full bucket
+        // WHEN six calls are made at once
+        for (int i = 0; i < 5; i++) {
+            assertThat(limiter.reserve()).isZero();
+        }
+        long wait = limiter.reserve();
+
+        // THEN the sixth waits for one token to refill (2000ms / 5)
+        assertThat(wait).isEqualTo(400);
+
+        // AND may go once that time has passed
+        advanceMillis(400);
+        assertThat(limiter.reserve()).isZero();
+    }
+
+    @Test
+    void exhaustedHeaderBlocksUntilReset() {
+        // GIVEN Discord reports no remaining calls for 1.5 seconds
+        limiter.update(headers(Map.of(
+                "X-RateLimit-Remaining", "0",
+                "X-RateLimit-Reset-After", "1.5")));
+
+        // WHEN a call is attempted
+        // THEN it waits for the server-side reset
+        assertThat(limiter.reserve()).isEqualTo(1500);
+
+        // AND the bucket is full again after the reset
+        advanceMillis(1500);
+        for (int i = 0; i < 5; i++) {
+            assertThat(limiter.reserve()).isZero();
+        }
+    }
+
+    @Test
+    void remainingHeaderLowersLocalEstimate() {
+        // GIVEN Discord reports a single call left
+        limiter.update(headers(Map.of(
+                "X-RateLimit-Remaining", "1",
+                "X-RateLimit-Reset-After", "2")));
+
+        // WHEN two calls are attempted
+        // THEN only the first goes out immediately
+        assertThat(limiter.reserve()).isZero();
+        assertThat(limiter.reserve()).isPositive();
+    }
+
+    @Test
+    void rateLimitPenaltyBlocksAllCallers() {
+        // GIVEN a 429 with a 3 second retry
+        limiter.penalize(3000);
+
+        // WHEN calls are attempted
+        // THEN they all wait for the retry time
+        assertThat(limiter.reserve()).isEqualTo(3000);
+        advanceMillis(1000);
+        assertThat(limiter.reserve()).isEqualTo(2000);
+    }
+
+    private void advanceMillis(long millis) {
+        now.addAndGet(TimeUnit.MILLISECONDS.toNanos(millis));
+    }
+
+    private static HttpHeaders headers(Map<String, String> values) {
+        Map<String, List<String>> map = new HashMap<>();
+        values.forEach((name, value) -> map.put(name, List.of(value)));
+        return HttpHeaders.of(map, (name, value) -> true);
+    }
+}
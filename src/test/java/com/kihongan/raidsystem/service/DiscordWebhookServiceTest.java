@@ -0,0 +1,282 @@
+package com.kihongan.raidsystem.service;
+
+import com.kihongan.raidsystem.domain.notification.DiscordMessageRepository;
+import com.kihongan.raidsystem.service.NotificationDispatcher.DeliveryResult;
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for DiscordWebhookService against a local HTTP server.
+ * Tests parking while the breaker is open, replay on recovery, that an open breaker
+ * costs no rate-limit tokens, that a 429 does not use up an attempt, that the
+ * breaker hears about unexpected errors, and
+ * that roster changes edit the raid's announcement.
+ */
+class DiscordWebhookServiceTest {
+
+    private static final long OPEN_MS = 300;
+    private static final byte[] MESSAGE = "{\"id\":\"555\"}".getBytes(StandardCharsets.UTF_8);
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final DiscordMessageRepository messageRepository = mock(DiscordMessageRepository.class);
+    private final AtomicInteger status = new AtomicInteger(204);
+    private final AtomicInteger patchStatus = new AtomicInteger(200);
+    private final AtomicInteger rateLimited = new AtomicInteger();
+    private final AtomicInteger requests = new AtomicInteger();
+    private final List<String> requestLog = new CopyOnWriteArrayList<>();
+    private final List<String> patchBodies = new CopyOnWriteArrayList<>();
+    private HttpServer server;
+    private String webhookUrl;
+    private NotificationDispatcher dispatcher;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/webhook", exchange -> {
+            requests.incrementAndGet();
+            String method = exchange.getRequestMethod();
+            String body = new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8);
+            requestLog.add(method + " " + exchange.getRequestURI());
+            int code = status.get();
+            if (method.equals("PATCH")) {
+                patchBodies.add(body);
+                code = patchStatus.get();
+            }
+            if (rateLimited.getAndUpdate(n -> Math.max(0, n - 1)) > 0) {
+                byte[] error = "{\"retry_after\":0}".getBytes(StandardCharsets.UTF_8);
+                exchange.sendResponseHeaders(429, error.length);
+                exchange.getResponseBody().write(error);
+            } else if (code == 200) {
+                // ?wait=true and edits answer with the message
+                exchange.sendResponseHeaders(200, MESSAGE.length);
+                exchange.getResponseBody().write(MESSAGE);
+            } else {
+                exchange.sendResponseHeaders(code, -1);
+            }
+            exchange.close();
+        });
+        server.start();
+        webhookUrl = "http://localhost:" + server.getAddress().getPort() + "/webhook";
+        // One worker and one attempt: a failed call gives up instead of being retried
+        dispatcher = new NotificationDispatcher(1, 16, 1, meterRegistry);
+    }
+
+    @AfterEach
+    void tearDown() {
+        dispatcher.shutdown();
+        server.stop(0);
+    }
+
+    @Test
+    void parkedMessageIsReplayedOnceTheWebhookRecovers() throws Exception {
+        // GIVEN a webhook failure that opens the breaker
+        DiscordWebhookService service = service(webhookUrl, new DiscordRateLimiter(10, 1000, System::nanoTime), OPEN_MS);
+        status.set(500);
+        assertThat(send(service, "k1").get(5, TimeUnit.SECONDS)).isFalse();
+
+        // WHEN a message arrives while the breaker is open
+        status.set(204);
+        CompletableFuture<Boolean> parked = send(service, "k2");
+
+        // THEN it is parked without a request, and replayed once the open period is over
+        awaitCount("parked", 1);
+        assertThat(parked).isNotDone();
+        assertThat(requests.get()).isEqualTo(1);
+
+        Thread.sleep(OPEN_MS + 100);
+        service.replayBacklog();
+        assertThat(parked.get(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(requests.get()).isEqualTo(2);
+        // The result completes just before the replay loop counts it
+        awaitCount("replayed", 1);
+    }
+
+    @Test
+    void openBreakerDoesNotSpendRateLimitTokens() throws Exception {
+        // GIVEN two rate-limit tokens and a failure that opens the breaker for a long time
+        DiscordRateLimiter rateLimiter = new DiscordRateLimiter(2, 60000, System::nanoTime);
+        DiscordWebhookService service = service(webhookUrl, rateLimiter, 60000);
+        status.set(500);
+        assertThat(send(service, "k1").get(5, TimeUnit.SECONDS)).isFalse();
+
+        // WHEN a message is parked and a replay is attempted while still open
+        send(service, "k2");
+        awaitCount("parked", 1);
+        service.replayBacklog();
+        awaitIdle();
+
+        // THEN neither took a token from the one that is left
+        assertThat(rateLimiter.reserve()).isZero();
+        assertThat(requests.get()).isEqualTo(1);
+    }
+
+    @Test
+    void rateLimitedMessageIsDeliveredAfterMoreRetriesThanTheAttemptLimit() throws Exception {
+        // GIVEN a webhook that answers 429 more times than the single attempt allowed
+        DiscordWebhookService service = service(webhookUrl, new DiscordRateLimiter(10, 1000, System::nanoTime), OPEN_MS);
+        rateLimited.set(2);
+
+        // WHEN a message is sent
+        CompletableFuture<Boolean> result = send(service, "k1");
+
+        // THEN it waits out each 429 and is delivered once Discord accepts it
+        assertThat(result.get(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(requests.get()).isEqualTo(3);
+    }
+
+    @Test
+    void unexpectedErrorStillReportsTheOutcomeToTheBreaker() throws Exception {
+        // GIVEN a webhook URL that cannot even be turned into a request
+        DiscordWebhookService service = service(webhookUrl + " broken",
+                new DiscordRateLimiter(10, 1000, System::nanoTime), OPEN_MS);
+
+        // WHEN a message is sent
+        CompletableFuture<Boolean> result = send(service, "k1");
+
+        // THEN it fails, and the breaker counted the failure instead of keeping the call open
+        assertThat(result.get(5, TimeUnit.SECONDS)).isFalse();
+        assertThat(meterRegistry.counter("raid.notification.breaker.transitions",
+                "breaker", "discord", "to", "open").count()).isEqualTo(1);
+    }
+
+    @Test
+    void raidAnnouncementRemembersItsMessageId() throws Exception {
+        // GIVEN a webhook that answers ?wait=true with the posted message
+        DiscordWebhookService service = service(webhookUrl, new DiscordRateLimiter(10, 1000, System::nanoTime), OPEN_MS);
+        status.set(200);
+
+        // WHEN a raid is announced
+        CompletableFuture<Boolean> result = service.sendRaidCreatedNotification("raid-created:1", 1L, "Zakum",
+                "Leader", LocalDateTime.of(2026, 1, 15, 20, 0), null, null, null, null);
+
+        // THEN the message id is stored against the raid
+        assertThat(result.get(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(requestLog).containsExactly("POST /webhook?wait=true");
+        verify(messageRepository).save(1L, "555");
+    }
+
+    @Test
+    void failedAnnouncementRemembersNothing() throws Exception {
+        // GIVEN a webhook that rejects the post
+        DiscordWebhookService service = service(webhookUrl, new DiscordRateLimiter(10, 1000, System::nanoTime), OPEN_MS);
+        status.set(400);
+
+        // WHEN a raid is announced
+        CompletableFuture<Boolean> result = service.sendRaidCreatedNotification("raid-created:1", 1L, "Zakum",
+                "Leader", LocalDateTime.of(2026, 1, 15, 20, 0), null, null, null, null);
+
+        // THEN no message id is stored
+        assertThat(result.get(5, TimeUnit.SECONDS)).isFalse();
+        verify(messageRepository, never()).save(any(), any());
+    }
+
+    @Test
+    void rosterChangeEditsTheAnnouncement() throws Exception {
+        // GIVEN a raid whose announcement was recorded
+        when(messageRepository.findMessageId(1L)).thenReturn(Optional.of("555"));
+        DiscordWebhookService service = service(webhookUrl, new DiscordRateLimiter(10, 1000, System::nanoTime), OPEN_MS);
+
+        // WHEN someone signs up
+        CompletableFuture<Boolean> result = service.signupAdded("signup-added:1:7", roster(2), "Alice", "Hero",
+                "Bishop", 120);
+
+        // THEN the announcement is edited instead of a new message being posted
+        assertThat(result.get(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(requestLog).containsExactly("PATCH /webhook/messages/555");
+        assertThat(patchBodies.get(0)).contains("2 / 6");
+    }
+
+    @Test
+    void onlyTheNewestWaitingEditIsSent() throws Exception {
+        // GIVEN a busy dispatcher worker, so edits queue up behind it
+        when(messageRepository.findMessageId(1L)).thenReturn(Optional.of("555"));
+        DiscordWebhookService service = service(webhookUrl, new DiscordRateLimiter(10, 1000, System::nanoTime), OPEN_MS);
+        CountDownLatch busy = new CountDownLatch(1);
+        dispatcher.dispatch("block", attempt -> {
+            busy.await(5, TimeUnit.SECONDS);
+            return DeliveryResult.done();
+        });
+
+        // WHEN three roster changes of the raid arrive
+        CompletableFuture<Boolean> first = service.rosterUpdated("roster-updated:1:a", roster(2), List.of("✅ A"));
+        CompletableFuture<Boolean> second = service.rosterUpdated("roster-updated:1:b", roster(3), List.of("✅ B"));
+        CompletableFuture<Boolean> third = service.rosterUpdated("roster-updated:1:c", roster(4), List.of("✅ C"));
+        busy.countDown();
+
+        // THEN one edit with the newest roster goes out, and all three report it
+        assertThat(third.get(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(first.get(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(second.get(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(requestLog).containsExactly("PATCH /webhook/messages/555");
+        assertThat(patchBodies.get(0)).contains("4 / 6");
+        assertThat(meterRegistry.counter("raid.notification.discord.edits.superseded").count()).isEqualTo(2);
+    }
+
+    @Test
+    void deletedAnnouncementFallsBackToANewMessage() throws Exception {
+        // GIVEN a recorded announcement that was deleted in Discord
+        when(messageRepository.findMessageId(1L)).thenReturn(Optional.of("555"));
+        DiscordWebhookService service = service(webhookUrl, new DiscordRateLimiter(10, 1000, System::nanoTime), OPEN_MS);
+        patchStatus.set(404);
+
+        // WHEN someone cancels
+        CompletableFuture<Boolean> result = service.signupCancelled("signup-cancelled:1:7", roster(1), "Alice", "Hero");
+
+        // THEN the mapping is dropped and the change is posted as a new message
+        assertThat(result.get(5, TimeUnit.SECONDS)).isTrue();
+        verify(messageRepository).delete(1L);
+        assertThat(requestLog).containsExactly("PATCH /webhook/messages/555", "POST /webhook");
+    }
+
+    private static RosterSnapshot roster(int currentCount) {
+        return new RosterSnapshot(1L, "Zakum", null, LocalDateTime.of(2026, 1, 15, 20, 0), "Leader",
+                currentCount, 6, List.of("Hero (Bishop)"));
+    }
+
+    private DiscordWebhookService service(String url, DiscordRateLimiter rateLimiter, long openMs) {
+        return new DiscordWebhookService(url, "", "secret", meterRegistry, dispatcher, rateLimiter,
+                1, openMs, 10, messageRepository, 100, 60000);
+    }
+
+    private static CompletableFuture<Boolean> send(DiscordWebhookService service, String eventKey) {
+        return service.sendRosterUpdateNotification(eventKey, "Zakum", "Leader", List.of("✅ Alice"),
+                1, 6, List.of("Alice (Hero)"));
+    }
+
+    /**
+     * Waits for everything queued on the single dispatcher worker to finish.
+     */
+    private void awaitIdle() throws Exception {
+        dispatcher.dispatch("sync", attempt -> DeliveryResult.done()).get(5, TimeUnit.SECONDS);
+    }
+
+    private void awaitCount(String result, double expected) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (count(result) < expected && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertThat(count(result)).isEqualTo(expected);
+    }
+
+    private double count(String result) {
+        return meterRegistry.counter("raid.notification.discord.backlog", "result", result).count();
+    }
+}
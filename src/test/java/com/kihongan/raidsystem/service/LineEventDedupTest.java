@@ -0,0 +1,63 @@
+package com.kihongan.raidsystem.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit tests for LineEventDedup.
+ * Tests that a resent event is skipped unless it was forgotten, and that events
+ * without an id are never skipped.
+ */
+class LineEventDedupTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final LineEventDedup dedup = new LineEventDedup(100, 60_000, meterRegistry);
+
+    @Test
+    void eventIsSkippedWhenResent() {
+        // GIVEN an event that was seen
+        assertThat(dedup.firstSeen("ev-1")).isTrue();
+
+        // WHEN LINE sends it again
+        boolean first = dedup.firstSeen("ev-1");
+
+        // THEN it is skipped, while other events are not
+        assertThat(first).isFalse();
+        assertThat(dedup.firstSeen("ev-2")).isTrue();
+        assertThat(count("hit")).isEqualTo(1);
+        assertThat(count("miss")).isEqualTo(2);
+    }
+
+    @Test
+    void forgottenEventIsHandledWhenResent() {
+        // GIVEN an event that was seen but then turned away
+        dedup.firstSeen("ev-1");
+        dedup.forget("ev-1");
+
+        // WHEN LINE sends it again
+        boolean first = dedup.firstSeen("ev-1");
+
+        // THEN it is handled as new
+        assertThat(first).isTrue();
+        assertThat(count("hit")).isZero();
+    }
+
+    @Test
+    void eventWithoutIdIsNeverSkipped() {
+        // GIVEN an event without a webhookEventId that was seen
+        dedup.firstSeen(null);
+
+        // WHEN it is checked again
+        boolean first = dedup.firstSeen(null);
+
+        // THEN it is handled as new
+        assertThat(first).isTrue();
+        assertThat(count("miss")).isEqualTo(2);
+    }
+
+    private double count(String result) {
+        return meterRegistry.counter("raid.line.webhook.dedup", "result", result).count();
+    }
+}
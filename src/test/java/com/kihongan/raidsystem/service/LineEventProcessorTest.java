@@ -0,0 +1,86 @@
+package com.kihongan.raidsystem.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit tests for LineEventProcessor.
+ * Tests per-group ordering, parallelism across groups and the queue bound.
+ */
+class LineEventProcessorTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private LineEventProcessor processor;
+
+    @AfterEach
+    void tearDown() {
+        processor.shutdown();
+    }
+
+    @Test
+    void eventsOfOneGroupRunInOrderWhileOtherGroupsProceed() throws Exception {
+        // GIVEN group A's first event is blocked
+        processor = new LineEventProcessor(2, 16, meterRegistry);
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch groupBDone = new CountDownLatch(1);
+        CountDownLatch groupADone = new CountDownLatch(1);
+        List<String> groupA = new CopyOnWriteArrayList<>();
+
+        processor.submit("A", () -> {
+            await(release);
+            groupA.add("first");
+        });
+        processor.submit("A", () -> {
+            groupA.add("second");
+            groupADone.countDown();
+        });
+
+        // WHEN group B sends an event
+        processor.submit("B", groupBDone::countDown);
+
+        // THEN B runs while A is blocked, and A keeps its order once released
+        assertThat(groupBDone.await(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(groupA).isEmpty();
+        release.countDown();
+        assertThat(groupADone.await(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(groupA).containsExactly("first", "second");
+    }
+
+    @Test
+    void eventIsDroppedWhenQueueIsFull() throws Exception {
+        // GIVEN one worker busy and one event waiting
+        processor = new LineEventProcessor(1, 1, meterRegistry);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        processor.submit("A", () -> {
+            started.countDown();
+            await(release);
+        });
+        assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+        processor.submit("A", () -> { });
+
+        // WHEN another event arrives
+        boolean accepted = processor.submit("B", () -> { });
+
+        // THEN it is rejected and counted
+        release.countDown();
+        assertThat(accepted).isFalse();
+        assertThat(meterRegistry.counter("raid.line.webhook.events", "result", "rejected").count()).isEqualTo(1);
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package com.kihongan.raidsystem.service;
+
+import com.kihongan.raidsystem.service.LineGroupLimiter.Decision;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit tests for LineGroupLimiter.
+ * Tests coalescing of repeated commands, the per-group reply budget and releasing an
+ * admission whose command was not run, with a fake clock.
+ */
+class LineGroupLimiterTest {
+
+    private final AtomicLong now = new AtomicLong(0);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final LineGroupLimiter limiter = new LineGroupLimiter(5_000, 2, 60_000, 16, meterRegistry, now::get);
+
+    @Test
+    void sameCommandInWindowIsAnsweredOnce() {
+        // WHEN several members send !raids together, and again after the window
+        Decision first = limiter.admit("group-1", "raids");
+        Decision second = limiter.admit("group-1", "raids");
+        Decision otherGroup = limiter.admit("group-2", "raids");
+        now.addAndGet(5_000);
+        Decision afterWindow = limiter.admit("group-1", "raids");
+
+        // THEN only the repeat inside the window is coalesced
+        assertThat(first).isEqualTo(Decision.ALLOWED);
+        assertThat(second).isEqualTo(Decision.COALESCED);
+        assertThat(otherGroup).isEqualTo(Decision.ALLOWED);
+        assertThat(afterWindow).isEqualTo(Decision.ALLOWED);
+        assertThat(meterRegistry.counter("raid.line.webhook.admission", "result", "coalesced").count()).isEqualTo(1);
+    }
+
+    @Test
+    void repliesBeyondTheGroupBudgetAreThrottledUntilRefilled() {
+        // GIVEN a group that used its two replies
+        limiter.admit("group-1", "raids");
+        limiter.admit("group-1", "help");
+
+        // WHEN it sends another command, then again after half the refill period
+        Decision overBudget = limiter.admit("group-1", "groupid");
+        now.addAndGet(30_000);
+        Decision refilled = limiter.admit("group-1", "groupid");
+
+        // THEN the first is throttled and one token has come back for the second
+        assertThat(overBudget).isEqualTo(Decision.THROTTLED);
+        assertThat(refilled).isEqualTo(Decision.ALLOWED);
+    }
+
+    @Test
+    void releasedAdmissionLetsTheSameCommandThroughWithItsToken() {
+        // GIVEN a group that used both replies, the second of which could not be queued
+        limiter.admit("group-1", "help");
+        limiter.admit("group-1", "raids");
+        limiter.release("group-1", "raids");
+
+        // WHEN the same command is sent again inside the window
+        Decision retried = limiter.admit("group-1", "raids");
+
+        // THEN it is neither coalesced nor throttled
+        assertThat(retried).isEqualTo(Decision.ALLOWED);
+    }
+}
@@ -0,0 +1,138 @@
+package com.kihongan.raidsystem.service;
+
+import com.linecorp.bot.client.LineMessagingClient;
+import com.linecorp.bot.client.exception.BadRequestException;
+import com.linecorp.bot.client.exception.LineServerException;
+import com.linecorp.bot.client.exception.TooManyRequestsException;
+import com.linecorp.bot.model.PushMessage;
+import com.linecorp.bot.model.message.TextMessage;
+import com.linecorp.bot.model.response.BotApiResponse;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for LinePushPipeline.
+ * Tests retries on 429, giving up on client errors and timeouts, the in-flight limit,
+ * the circuit breaker, and skipping an event that was already pushed.
+ */
+class LinePushPipelineTest {
+
+    private static final PushMessage MESSAGE = new PushMessage("group", new TextMessage("hi"));
+
+    private final LineMessagingClient client = mock(LineMessagingClient.class);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private LinePushPipeline pipeline;
+
+    @AfterEach
+    void tearDown() {
+        pipeline.shutdown();
+    }
+
+    @Test
+    void rateLimitedPushIsRetriedUntilAccepted() throws Exception {
+        // GIVEN LINE answers 429 once, then accepts
+        pipeline = new LinePushPipeline(client, 4, 1000, 3, 10, 100, 60000, 5, 30000, meterRegistry);
+        when(client.pushMessage(any(PushMessage.class)))
+                .thenReturn(CompletableFuture.failedFuture(new TooManyRequestsException("slow down", null)))
+                .thenReturn(CompletableFuture.completedFuture(mock(BotApiResponse.class)));
+
+        // WHEN a push is started
+        CompletableFuture<Boolean> result = pipeline.push("test", MESSAGE);
+
+        // THEN it is delivered on the second attempt
+        assertThat(result.get(5, TimeUnit.SECONDS)).isTrue();
+        verify(client, times(2)).pushMessage(MESSAGE);
+        assertThat(meterRegistry.counter("raid.notification.line.push", "result", "retried").count()).isEqualTo(1);
+    }
+
+    @Test
+    void clientErrorIsNotRetried() throws Exception {
+        // GIVEN LINE rejects the message as malformed
+        pipeline = new LinePushPipeline(client, 4, 1000, 3, 10, 100, 60000, 5, 30000, meterRegistry);
+        when(client.pushMessage(any(PushMessage.class)))
+                .thenReturn(CompletableFuture.failedFuture(new BadRequestException("bad", null)));
+
+        // WHEN a push is started
+        CompletableFuture<Boolean> result = pipeline.push("test", MESSAGE);
+
+        // THEN it fails after a single attempt
+        assertThat(result.get(5, TimeUnit.SECONDS)).isFalse();
+        verify(client, times(1)).pushMessage(MESSAGE);
+    }
+
+    @Test
+    void hangingPushTimesOutAndFreesItsSlot() throws Exception {
+        // GIVEN LINE never answers and only one push may be in flight
+        pipeline = new LinePushPipeline(client, 1, 50, 1, 10, 100, 60000, 5, 30000, meterRegistry);
+        when(client.pushMessage(any(PushMessage.class))).thenAnswer(invocation -> new CompletableFuture<>());
+
+        // WHEN two pushes are started back to back
+        CompletableFuture<Boolean> first = pipeline.push("first", MESSAGE);
+        CompletableFuture<Boolean> second = pipeline.push("second", MESSAGE);
+
+        // THEN the second is rejected at once and the first fails on its timeout
+        assertThat(second.getNow(null)).isFalse();
+        assertThat(first.get(5, TimeUnit.SECONDS)).isFalse();
+        assertThat(pipeline.push("third", MESSAGE).isDone()).isFalse();
+        assertThat(meterRegistry.counter("raid.notification.line.push", "result", "rejected").count()).isEqualTo(1);
+    }
+
+    @Test
+    void serverOutageOpensTheBreakerAndLaterPushesFailFast() throws Exception {
+        // GIVEN LINE answers 5xx and one failure opens the breaker
+        pipeline = new LinePushPipeline(client, 4, 1000, 1, 10, 100, 60000, 1, 30000, meterRegistry);
+        when(client.pushMessage(any(PushMessage.class)))
+                .thenReturn(CompletableFuture.failedFuture(new LineServerException("down", null)));
+        assertThat(pipeline.push("first", MESSAGE).get(5, TimeUnit.SECONDS)).isFalse();
+
+        // WHEN another push is started
+        CompletableFuture<Boolean> second = pipeline.push("second", MESSAGE);
+
+        // THEN it fails at once without calling LINE
+        assertThat(second.getNow(null)).isFalse();
+        verify(client, times(1)).pushMessage(MESSAGE);
+        assertThat(meterRegistry.counter("raid.notification.line.push", "result", "breaker_open").count()).isEqualTo(1);
+    }
+
+    @Test
+    void clientErrorDoesNotOpenTheBreaker() throws Exception {
+        // GIVEN LINE rejects a message as malformed, with a threshold of one failure
+        pipeline = new LinePushPipeline(client, 4, 1000, 1, 10, 100, 60000, 1, 30000, meterRegistry);
+        when(client.pushMessage(any(PushMessage.class)))
+                .thenReturn(CompletableFuture.failedFuture(new BadRequestException("bad", null)))
+                .thenReturn(CompletableFuture.completedFuture(mock(BotApiResponse.class)));
+        assertThat(pipeline.push("first", MESSAGE).get(5, TimeUnit.SECONDS)).isFalse();
+
+        // WHEN another push is started
+        CompletableFuture<Boolean> second = pipeline.push("second", MESSAGE);
+
+        // THEN it goes out, because LINE did answer the first one
+        assertThat(second.get(5, TimeUnit.SECONDS)).isTrue();
+        verify(client, times(2)).pushMessage(MESSAGE);
+    }
+
+    @Test
+    void eventThatWasAlreadyPushedIsNotPushedAgain() throws Exception {
+        // GIVEN an event LINE already accepted
+        pipeline = new LinePushPipeline(client, 4, 1000, 3, 10, 100, 60000, 5, 30000, meterRegistry);
+        when(client.pushMessage(any(PushMessage.class)))
+                .thenReturn(CompletableFuture.completedFuture(mock(BotApiResponse.class)));
+        assertThat(pipeline.push("signup", "signup-added:1:7", MESSAGE).get(5, TimeUnit.SECONDS)).isTrue();
+
+        // WHEN the same event is relayed again
+        CompletableFuture<Boolean> again = pipeline.push("signup", "signup-added:1:7", MESSAGE);
+
+        // THEN it completes as delivered without another call to LINE
+        assertThat(again.get(5, TimeUnit.SECONDS)).isTrue();
+        verify(client, times(1)).pushMessage(MESSAGE);
+        assertThat(meterRegistry.counter("raid.notification.line.push", "result", "duplicate").count()).isEqualTo(1);
+    }
+}
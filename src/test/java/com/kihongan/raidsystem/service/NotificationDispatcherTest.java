@@ -0,0 +1,94 @@
+package com.kihongan.raidsystem.service;
+
+import com.kihongan.raidsystem.service.NotificationDispatcher.DeliveryResult;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * Unit tests for NotificationDispatcher.
+ * Tests scheduled retries, the attempt limit and the drop-on-overflow policy.
+ */
+class NotificationDispatcherTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private NotificationDispatcher dispatcher;
+
+    @AfterEach
+    void tearDown() {
+        dispatcher.shutdown();
+    }
+
+    @Test
+    void retryRequestIsRescheduledUntilDone() throws Exception {
+        // GIVEN a delivery that is rate limited twice before succeeding
+        dispatcher = new NotificationDispatcher(1, 8, 5, meterRegistry);
+        AtomicInteger attempts = new AtomicInteger();
+        CountDownLatch delivered = new CountDownLatch(1);
+
+        // WHEN it is dispatched
+        CompletableFuture<Boolean> outcome = dispatcher.dispatch("test", attempt -> {
+            attempts.incrementAndGet();
+            if (attempt < 2) {
+                return DeliveryResult.retryAfter(10);
+            }
+            delivered.countDown();
+            return DeliveryResult.done();
+        });
+
+        // THEN it is delivered on the third attempt
+        assertThat(delivered.await(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(outcome.get(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(attempts.get()).isEqualTo(3);
+        assertThat(meterRegistry.counter("raid.notification.dispatch", "result", "retried").count()).isEqualTo(2);
+    }
+
+    @Test
+    void deliveryGivesUpAfterMaxAttempts() throws Exception {
+        // GIVEN a delivery that is always rate limited
+        dispatcher = new NotificationDispatcher(1, 8, 3, meterRegistry);
+        AtomicInteger attempts = new AtomicInteger();
+
+        // WHEN it is dispatched
+        CompletableFuture<Boolean> outcome = dispatcher.dispatch("test", attempt -> {
+            attempts.incrementAndGet();
+            return DeliveryResult.retryAfter(1);
+        });
+
+        // THEN it stops after the configured number of attempts and reports the failure
+        assertThat(outcome.get(5, TimeUnit.SECONDS)).isFalse();
+        assertThat(attempts.get()).isEqualTo(3);
+        assertThat(meterRegistry.counter("raid.notification.dispatch", "result", "gave_up").count()).isEqualTo(1);
+    }
+
+    @Test
+    void fullQueueDropsNewDeliveries() throws Exception {
+        // GIVEN a single worker blocked on a delivery and a queue of one
+        dispatcher = new NotificationDispatcher(1, 1, 5, meterRegistry);
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch started = new CountDownLatch(1);
+        dispatcher.dispatch("blocker", attempt -> {
+            started.countDown();
+            release.await();
+            return DeliveryResult.done();
+        });
+        assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+
+        // WHEN two more deliveries arrive
+        CompletableFuture<Boolean> queued = dispatcher.dispatch("queued", attempt -> DeliveryResult.done());
+        CompletableFuture<Boolean> overflow = dispatcher.dispatch("overflow", attempt -> DeliveryResult.done());
+        release.countDown();
+
+        // THEN the one that does not fit is dropped instead of blocking the caller
+        assertThat(overflow.getNow(null)).isFalse();
+        assertThat(queued.get(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(meterRegistry.counter("raid.notification.dispatch", "result", "dropped").count()).isEqualTo(1);
+    }
+}
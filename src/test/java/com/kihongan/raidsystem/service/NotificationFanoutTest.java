@@ -0,0 +1,221 @@
+package com.kihongan.raidsystem.service;
+
+import com.linecorp.bot.client.LineMessagingClient;
+import com.linecorp.bot.client.exception.LineServerException;
+import com.linecorp.bot.model.PushMessage;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for NotificationFanout.
+ * Tests that channels are isolated from each other, that a LINE outage opens LINE's
+ * breaker without touching Discord, that a message a channel did not deliver is
+ * reported to the caller, and that a channel never announces the same change twice
+ * when a retry regroups it.
+ */
+class NotificationFanoutTest {
+
+    private static final RosterSnapshot ROSTER = new RosterSnapshot(1L, "Zakum", null,
+            LocalDateTime.of(2026, 1, 15, 20, 0), "Leader", 1, 6, List.of("Hero (Bishop)"));
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    void slowChannelDoesNotDelayTheOthers() {
+        // GIVEN a Discord channel that has not answered yet and a healthy LINE channel
+        CompletableFuture<Boolean> discordResult = new CompletableFuture<>();
+        NotificationChannel discord = channel("discord");
+        when(discord.signupCancelled(any(), any(), any(), any())).thenReturn(discordResult);
+        NotificationChannel line = channel("line");
+        when(line.signupCancelled(any(), any(), any(), any())).thenReturn(CompletableFuture.completedFuture(true));
+        NotificationFanout fanout = new NotificationFanout(List.of(discord, line), meterRegistry);
+
+        // WHEN a notification is published
+        CompletableFuture<Boolean> result = fanout.signupCancelled("signup-cancelled:1:7", ROSTER, "Alice", "Hero");
+
+        // THEN both channels have it, and the outcome waits for Discord
+        verify(line).signupCancelled("signup-cancelled:1:7", ROSTER, "Alice", "Hero");
+        verify(discord).signupCancelled("signup-cancelled:1:7", ROSTER, "Alice", "Hero");
+        assertThat(count("line", "delivered")).isEqualTo(1);
+        assertThat(result).isNotDone();
+
+        discordResult.complete(true);
+        assertThat(result.getNow(null)).isTrue();
+    }
+
+    @Test
+    void droppedMessageIsReportedToTheCaller() {
+        // GIVEN a Discord channel that dropped the message and a healthy LINE channel
+        NotificationChannel discord = channel("discord");
+        when(discord.rosterUpdated(any(), any(), any())).thenReturn(CompletableFuture.completedFuture(false));
+        NotificationChannel line = channel("line");
+        when(line.rosterUpdated(any(), any(), any())).thenReturn(CompletableFuture.completedFuture(true));
+        NotificationFanout fanout = new NotificationFanout(List.of(discord, line), meterRegistry);
+
+        // WHEN a notification is published
+        CompletableFuture<Boolean> result = fanout.rosterUpdated(ROSTER, Map.of("signup-added:1:1", "✅ Alice"));
+
+        // THEN the caller learns it was not delivered everywhere
+        assertThat(result.getNow(null)).isFalse();
+        assertThat(count("discord", "failed")).isEqualTo(1);
+        assertThat(count("line", "delivered")).isEqualTo(1);
+    }
+
+    @Test
+    void throwingChannelCountsAsNotDelivered() {
+        // GIVEN a channel that throws instead of returning a result
+        NotificationChannel discord = channel("discord");
+        when(discord.signupAdded(any(), any(), any(), any(), any(), any())).thenThrow(new IllegalStateException("boom"));
+        NotificationFanout fanout = new NotificationFanout(List.of(discord), meterRegistry);
+
+        // WHEN a notification is published
+        CompletableFuture<Boolean> result = fanout.signupAdded("signup-added:1:7", ROSTER, "Alice", "Hero", "Bishop", 120);
+
+        // THEN the outcome is false rather than an exception
+        assertThat(result.getNow(null)).isFalse();
+        assertThat(count("discord", "failed")).isEqualTo(1);
+    }
+
+    @Test
+    void disabledChannelIsSkipped() {
+        // GIVEN a channel that is not configured
+        NotificationChannel line = channel("line");
+        when(line.isEnabled()).thenReturn(false);
+        NotificationFanout fanout = new NotificationFanout(List.of(line), meterRegistry);
+
+        // WHEN a notification is published
+        CompletableFuture<Boolean> result = fanout.rosterUpdated(ROSTER, Map.of("signup-added:1:1", "✅ Alice"));
+
+        // THEN the channel is not called and there is nothing to wait for
+        verify(line, never()).rosterUpdated(any(), any(), any());
+        assertThat(result.getNow(null)).isTrue();
+    }
+
+    @Test
+    void lineOutageOpensItsBreakerWithoutAffectingDiscord() throws Exception {
+        // GIVEN LINE answering 5xx, with a breaker that opens after two failures, and a healthy Discord
+        LineMessagingClient lineClient = mock(LineMessagingClient.class);
+        when(lineClient.pushMessage(any(PushMessage.class)))
+                .thenReturn(CompletableFuture.failedFuture(new LineServerException("down", null)));
+        LinePushPipeline pipeline = new LinePushPipeline(lineClient, 4, 1000, 1, 10, 100, 60000, 2, 30000, meterRegistry);
+        NotificationChannel line = new LineMessagingService(pipeline, "group");
+        NotificationChannel discord = channel("discord");
+        when(discord.rosterUpdated(any(), any(), any())).thenReturn(CompletableFuture.completedFuture(true));
+        NotificationFanout fanout = new NotificationFanout(List.of(discord, line), meterRegistry);
+
+        try {
+            // WHEN four notifications are published
+            for (int i = 0; i < 4; i++) {
+                CompletableFuture<Boolean> result = fanout.rosterUpdated(ROSTER,
+                        Map.of("signup-added:1:" + i, "✅ Alice"));
+                assertThat(result.get(5, TimeUnit.SECONDS)).isFalse();
+            }
+
+            // THEN LINE was only called until its breaker opened, and Discord got every one
+            verify(lineClient, times(2)).pushMessage(any(PushMessage.class));
+            assertThat(meterRegistry.counter("raid.notification.breaker.transitions",
+                    "breaker", "line", "to", "open").count()).isEqualTo(1);
+            assertThat(count("line", "failed")).isEqualTo(4);
+            assertThat(count("discord", "delivered")).isEqualTo(4);
+            verify(discord, times(4)).rosterUpdated(any(), any(), any());
+        } finally {
+            pipeline.shutdown();
+        }
+    }
+
+    @Test
+    void regroupedRetryDoesNotAnnounceChangesAChannelAlreadyDelivered() {
+        // GIVEN a batch of two changes that LINE delivered and Discord did not
+        NotificationChannel discord = channel("discord");
+        when(discord.rosterUpdated(any(), any(), any())).thenReturn(
+                CompletableFuture.completedFuture(false), CompletableFuture.completedFuture(true));
+        NotificationChannel line = channel("line");
+        when(line.rosterUpdated(any(), any(), any())).thenReturn(CompletableFuture.completedFuture(true));
+        NotificationFanout fanout = new NotificationFanout(List.of(discord, line), meterRegistry);
+        assertThat(fanout.rosterUpdated(ROSTER, changes("signup-added:1:1", "signup-added:1:2")).getNow(null)).isFalse();
+
+        // WHEN the retry picks up one more change in its window
+        CompletableFuture<Boolean> retry = fanout.rosterUpdated(ROSTER,
+                changes("signup-added:1:2", "signup-added:1:1", "signup-added:1:3"));
+
+        // THEN Discord gets all three, and LINE only the new one
+        assertThat(retry.getNow(null)).isTrue();
+        verify(discord).rosterUpdated(eq("roster-updated:1:signup-added:1:1,signup-added:1:2,signup-added:1:3"), eq(ROSTER),
+                eq(List.of("line signup-added:1:2", "line signup-added:1:1", "line signup-added:1:3")));
+        verify(line).rosterUpdated(eq("roster-updated:1:signup-added:1:1,signup-added:1:2"), eq(ROSTER), any());
+        verify(line).rosterUpdated(eq("roster-updated:1:signup-added:1:3"), eq(ROSTER),
+                eq(List.of("line signup-added:1:3")));
+        verifyNoMoreInteractions(ignoreStubs(line));
+    }
+
+    @Test
+    void regroupedRetryAfterALineFailureDoesNotRepostOnDiscord() {
+        // GIVEN a batch of two changes that Discord delivered and LINE did not
+        NotificationChannel discord = channel("discord");
+        when(discord.rosterUpdated(any(), any(), any())).thenReturn(CompletableFuture.completedFuture(true));
+        NotificationChannel line = channel("line");
+        when(line.rosterUpdated(any(), any(), any())).thenReturn(
+                CompletableFuture.completedFuture(false), CompletableFuture.completedFuture(true));
+        NotificationFanout fanout = new NotificationFanout(List.of(discord, line), meterRegistry);
+        fanout.rosterUpdated(ROSTER, changes("signup-added:1:1", "signup-added:1:2"));
+
+        // WHEN the retry picks up one more change in its window
+        CompletableFuture<Boolean> retry = fanout.rosterUpdated(ROSTER,
+                changes("signup-added:1:1", "signup-added:1:2", "signup-added:1:3"));
+
+        // THEN LINE gets all three, and Discord only the new one
+        assertThat(retry.getNow(null)).isTrue();
+        verify(line).rosterUpdated(eq("roster-updated:1:signup-added:1:1,signup-added:1:2,signup-added:1:3"),
+                eq(ROSTER), any());
+        verify(discord).rosterUpdated(eq("roster-updated:1:signup-added:1:3"), eq(ROSTER),
+                eq(List.of("line signup-added:1:3")));
+        verify(discord, times(2)).rosterUpdated(any(), any(), any());
+    }
+
+    @Test
+    void changeAnnouncedInABatchIsNotAnnouncedAgainOnItsOwn() {
+        // GIVEN a batch a channel delivered
+        NotificationChannel line = channel("line");
+        when(line.rosterUpdated(any(), any(), any())).thenReturn(CompletableFuture.completedFuture(true));
+        NotificationFanout fanout = new NotificationFanout(List.of(line), meterRegistry);
+        fanout.rosterUpdated(ROSTER, changes("signup-added:1:1", "signup-added:1:2"));
+
+        // WHEN one of its changes is retried alone
+        CompletableFuture<Boolean> retry = fanout.signupAdded("signup-added:1:1", ROSTER, "Alice", "Hero", "Bishop", 120);
+
+        // THEN nothing is sent again
+        assertThat(retry.getNow(null)).isTrue();
+        verify(line, never()).signupAdded(any(), any(), any(), any(), any(), any());
+    }
+
+    private static Map<String, String> changes(String... keys) {
+        Map<String, String> changes = new LinkedHashMap<>();
+        for (String key : keys) {
+            changes.put(key, "line " + key);
+        }
+        return changes;
+    }
+
+    private static NotificationChannel channel(String name) {
+        NotificationChannel channel = mock(NotificationChannel.class);
+        when(channel.name()).thenReturn(name);
+        when(channel.isEnabled()).thenReturn(true);
+        return channel;
+    }
+
+    private double count(String channel, String result) {
+        return meterRegistry.counter("raid.notification.channel", "channel", channel, "result", result).count();
+    }
+}
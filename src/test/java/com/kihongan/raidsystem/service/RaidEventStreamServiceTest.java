@@ -0,0 +1,167 @@
+package com.kihongan.raidsystem.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.kihongan.raidsystem.domain.raid.RaidBoardCache;
+import com.kihongan.raidsystem.domain.raid.RaidBoardEvent;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit tests for RaidEventStreamService.
+ * Tests that a client whose queue overflows is disconnected, that clients over the
+ * limit are told the server is busy, and that a write blocking past the send timeout
+ * drops only its own client while the others keep receiving events.
+ */
+class RaidEventStreamServiceTest {
+
+    private final RaidBoardCache raidBoardCache = new RaidBoardCache();
+    private final Deque<FakeEmitter> emitters = new ArrayDeque<>();
+    private RaidEventStreamService service;
+
+    @AfterEach
+    void tearDown() {
+        emitters.forEach(FakeEmitter::release);
+        if (service != null) {
+            service.shutdown();
+        }
+    }
+
+    @Test
+    void clientThatFallsBehindIsDisconnected() throws Exception {
+        // GIVEN a client whose first write hangs, with a send timeout far away
+        service = service(10, 60_000);
+        FakeEmitter stuck = next(new FakeEmitter(true));
+        service.subscribe();
+        assertThat(stuck.writeStarted.await(5, TimeUnit.SECONDS)).isTrue();
+
+        // WHEN more events arrive than its queue can hold
+        for (int i = 0; i < 17; i++) {
+            service.onRaidBoardEvent(RaidBoardEvent.raidCreated((long) i));
+        }
+
+        // THEN it is disconnected
+        assertThat(service.getClientCount()).isZero();
+        assertThat(stuck.completed).isTrue();
+    }
+
+    @Test
+    void clientsOverTheLimitAreToldToRetryLater() {
+        // GIVEN a stream with room for one client
+        service = service(1, 60_000);
+        next(new FakeEmitter(false));
+        service.subscribe();
+
+        // WHEN a second client connects
+        FakeEmitter rejected = next(new FakeEmitter(false));
+        service.subscribe();
+
+        // THEN it gets a busy reply and is closed, and the first keeps its slot
+        assertThat(rejected.sent.stream().collect(Collectors.joining())).contains("busy");
+        assertThat(rejected.completed).isTrue();
+        assertThat(service.getClientCount()).isEqualTo(1);
+    }
+
+    @Test
+    void stalledWriteIsDroppedWhileOtherClientsKeepReceiving() throws Exception {
+        // GIVEN a client whose write blocks (ignoring interrupts) and a healthy client
+        service = service(10, 100);
+        FakeEmitter stuck = next(new FakeEmitter(true));
+        service.subscribe();
+        assertThat(stuck.writeStarted.await(5, TimeUnit.SECONDS)).isTrue();
+        FakeEmitter healthy = next(new FakeEmitter(false));
+        service.subscribe();
+        assertThat(healthy.received.poll(5, TimeUnit.SECONDS)).contains("hello");
+
+        // WHEN the write stays blocked past the send timeout and more events follow
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (service.getClientCount() > 1 && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        for (int i = 0; i < 3; i++) {
+            service.onRaidBoardEvent(RaidBoardEvent.raidCreated((long) i));
+        }
+
+        // THEN only the stalled client is dropped, and the healthy one gets every event
+        assertThat(service.getClientCount()).isEqualTo(1);
+        for (int i = 0; i < 3; i++) {
+            assertThat(healthy.received.poll(5, TimeUnit.SECONDS)).contains("raid-created");
+        }
+        assertThat(healthy.completed).isFalse();
+
+        // and the stalled client is closed once its write returns
+        stuck.release();
+        deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!stuck.completed && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertThat(stuck.completed).isTrue();
+    }
+
+    private RaidEventStreamService service(int maxClients, long sendTimeoutMs) {
+        return new RaidEventStreamService(raidBoardCache, new ObjectMapper(), maxClients, 3600, sendTimeoutMs,
+                emitters::removeFirst);
+    }
+
+    private FakeEmitter next(FakeEmitter emitter) {
+        emitters.addLast(emitter);
+        return emitter;
+    }
+
+    /**
+     * Emitter that records what is written and can block its first write until released.
+     */
+    private static final class FakeEmitter extends SseEmitter {
+        private final BlockingQueue<String> received = new LinkedBlockingQueue<>();
+        private final BlockingQueue<String> sent = new LinkedBlockingQueue<>();
+        private final CountDownLatch writeStarted = new CountDownLatch(1);
+        private final CountDownLatch released;
+        private volatile boolean completed;
+
+        private FakeEmitter(boolean blockFirstWrite) {
+            this.released = new CountDownLatch(blockFirstWrite ? 1 : 0);
+        }
+
+        @Override
+        public void send(SseEventBuilder builder) throws IOException {
+            String text = builder.build().stream()
+                    .map(part -> String.valueOf(part.getData()))
+                    .collect(Collectors.joining());
+            writeStarted.countDown();
+            boolean interrupted = false;
+            while (released.getCount() > 0) {
+                try {
+                    released.await();
+                } catch (InterruptedException e) {
+                    // Like a blocked socket write, keep waiting
+                    interrupted = true;
+                }
+            }
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+            sent.add(text);
+            received.add(text);
+        }
+
+        @Override
+        public void complete() {
+            completed = true;
+        }
+
+        private void release() {
+            released.countDown();
+        }
+    }
+}